@@ -0,0 +1,231 @@
+package cs445.a1;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A hash-indexed implementation of BagInterface. Keys and their counts are
+ * stored in parallel arrays, densely packed like HashSet's entries, and an
+ * open-addressed index with linear probing and backward-shift deletion maps
+ * each key to its position.
+ *
+ * <p> Counts are primitive ints kept next to their keys, so changing a count
+ * is a single probe followed by an array store: it allocates nothing and
+ * never moves any entry. Entries only move when a key is removed, in which
+ * case the last entry is swapped into the gap.
+ */
+public class Bag<K> implements BagInterface<K> {
+
+    private static final int DEFAULT_SIZE = 16;
+
+    private K[] mKeys;
+    private int[] mCounts;
+    private int[] mHashes;
+
+    /** Maps the hash in mHashes of every key to its position */
+    private HashIndex mIndex;
+    private int size;
+
+    public Bag() {
+        this(DEFAULT_SIZE);
+    }
+
+    public Bag(int cap) {
+        if (cap < 1) cap = 1;
+        @SuppressWarnings("unchecked")
+        K[] keys = (K[]) new Object[cap];
+        mKeys = keys;
+        mCounts = new int[cap];
+        mHashes = new int[cap];
+        mIndex = new HashIndex(cap);
+        size = 0;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int count(K key) throws NullPointerException {
+        if (key == null) throw new NullPointerException();
+
+        int slot = findSlot(key, key.hashCode());
+        return slot < 0 ? 0 : mCounts[mIndex.position(slot)];
+    }
+
+    @Override
+    public boolean contains(K key) throws NullPointerException {
+        if (key == null) throw new NullPointerException();
+
+        return findSlot(key, key.hashCode()) >= 0;
+    }
+
+    @Override
+    public int add(K key, int delta) throws NullPointerException,
+                                            IllegalArgumentException {
+        if (key == null) throw new NullPointerException();
+        if (delta < 1) throw new IllegalArgumentException("Delta less than 1");
+
+        int hash = key.hashCode();
+        int slot = findSlot(key, hash);
+        if (slot < 0) {
+            insert(~slot, key, hash, delta);
+            return 0;
+        }
+
+        int pos = mIndex.position(slot);
+        int old = mCounts[pos];
+        if (old > Integer.MAX_VALUE - delta) {
+            throw new IllegalArgumentException("Count overflows int");
+        }
+        mCounts[pos] = old + delta;
+        return old;
+    }
+
+    @Override
+    public int remove(K key, int delta) throws NullPointerException,
+                                               IllegalArgumentException {
+        if (key == null) throw new NullPointerException();
+        if (delta < 1) throw new IllegalArgumentException("Delta less than 1");
+
+        int slot = findSlot(key, key.hashCode());
+        if (slot < 0) return 0;
+
+        int pos = mIndex.position(slot);
+        int old = mCounts[pos];
+        if (old > delta) {
+            mCounts[pos] = old - delta;
+        } else {
+            removeSlot(slot);
+        }
+        return old;
+    }
+
+    @Override
+    public int replace(K key, int count) throws NullPointerException,
+                                                IllegalArgumentException {
+        if (key == null) throw new NullPointerException();
+        if (count < 1) throw new IllegalArgumentException("Count less than 1");
+
+        int slot = findSlot(key, key.hashCode());
+        if (slot < 0) return 0;
+
+        int pos = mIndex.position(slot);
+        int old = mCounts[pos];
+        mCounts[pos] = count;
+        return old;
+    }
+
+    @Override
+    public int compute(K key, IntUnaryOperator remapping)
+            throws NullPointerException {
+        if (key == null || remapping == null) {
+            throw new NullPointerException();
+        }
+
+        int hash = key.hashCode();
+        int slot = findSlot(key, hash);
+        if (slot < 0) {
+            int count = remapping.applyAsInt(0);
+            if (count > 0) insert(~slot, key, hash, count);
+            return 0;
+        }
+
+        int pos = mIndex.position(slot);
+        int old = mCounts[pos];
+        int count = remapping.applyAsInt(old);
+        if (count > 0) {
+            mCounts[pos] = count;
+        } else {
+            removeSlot(slot);
+        }
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        if (size == 0) return;
+
+        Arrays.fill(mKeys, 0, size, null);
+        mIndex.clear();
+        size = 0;
+    }
+
+    /**
+     * Performs an action for each key in this bag along with its count, in
+     * the order the keys are stored. No array is copied and no object is
+     * allocated per key.
+     *
+     * @param action  The action to perform on each key and count
+     * @throws NullPointerException  If action is null
+     */
+    @Override
+    public void forEach(ObjIntConsumer<? super K> action)
+            throws NullPointerException {
+        if (action == null) throw new NullPointerException();
+
+        for (int pos = 0; pos < size; pos++) {
+            action.accept(mKeys[pos], mCounts[pos]);
+        }
+    }
+
+    /**
+     * Probes the index for a key.
+     *
+     * @param key The key to find
+     * @param hash The key's hash code
+     * @return The slot referencing the key, or the bitwise complement of the
+     * empty slot where it would be inserted if it is not in this bag
+     */
+    private int findSlot(K key, int hash) {
+        for (int slot = mIndex.home(hash); ; slot = mIndex.next(slot)) {
+            int pos = mIndex.position(slot);
+            if (pos < 0) return ~slot;
+            if (mHashes[pos] == hash && mKeys[pos].equals(key)) return slot;
+        }
+    }
+
+    /**
+     * Appends a key known to be absent and links it into the index at the
+     * given empty slot, growing the backing arrays as needed.
+     */
+    private void insert(int slot, K key, int hash, int count) {
+        if (size == mKeys.length) {
+            int cap = mKeys.length * 2;
+            mKeys = Arrays.copyOf(mKeys, cap);
+            mCounts = Arrays.copyOf(mCounts, cap);
+            mHashes = Arrays.copyOf(mHashes, cap);
+        }
+
+        mKeys[size] = key;
+        mCounts[size] = count;
+        mHashes[size] = hash;
+        mIndex.set(slot, size++);
+        mIndex.reserve(size, mHashes, size);
+    }
+
+    /**
+     * Removes the key referenced by the given index slot, moving the last
+     * entry into the gap.
+     */
+    private void removeSlot(int slot) {
+        int pos = mIndex.position(slot);
+        mIndex.delete(slot, mHashes);
+
+        int last = --size;
+        if (pos != last) {
+            mIndex.move(last, pos, mHashes[last]);
+            mKeys[pos] = mKeys[last];
+            mCounts[pos] = mCounts[last];
+            mHashes[pos] = mHashes[last];
+        }
+        mKeys[last] = null;
+    }
+}
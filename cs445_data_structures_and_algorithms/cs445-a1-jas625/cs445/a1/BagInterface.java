@@ -0,0 +1,122 @@
+package cs445.a1;
+
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Bag is an interface that describes the operations of the ADT bag, also
+ * known as a multiset. A bag is an unordered collection of distinct keys, each
+ * of which has a positive count. A key whose count drops to zero or below is
+ * no longer in the bag. Keys are compared using the .equals() method and may
+ * not be null.
+ *
+ * <p> Every method that changes a count returns the count the key had before
+ * the change (0 if it was not in the bag), so callers can tell whether a key
+ * was inserted or removed without a second lookup.
+ */
+public interface BagInterface<K> {
+
+    /**
+     * Determines the number of distinct keys in this bag.
+     *
+     * @return  The number of keys with a positive count
+     */
+    public int getSize();
+
+    /**
+     * Determines whether this bag is empty.
+     *
+     * @return  true if this bag contains no keys; false if not
+     */
+    public boolean isEmpty();
+
+    /**
+     * Gets the count of a key. The method never modifies this bag.
+     *
+     * @param key  The key to look up
+     * @return  The key's count, or 0 if it is not in this bag
+     * @throws NullPointerException  If key is null
+     */
+    public int count(K key) throws NullPointerException;
+
+    /**
+     * Tests whether this bag contains a key, that is, whether its count is
+     * positive.
+     *
+     * @param key  The key to look up
+     * @return  true if this bag contains key; false if not
+     * @throws NullPointerException  If key is null
+     */
+    public boolean contains(K key) throws NullPointerException;
+
+    /**
+     * Increases the count of a key by delta. If the key is not in this bag,
+     * it is inserted with count delta.
+     *
+     * @param key  The key to add
+     * @param delta  The amount to add to the key's count
+     * @return  The key's previous count, or 0 if it was not in this bag
+     * @throws NullPointerException  If key is null
+     * @throws IllegalArgumentException  If delta is less than 1, or the new
+     * count would exceed Integer.MAX_VALUE
+     */
+    public int add(K key, int delta) throws NullPointerException,
+                                            IllegalArgumentException;
+
+    /**
+     * Decreases the count of a key by delta. If the count drops to zero or
+     * below, the key is removed from this bag. If the key is not in this bag,
+     * this method does nothing.
+     *
+     * @param key  The key to remove
+     * @param delta  The amount to subtract from the key's count
+     * @return  The key's previous count, or 0 if it was not in this bag
+     * @throws NullPointerException  If key is null
+     * @throws IllegalArgumentException  If delta is less than 1
+     */
+    public int remove(K key, int delta) throws NullPointerException,
+                                               IllegalArgumentException;
+
+    /**
+     * Sets the count of a key that is already in this bag. If the key is not
+     * in this bag, this method does nothing.
+     *
+     * @param key  The key to update
+     * @param count  The key's new count
+     * @return  The key's previous count, or 0 if it was not in this bag
+     * @throws NullPointerException  If key is null
+     * @throws IllegalArgumentException  If count is less than 1
+     */
+    public int replace(K key, int count) throws NullPointerException,
+                                                IllegalArgumentException;
+
+    /**
+     * Replaces the count of a key with the result of a function of its
+     * current count (0 if the key is not in this bag), in a single lookup. If
+     * the result is zero or negative, the key is removed from (or not
+     * inserted into) this bag.
+     *
+     * @param key  The key to update
+     * @param remapping  The function computing the new count
+     * @return  The key's previous count, or 0 if it was not in this bag
+     * @throws NullPointerException  If key or remapping is null
+     */
+    public int compute(K key, IntUnaryOperator remapping)
+            throws NullPointerException;
+
+    /**
+     * Removes all keys from this bag.
+     */
+    public void clear();
+
+    /**
+     * Performs an action for each key in this bag along with its count. The
+     * bag must not be modified by the action.
+     *
+     * @param action  The action to perform on each key and count
+     * @throws NullPointerException  If action is null
+     */
+    public void forEach(ObjIntConsumer<? super K> action)
+            throws NullPointerException;
+
+}
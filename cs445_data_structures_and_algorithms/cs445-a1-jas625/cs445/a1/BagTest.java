@@ -0,0 +1,143 @@
+package cs445.a1;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks Bag against a java.util.HashMap of counts, and checks that counts
+ * never overflow and that invalid deltas change nothing. Run it with
+ * java cs445.a1.BagTest; it throws AssertionError at the first check that
+ * fails.
+ */
+public class BagTest {
+
+    private static final Random RANDOM = new Random(8);
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 200; round++) {
+            matchesReference();
+        }
+        rejectsOverflow();
+        rejectsBadArguments();
+        System.out.println("All Bag tests passed");
+    }
+
+    private static void matchesReference() {
+        Bag<String> bag = new Bag<>(1 + RANDOM.nextInt(4));
+        Map<String, Integer> ref = new HashMap<>();
+        int range = 1 + RANDOM.nextInt(500);
+
+        for (int i = 0; i < 3000; i++) {
+            String key = "k" + RANDOM.nextInt(range);
+            int old = ref.getOrDefault(key, 0);
+            int delta = 1 + RANDOM.nextInt(5);
+            switch (RANDOM.nextInt(6)) {
+            case 0:
+            case 1:
+                check(bag.add(key, delta) == old, "add " + key);
+                ref.put(key, old + delta);
+                break;
+            case 2:
+                check(bag.remove(key, delta) == old, "remove " + key);
+                if (old > delta) {
+                    ref.put(key, old - delta);
+                } else {
+                    ref.remove(key);
+                }
+                break;
+            case 3:
+                check(bag.replace(key, delta) == old, "replace " + key);
+                if (old > 0) ref.put(key, delta);
+                break;
+            case 4:
+                // drops to zero, and so out of the bag, about half the time
+                int count = old - 2 + RANDOM.nextInt(5);
+                check(bag.compute(key, c -> count) == old, "compute " + key);
+                if (count > 0) {
+                    ref.put(key, count);
+                } else {
+                    ref.remove(key);
+                }
+                break;
+            default:
+                check(bag.count(key) == old, "count " + key);
+                check(bag.contains(key) == (old > 0), "contains " + key);
+            }
+            check(bag.getSize() == ref.size(), "size");
+        }
+
+        Map<String, Integer> seen = new HashMap<>();
+        bag.forEach((key, count) -> {
+            check(count > 0, "forEach passed count " + count);
+            check(seen.put(key, count) == null, "forEach passed " + key
+                    + " twice");
+        });
+        check(seen.equals(ref), "forEach contents");
+
+        bag.clear();
+        check(bag.isEmpty() && bag.count("k0") == 0, "clear");
+        check(bag.add("k0", 1) == 0 && bag.count("k0") == 1,
+                "add after clear");
+    }
+
+    private static void rejectsOverflow() {
+        Bag<String> bag = new Bag<>();
+        bag.add("Milk", Integer.MAX_VALUE - 1);
+        check(bag.add("Milk", 1) == Integer.MAX_VALUE - 1, "add to the limit");
+        try {
+            bag.add("Milk", 1);
+            throw new AssertionError("count overflowed");
+        } catch (IllegalArgumentException expected) {
+            // rejected
+        }
+        check(bag.count("Milk") == Integer.MAX_VALUE, "overflow changed count");
+
+        bag.add("Eggs", 5);
+        try {
+            bag.add("Eggs", Integer.MAX_VALUE);
+            throw new AssertionError("large delta overflowed");
+        } catch (IllegalArgumentException expected) {
+            // rejected
+        }
+        check(bag.count("Eggs") == 5, "large delta changed count");
+
+        check(bag.remove("Milk", Integer.MAX_VALUE) == Integer.MAX_VALUE
+                && !bag.contains("Milk"), "remove everything");
+    }
+
+    private static void rejectsBadArguments() {
+        Bag<String> bag = new Bag<>();
+        bag.add("Milk", 2);
+        int[] deltas = {0, -1, Integer.MIN_VALUE};
+        for (int delta : deltas) {
+            expectIllegal(() -> bag.add("Milk", delta), "add " + delta);
+            expectIllegal(() -> bag.remove("Milk", delta), "remove " + delta);
+            expectIllegal(() -> bag.replace("Milk", delta),
+                    "replace " + delta);
+        }
+        check(bag.count("Milk") == 2, "rejected change applied");
+
+        try {
+            bag.add(null, 1);
+            throw new AssertionError("null key accepted");
+        } catch (NullPointerException expected) {
+            // rejected
+        }
+        check(bag.remove("Eggs", 1) == 0 && bag.replace("Eggs", 1) == 0
+                && !bag.contains("Eggs"), "absent key changed");
+    }
+
+    private static void expectIllegal(Runnable change, String what) {
+        try {
+            change.run();
+            throw new AssertionError(what + " accepted");
+        } catch (IllegalArgumentException expected) {
+            // rejected
+        }
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) throw new AssertionError(what);
+    }
+}
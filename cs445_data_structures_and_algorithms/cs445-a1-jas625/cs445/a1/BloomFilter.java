@@ -0,0 +1,101 @@
+package cs445.a1;
+
+import java.util.Arrays;
+
+/**
+ * A Bloom filter: a compact, probabilistic summary of a set of objects. It
+ * can say for certain that an object was never added, but may wrongly claim
+ * that an object was added (a false positive). The filter is sized from the
+ * number of objects it is expected to hold and the false-positive rate that
+ * is acceptable at that size.
+ *
+ * <p> Objects are hashed with their hashCode method, which is expanded into
+ * as many bit positions as needed by double hashing. Objects cannot be
+ * removed from a Bloom filter; build a new one instead.
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+    private final int mask;
+    private final int numHashes;
+
+    /**
+     * Creates an empty filter.
+     *
+     * @param expected the number of objects the filter should hold
+     * @param fpp the false-positive rate wanted when it holds that many,
+     * strictly between 0 and 1
+     * @throws IllegalArgumentException if fpp is out of range
+     */
+    public BloomFilter(int expected, double fpp)
+            throws IllegalArgumentException {
+        if (!(fpp > 0 && fpp < 1)) {
+            throw new IllegalArgumentException("fpp must be in (0, 1)");
+        }
+
+        int n = Math.max(expected, 1);
+        double optimal = -n * Math.log(fpp) / (Math.log(2) * Math.log(2));
+        // round up to a power of two (at least one long) so a mask can
+        // replace the modulus
+        long m = Long.highestOneBit(Math.max((long) Math.ceil(optimal), 64));
+        if (m < optimal) m <<= 1;
+        m = Math.min(m, 1L << 31);
+
+        bits = new long[(int) (m >>> 6)];
+        mask = (int) (m - 1);
+        numHashes = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+    }
+
+    /**
+     * Records an object in this filter.
+     *
+     * @param o the object to add
+     * @throws NullPointerException if o is null
+     */
+    public void put(Object o) throws NullPointerException {
+        int h1 = mix(o.hashCode());
+        int h2 = (h1 >>> 16) | (h1 << 16) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (h1 + i * h2) & mask;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Tests whether an object might have been added to this filter.
+     *
+     * @param o the object to test
+     * @return  false if o was definitely never added; true if it may have
+     * been
+     * @throws NullPointerException if o is null
+     */
+    public boolean mightContain(Object o) throws NullPointerException {
+        int h1 = mix(o.hashCode());
+        int h2 = (h1 >>> 16) | (h1 << 16) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Forgets every object added to this filter.
+     */
+    public void clear() {
+        Arrays.fill(bits, 0);
+    }
+
+    /**
+     * Scrambles a hash code (the finalization step of MurmurHash3), so that
+     * poor hashCode implementations still spread over the whole filter.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
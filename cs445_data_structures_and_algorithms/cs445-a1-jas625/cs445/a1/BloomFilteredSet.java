@@ -0,0 +1,220 @@
+package cs445.a1;
+
+import java.util.function.BiFunction;
+
+/**
+ * A SetInterface decorator that puts a Bloom filter in front of another set.
+ * Lookups for entries that are not in the set are usually answered by the
+ * filter alone, in a few hash computations, without touching the underlying
+ * set at all. This pays off when most lookups miss and the underlying set is
+ * slow to probe, or large enough that probing it causes cache misses.
+ *
+ * <p> The filter is rebuilt from the underlying set with twice the capacity
+ * whenever the set outgrows it, and at the same capacity once enough
+ * entries have been removed that stale bits would noticeably raise the
+ * false-positive rate. The underlying set must not be modified except
+ * through this decorator.
+ */
+public class BloomFilteredSet<E> implements SetInterface<E> {
+
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final double DEFAULT_FPP = 0.01;
+
+    private final SetInterface<E> delegate;
+    private final double fpp;
+    private BloomFilter filter;
+    private int capacity;
+
+    /** Entries removed since the filter was last rebuilt */
+    private int removals;
+
+    /**
+     * Wraps a set with a filter tuned for a 1% false-positive rate.
+     *
+     * @param delegate the set to wrap, which may already hold entries
+     */
+    public BloomFilteredSet(SetInterface<E> delegate) {
+        this(delegate, DEFAULT_FPP);
+    }
+
+    /**
+     * Wraps a set with a filter tuned for the given false-positive rate.
+     *
+     * @param delegate the set to wrap, which may already hold entries
+     * @param fpp the false-positive rate to maintain, strictly between 0 and
+     * 1
+     * @throws NullPointerException if delegate is null
+     * @throws IllegalArgumentException if fpp is out of range
+     */
+    public BloomFilteredSet(SetInterface<E> delegate, double fpp)
+            throws NullPointerException, IllegalArgumentException {
+        if (delegate == null) throw new NullPointerException();
+        if (!(fpp > 0 && fpp < 1)) {
+            throw new IllegalArgumentException("fpp must be in (0, 1)");
+        }
+
+        this.delegate = delegate;
+        this.fpp = fpp;
+        rebuild(Math.max(DEFAULT_CAPACITY, delegate.getSize() * 2));
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return delegate.isEmpty();
+    }
+
+    @Override
+    public boolean add(E newEntry) throws SetFullException,
+                                          NullPointerException {
+        if (newEntry == null) throw new NullPointerException();
+        if (!delegate.add(newEntry)) return false;
+
+        added(newEntry);
+        return true;
+    }
+
+    /**
+     * Removes a specific entry from this set, if possible. If the filter
+     * rules the entry out, the underlying set is not consulted.
+     *
+     * @param entry  The entry to be removed
+     * @return  The removed entry if removal was successful; null otherwise
+     * @throws NullPointerException  If entry is null
+     */
+    @Override
+    public E remove(E entry) throws NullPointerException {
+        if (!filter.mightContain(entry)) return null;
+
+        E removed = delegate.remove(entry);
+        if (removed != null) removed();
+        return removed;
+    }
+
+    @Override
+    public E remove() {
+        E removed = delegate.remove();
+        if (removed != null) removed();
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        filter.clear();
+        removals = 0;
+    }
+
+    /**
+     * Tests whether this set contains a given entry. If the filter rules the
+     * entry out, the underlying set is not consulted.
+     *
+     * @param entry  The entry to locate
+     * @return  true if this set contains entry; false if not
+     * @throws NullPointerException  If entry is null
+     */
+    @Override
+    public boolean contains(E entry) throws NullPointerException {
+        return filter.mightContain(entry) && delegate.contains(entry);
+    }
+
+    @Override
+    public E merge(E entry, BiFunction<? super E, ? super E, ? extends E>
+            remapping) throws SetFullException, NullPointerException {
+        if (remapping == null) throw new NullPointerException();
+
+        if (!filter.mightContain(entry)) {
+            delegate.add(entry);
+            added(entry);
+            return entry;
+        }
+
+        int oldSize = delegate.getSize();
+        E result = delegate.merge(entry, remapping);
+        if (delegate.getSize() > oldSize) {
+            added(entry);
+        } else if (result == null) {
+            removed();
+        }
+        return result;
+    }
+
+    @Override
+    public E computeIfPresent(E entry, BiFunction<? super E, ? super E,
+            ? extends E> remapping) throws NullPointerException {
+        if (remapping == null) throw new NullPointerException();
+        if (!filter.mightContain(entry)) return null;
+
+        int oldSize = delegate.getSize();
+        E result = delegate.computeIfPresent(entry, remapping);
+        if (delegate.getSize() < oldSize) removed();
+        return result;
+    }
+
+    @Override
+    public E replace(E entry) throws NullPointerException {
+        if (!filter.mightContain(entry)) return null;
+
+        return delegate.replace(entry);
+    }
+
+    @Override
+    public Object[] toArray() {
+        return delegate.toArray();
+    }
+
+    /**
+     * Combines the underlying sets and puts a new filter, with the same
+     * false-positive rate, in front of the result.
+     */
+    @Override
+    public BloomFilteredSet<E> union(SetInterface<? extends E> other)
+            throws NullPointerException {
+        return new BloomFilteredSet<>(delegate.union(other), fpp);
+    }
+
+    /**
+     * Intersects the underlying sets and puts a new filter, with the same
+     * false-positive rate, in front of the result.
+     */
+    @Override
+    public BloomFilteredSet<E> intersection(SetInterface<E> other)
+            throws NullPointerException {
+        return new BloomFilteredSet<>(delegate.intersection(other), fpp);
+    }
+
+    /**
+     * Records a new entry in the filter, rebuilding it with twice the
+     * capacity if the set has outgrown it.
+     */
+    private void added(E entry) {
+        if (delegate.getSize() > capacity) {
+            rebuild(capacity * 2);
+        } else {
+            filter.put(entry);
+        }
+    }
+
+    /**
+     * Counts a removal, rebuilding the filter once half of its capacity has
+     * been taken up by entries that are no longer in the set.
+     */
+    private void removed() {
+        if (++removals > capacity / 2) rebuild(capacity);
+    }
+
+    private void rebuild(int newCapacity) {
+        capacity = newCapacity;
+        filter = new BloomFilter(newCapacity, fpp);
+        removals = 0;
+
+        Object[] entries = delegate.toArray();
+        for (int i = 0; i < entries.length; i++) {
+            filter.put(entries[i]);
+        }
+    }
+}
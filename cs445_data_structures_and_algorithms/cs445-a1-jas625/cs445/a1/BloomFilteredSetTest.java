@@ -0,0 +1,215 @@
+package cs445.a1;
+
+import java.util.Random;
+
+/**
+ * Checks BloomFilteredSet against java.util.HashSet over every kind of
+ * underlying set, so that the filter never hides an entry that is there,
+ * and checks that lookups for absent entries rarely reach the underlying
+ * set, before and after the filter is rebuilt. Run it with
+ * java cs445.a1.BloomFilteredSetTest; it throws AssertionError at the first
+ * check that fails.
+ */
+public class BloomFilteredSetTest {
+
+    private static final Random RANDOM = new Random(14);
+
+    public static void main(String[] args) throws SetFullException {
+        for (int round = 0; round < 300; round++) {
+            matchesReference();
+        }
+        missesSkipTheSet();
+        combinesSets();
+        rejectsBadArguments();
+        System.out.println("All BloomFilteredSet tests passed");
+    }
+
+    private static void matchesReference() throws SetFullException {
+        SetInterface<Integer> delegate;
+        switch (RANDOM.nextInt(3)) {
+        case 0:
+            delegate = new Set<>();
+            break;
+        case 1:
+            delegate = new HashSet<>();
+            break;
+        default:
+            delegate = new SkipListSet<>();
+        }
+        java.util.HashSet<Integer> ref = new java.util.HashSet<>();
+        // some entries are there before the filter is
+        int range = 1 + RANDOM.nextInt(500);
+        for (int i = RANDOM.nextInt(100); i > 0; i--) {
+            int key = RANDOM.nextInt(range);
+            delegate.add(key);
+            ref.add(key);
+        }
+        BloomFilteredSet<Integer> set = new BloomFilteredSet<>(delegate,
+                RANDOM.nextBoolean() ? 0.01 : 0.5);
+
+        for (int i = 0; i < 1000; i++) {
+            int key = RANDOM.nextInt(range);
+            boolean present = ref.contains(key);
+            switch (RANDOM.nextInt(9)) {
+            case 0:
+            case 1:
+                check(set.add(key) == ref.add(key), "add " + key);
+                break;
+            case 2:
+                check((set.remove(key) != null) == ref.remove(key),
+                        "remove " + key);
+                break;
+            case 3:
+                if (!ref.isEmpty()) {
+                    check(ref.remove(set.remove()), "remove()");
+                }
+                break;
+            case 4:
+                check((set.replace(key) != null) == present,
+                        "replace " + key);
+                break;
+            case 5:
+                // removes the entry when it is there half of the time
+                boolean drop = RANDOM.nextBoolean();
+                Integer merged = set.merge(key, (old, given) ->
+                        drop ? null : old);
+                check((merged == null) == (present && drop), "merge " + key);
+                if (!present) {
+                    ref.add(key);
+                } else if (drop) {
+                    ref.remove(key);
+                }
+                break;
+            case 6:
+                Integer computed = set.computeIfPresent(key, (old, given) ->
+                        null);
+                check(computed == null, "computeIfPresent " + key);
+                ref.remove(key);
+                break;
+            case 7:
+                if (RANDOM.nextInt(20) == 0) {
+                    set.clear();
+                    ref.clear();
+                }
+                break;
+            default:
+                check(set.contains(key) == present, "contains " + key);
+            }
+            check(set.getSize() == ref.size(), "size");
+            check(set.isEmpty() == ref.isEmpty(), "isEmpty");
+        }
+
+        for (int key = 0; key < range; key++) {
+            check(set.contains(key) == ref.contains(key),
+                    "final contains " + key);
+        }
+        check(set.toArray().length == ref.size(), "toArray");
+    }
+
+    /**
+     * Grows a set well past the filter's starting capacity, then removes
+     * most of it, and counts how many lookups for absent entries still
+     * reach the underlying set. At a 1% false-positive rate that should be
+     * a few in a thousand.
+     */
+    private static void missesSkipTheSet() throws SetFullException {
+        CountingSet delegate = new CountingSet();
+        BloomFilteredSet<Integer> set = new BloomFilteredSet<>(delegate, 0.01);
+        int n = 100000;
+        for (int i = 0; i < n; i++) {
+            set.add(i);
+        }
+        checkMisses(set, delegate, n, "after growing");
+
+        for (int i = 0; i < n; i += 4) {
+            set.remove(i);
+            set.remove(i + 1);
+            set.remove(i + 2);
+        }
+        for (int i = 0; i < n; i++) {
+            check(set.contains(i) == (i % 4 == 3), "contains " + i);
+        }
+        checkMisses(set, delegate, n, "after removing");
+    }
+
+    private static void checkMisses(BloomFilteredSet<Integer> set,
+            CountingSet delegate, int n, String when) {
+        int lookups = 100000;
+        delegate.probes = 0;
+        for (int i = 0; i < lookups; i++) {
+            check(!set.contains(n + i), "contains absent " + (n + i));
+        }
+        check(delegate.probes < lookups * 0.02, delegate.probes
+                + " of " + lookups + " misses probed the set " + when);
+    }
+
+    private static void combinesSets() {
+        HashSet<Integer> a = new HashSet<>(new Integer[] {1, 2, 3, 4});
+        Set<Integer> b = new Set<>(new Integer[] {3, 4, 5});
+        BloomFilteredSet<Integer> set = new BloomFilteredSet<>(a);
+
+        BloomFilteredSet<Integer> union = set.union(b);
+        check(union.getSize() == 5, "union size");
+        for (int key = 1; key <= 5; key++) {
+            check(union.contains(key), "union contains " + key);
+        }
+        check(!union.contains(6), "union contains 6");
+
+        BloomFilteredSet<Integer> intersection = set.intersection(b);
+        check(intersection.getSize() == 2 && intersection.contains(3)
+                && intersection.contains(4) && !intersection.contains(1),
+                "intersection");
+        check(set.getSize() == 4 && !set.contains(5), "operands changed");
+    }
+
+    private static void rejectsBadArguments() throws SetFullException {
+        double[] rates = {0, 1, -0.5, 2, Double.NaN};
+        for (double fpp : rates) {
+            try {
+                new BloomFilteredSet<>(new HashSet<Integer>(), fpp);
+                throw new AssertionError("fpp " + fpp + " accepted");
+            } catch (IllegalArgumentException expected) {
+                // rejected
+            }
+        }
+        try {
+            new BloomFilteredSet<Integer>(null);
+            throw new AssertionError("null set accepted");
+        } catch (NullPointerException expected) {
+            // rejected
+        }
+
+        BloomFilteredSet<Integer> set = new BloomFilteredSet<>(
+                new HashSet<>());
+        try {
+            set.add(null);
+            throw new AssertionError("null entry accepted");
+        } catch (NullPointerException expected) {
+            // rejected
+        }
+        try {
+            set.contains(null);
+            throw new AssertionError("null lookup accepted");
+        } catch (NullPointerException expected) {
+            // rejected
+        }
+        check(set.isEmpty(), "rejected entry added");
+    }
+
+    /**
+     * A HashSet that counts the lookups that reach it.
+     */
+    private static final class CountingSet extends HashSet<Integer> {
+        int probes;
+
+        @Override
+        public boolean contains(Integer entry) {
+            probes++;
+            return super.contains(entry);
+        }
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) throw new AssertionError(what);
+    }
+}
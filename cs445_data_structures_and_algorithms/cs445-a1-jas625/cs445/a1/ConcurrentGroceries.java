@@ -0,0 +1,258 @@
+package cs445.a1;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A thread-safe implementation of GroceriesInterface for many point-of-sale
+ * threads at once. Each description maps to a striped counter (LongAdder)
+ * in a concurrent map, so threads adding the same popular item update
+ * different cells of its counter and do not contend. Descriptions are keyed
+ * by their DescriptionDictionary entries, as in Groceries.
+ *
+ * <p> Adding only ever increases a quantity, so many additions may proceed
+ * at once. Removing, modifying and printing need to see a quantity that is
+ * not changing underneath them, so they exclude additions. This is done
+ * with one read-write lock per stripe: an addition takes the read lock of
+ * its own thread's stripe, while the other operations take the write locks
+ * of every stripe. Additions therefore share no lock state with each other,
+ * and printAll prints a snapshot that was consistent at one instant.
+ *
+ * <p> The price is paid by everything else. removeItem, modifyQuantity,
+ * applyBatch and printAll each take all of the write locks (two per
+ * processor by default) one after another, so they serialize against one
+ * another and against every addition in progress, whatever items are
+ * involved, and each costs O(stripes) lock operations even for a single
+ * item. This class suits workloads where additions vastly outnumber other
+ * changes; if removals and modifications are frequent, a single lock is
+ * likely to do better.
+ */
+public class ConcurrentGroceries implements GroceriesInterface {
+
+    private static final int MAX_STRIPES = 1 << 16;
+
+    /** Hands out stripe indexes to threads in turn */
+    private static final AtomicInteger NEXT_STRIPE = new AtomicInteger();
+
+    /** The stripe index of each thread, reduced modulo the stripe count */
+    private static final ThreadLocal<Integer> STRIPE =
+            ThreadLocal.withInitial(NEXT_STRIPE::getAndIncrement);
+
+    private final ConcurrentHashMap<DescriptionDictionary.Entry, LongAdder>
+            counts = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock[] stripes;
+
+    /**
+     * Creates groceries with two lock stripes per available processor.
+     */
+    public ConcurrentGroceries() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * Creates groceries with at least the given number of lock stripes,
+     * rounded up to a power of two.
+     *
+     * @param concurrencyLevel  The expected number of concurrent threads
+     */
+    public ConcurrentGroceries(int concurrencyLevel) {
+        int n = 1;
+        while (n < concurrencyLevel && n < MAX_STRIPES) {
+            n <<= 1;
+        }
+
+        stripes = new ReentrantReadWriteLock[n];
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Adds item to these groceries. Only the calling thread's stripe is
+     * locked, and only for reading, so concurrent additions never wait for
+     * each other.
+     *
+     * @param item the item to add
+     */
+    @Override
+    public void addItem(GroceryItem item) {
+        if (item == null) return;
+
+        Lock lock = currentStripe().readLock();
+        lock.lock();
+        try {
+            add(item.getEntry(), item.getQuantity());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeItem(GroceryItem item) {
+        DescriptionDictionary.Entry entry = item.getEntry();
+        lockAll();
+        try {
+            remove(entry, item.getQuantity());
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public int modifyQuantity(GroceryItem item) {
+        if (item == null) throw new NullPointerException();
+
+        lockAll();
+        try {
+            return modify(item.getEntry(), item.getQuantity());
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Applies a batch of changes to these groceries atomically: no other
+     * thread sees the groceries with only part of the batch applied. Null
+     * items in adds are skipped, as addItem skips them; null items in
+     * removes or modifies are detected before anything is changed.
+     *
+     * @param adds the items to add
+     * @param removes the items to remove
+     * @param modifies the items whose quantity should be set
+     * @throws NullPointerException if removes or modifies contains null
+     */
+    @Override
+    public void applyBatch(List<GroceryItem> adds, List<GroceryItem> removes,
+            List<GroceryItem> modifies) {
+        checkNoNulls(removes);
+        checkNoNulls(modifies);
+
+        lockAll();
+        try {
+            if (adds != null) {
+                for (GroceryItem item : adds) {
+                    if (item != null) {
+                        add(item.getEntry(), item.getQuantity());
+                    }
+                }
+            }
+            if (removes != null) {
+                for (GroceryItem item : removes) {
+                    remove(item.getEntry(), item.getQuantity());
+                }
+            }
+            if (modifies != null) {
+                for (GroceryItem item : modifies) {
+                    modify(item.getEntry(), item.getQuantity());
+                }
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Prints all groceries, as they were at a single instant. Additions are
+     * held off only while the snapshot is taken, not while it is printed.
+     */
+    @Override
+    public void printAll() {
+        StringBuilder out = new StringBuilder("Groceries:\n");
+        lockAll();
+        try {
+            for (Map.Entry<DescriptionDictionary.Entry, LongAdder> e
+                    : counts.entrySet()) {
+                long qty = e.getValue().sum();
+                if (qty > 0) {
+                    out.append(qty).append(' ')
+                            .append(e.getKey().getDescription()).append('\n');
+                }
+            }
+        } finally {
+            unlockAll();
+        }
+        System.out.print(out);
+    }
+
+    /**
+     * Gets the current quantity of a description. Concurrent additions may
+     * or may not be reflected.
+     *
+     * @param desc the description to look up
+     * @return  the quantity, or 0 if the item is not in these groceries
+     * @throws NullPointerException if desc is null
+     */
+    public long getQuantity(String desc) throws NullPointerException {
+        // a description that is not in use cannot be in these groceries
+        DescriptionDictionary.Entry entry =
+                DescriptionDictionary.shared().find(desc);
+        LongAdder count = entry == null ? null : counts.get(entry);
+        return count == null ? 0 : count.sum();
+    }
+
+    private static void checkNoNulls(List<GroceryItem> items)
+            throws NullPointerException {
+        if (items == null) return;
+        for (GroceryItem item : items) {
+            if (item == null) throw new NullPointerException();
+        }
+    }
+
+    private void add(DescriptionDictionary.Entry entry, int qty) {
+        counts.computeIfAbsent(entry, e -> new LongAdder()).add(qty);
+    }
+
+    /**
+     * Decreases a quantity, dropping the item if nothing is left. The
+     * caller must hold every write lock.
+     */
+    private void remove(DescriptionDictionary.Entry entry, int qty) {
+        LongAdder count = counts.get(entry);
+        if (count == null) return;
+
+        if (count.sum() <= qty) {
+            counts.remove(entry);
+        } else {
+            count.add(-qty);
+        }
+    }
+
+    /**
+     * Sets the quantity of an item that is present. The caller must hold
+     * every write lock.
+     */
+    private int modify(DescriptionDictionary.Entry entry, int qty) {
+        LongAdder count = counts.get(entry);
+        if (count == null) return -1;
+
+        long old = count.sumThenReset();
+        count.add(qty);
+        return old > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) old;
+    }
+
+    /**
+     * Picks the calling thread's stripe. Each thread is given the next index
+     * the first time it asks, so up to stripes.length threads that add
+     * concurrently get distinct stripes.
+     */
+    private ReentrantReadWriteLock currentStripe() {
+        return stripes[STRIPE.get() & (stripes.length - 1)];
+    }
+
+    private void lockAll() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i].writeLock().lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].writeLock().unlock();
+        }
+    }
+}
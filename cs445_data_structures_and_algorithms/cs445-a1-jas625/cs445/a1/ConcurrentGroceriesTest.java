@@ -0,0 +1,151 @@
+package cs445.a1;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Races additions against removals, modifications and batches on
+ * ConcurrentGroceries, and checks that no update was lost or applied twice.
+ * Run it with java cs445.a1.ConcurrentGroceriesTest; it throws
+ * AssertionError at the first check that fails.
+ */
+public class ConcurrentGroceriesTest {
+
+    private static final int ADDERS = 6;
+    private static final int ADDS = 50000;
+
+    public static void main(String[] args) throws Exception {
+        addsRaceRemoves();
+        addsRaceModifies();
+        batchWithNullChangesNothing();
+        System.out.println("All ConcurrentGroceries tests passed");
+    }
+
+    /**
+     * Adders add 2 at a time while another thread removes 1 at a time and
+     * applies batches. The count never runs out, so the final quantity is
+     * exactly what was added minus what was removed.
+     */
+    private static void addsRaceRemoves() throws Exception {
+        ConcurrentGroceries groceries = new ConcurrentGroceries();
+        int initial = 1000000;
+        groceries.addItem(new GroceryItem("Milk", initial));
+
+        int removals = 20000;
+        race(groceries, () -> {
+            for (int i = 0; i < removals; i++) {
+                if (i % 10 == 0) {
+                    groceries.applyBatch(List.of(new GroceryItem("Milk", 1)),
+                            List.of(new GroceryItem("Milk", 2)), null);
+                } else {
+                    groceries.removeItem(new GroceryItem("Milk", 1));
+                }
+            }
+        });
+
+        // every tenth removal is a batch netting -1 as well
+        long expected = initial + (long) ADDERS * ADDS * 2 - removals;
+        check(groceries.getQuantity("Milk") == expected,
+                "Milk is " + groceries.getQuantity("Milk") + ", expected "
+                + expected);
+        for (int t = 0; t < ADDERS; t++) {
+            check(groceries.getQuantity("Eggs" + t) == ADDS,
+                    "Eggs" + t + " is " + groceries.getQuantity("Eggs" + t));
+        }
+    }
+
+    /**
+     * Adders add 2 at a time while another thread keeps setting the
+     * quantity back to 1. Each modification removes old - 1, so if it is
+     * atomic with respect to the additions, everything added is accounted
+     * for by the returned old quantities and the final quantity.
+     */
+    private static void addsRaceModifies() throws Exception {
+        ConcurrentGroceries groceries = new ConcurrentGroceries();
+        groceries.addItem(new GroceryItem("Milk", 1));
+
+        long[] dropped = new long[1];
+        race(groceries, () -> {
+            for (int i = 0; i < 20000; i++) {
+                int old = groceries.modifyQuantity(new GroceryItem("Milk", 1));
+                check(old >= 1, "modify saw " + old);
+                dropped[0] += old - 1;
+            }
+        });
+
+        long added = 1 + (long) ADDERS * ADDS * 2;
+        check(groceries.getQuantity("Milk") + dropped[0] == added,
+                "modifications lost or repeated additions");
+    }
+
+    /**
+     * A batch with a null removal or modification is rejected as a whole,
+     * including its additions.
+     */
+    private static void batchWithNullChangesNothing() {
+        ConcurrentGroceries groceries = new ConcurrentGroceries();
+        groceries.addItem(new GroceryItem("Eggs", 2));
+        List<GroceryItem> adds = List.of(new GroceryItem("Milk", 3));
+        List<GroceryItem> nulls = Arrays.asList((GroceryItem) null);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                groceries.applyBatch(adds, i == 0 ? nulls : null,
+                        i == 1 ? nulls : null);
+                throw new AssertionError("null accepted");
+            } catch (NullPointerException expected) {
+                // rejected
+            }
+            check(groceries.getQuantity("Milk") == 0, "partly applied");
+            check(groceries.getQuantity("Eggs") == 2, "Eggs changed");
+        }
+
+        // null additions are skipped, as addItem skips them
+        groceries.applyBatch(Arrays.asList(null,
+                new GroceryItem("Milk", 3)), null, null);
+        check(groceries.getQuantity("Milk") == 3, "additions lost");
+    }
+
+    /**
+     * Runs ADDERS threads that each add ADDS of Milk (quantity 2) and of
+     * their own Eggs item, alongside one thread running other.
+     */
+    private static void race(ConcurrentGroceries groceries, Runnable other)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(ADDERS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?>[] done = new Future<?>[ADDERS + 1];
+        for (int t = 0; t < ADDERS; t++) {
+            GroceryItem eggs = new GroceryItem("Eggs" + t, 1);
+            done[t] = pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ADDS; i++) {
+                    groceries.addItem(new GroceryItem("Milk", 2));
+                    groceries.addItem(eggs);
+                }
+                return null;
+            });
+        }
+        done[ADDERS] = pool.submit(() -> {
+            start.await();
+            other.run();
+            return null;
+        });
+
+        start.countDown();
+        for (Future<?> f : done) {
+            f.get();
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) throw new AssertionError(what);
+    }
+}
@@ -0,0 +1,472 @@
+package cs445.a1;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * A thread-safe implementation of SetInterface for many concurrent writers.
+ * Entries are partitioned by hash code into independently locked segments,
+ * each of which is a chained hash table, so threads working on different
+ * segments never wait for each other.
+ *
+ * <p> Readers take no locks at all. Each bucket is a chain of immutable nodes
+ * published through a volatile array slot; writers never modify a node that
+ * is already reachable, they splice in copies instead. A reader therefore
+ * always walks a chain that was complete at some instant. The size is kept in
+ * a striped counter so that updating it does not become a point of
+ * contention either.
+ *
+ * <p> Operations that span several segments (remove(), clear, toArray) are
+ * weakly consistent: they see each segment at a slightly different moment.
+ */
+public class ConcurrentSet<E> implements SetInterface<E> {
+
+    private static final int SEGMENT_TABLE_SIZE = 8;
+    private static final int MAX_SEGMENTS = 1 << 16;
+
+    /** Fibonacci hashing multiplier, 2^32 divided by the golden ratio */
+    private static final int GOLDEN = 0x9E3779B9;
+
+    private final Segment<E>[] segments;
+    private final int segmentShift;
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Creates a set with four segments per available processor.
+     */
+    public ConcurrentSet() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Creates a set with at least the given number of segments, rounded up to
+     * a power of two.
+     *
+     * @param concurrencyLevel  The expected number of concurrent writers
+     */
+    public ConcurrentSet(int concurrencyLevel) {
+        int n = 1;
+        while (n < concurrencyLevel && n < MAX_SEGMENTS) {
+            n <<= 1;
+        }
+
+        @SuppressWarnings("unchecked")
+        Segment<E>[] table = (Segment<E>[]) new Segment<?>[n];
+        for (int i = 0; i < n; i++) {
+            table[i] = new Segment<>();
+        }
+        segments = table;
+        segmentShift = 32 - Integer.numberOfTrailingZeros(n);
+    }
+
+    /**
+     * Determines the current number of entries in this set. While other
+     * threads are modifying the set, the result is only an estimate.
+     *
+     * @return  The integer number of entries currently in this set
+     */
+    @Override
+    public int getSize() {
+        long sum = size.sum();
+        return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+    }
+
+    /**
+     * Determines whether this set is empty.
+     *
+     * @return  true if this set is empty; false if not
+     */
+    @Override
+    public boolean isEmpty() {
+        return size.sum() <= 0;
+    }
+
+    /**
+     * Adds a new entry to this set, avoiding duplicates. Only the segment the
+     * entry hashes to is locked. This set resizes as needed, so it never
+     * throws SetFullException.
+     *
+     * @param newEntry  The object to be added as a new entry
+     * @return  true if the addition is successful; false if the item already is
+     * in this set
+     * @throws NullPointerException  If newEntry is null
+     */
+    @Override
+    public boolean add(E newEntry) throws NullPointerException {
+        if (newEntry == null) throw new NullPointerException();
+
+        int hash = spread(newEntry.hashCode());
+        Segment<E> seg = segmentFor(hash);
+        synchronized (seg) {
+            if (seg.find(newEntry, hash) != null) return false;
+            seg.insert(newEntry, hash);
+        }
+        size.increment();
+        return true;
+    }
+
+    /**
+     * Removes a specific entry from this set, if possible. Only the segment
+     * the entry hashes to is locked.
+     *
+     * @param entry  The entry to be removed
+     * @return  The removed entry if removal was successful; null otherwise
+     * @throws NullPointerException  If entry is null
+     */
+    @Override
+    public E remove(E entry) throws NullPointerException {
+        if (entry == null) throw new NullPointerException();
+
+        int hash = spread(entry.hashCode());
+        Segment<E> seg = segmentFor(hash);
+        E removed;
+        synchronized (seg) {
+            Node<E> node = seg.find(entry, hash);
+            if (node == null) return null;
+            removed = node.entry;
+            seg.replace(node, null);
+        }
+        size.decrement();
+        return removed;
+    }
+
+    /**
+     * Removes an arbitrary entry from this set, if possible. Segments are
+     * tried starting from a random one, so concurrent callers rarely compete
+     * for the same lock.
+     *
+     * @return  The removed entry if the removal was successful; null otherwise
+     */
+    @Override
+    public E remove() {
+        int n = segments.length;
+        int start = ThreadLocalRandom.current().nextInt(n);
+        for (int i = 0; i < n; i++) {
+            Segment<E> seg = segments[(start + i) & (n - 1)];
+            if (seg.count == 0) continue;
+            synchronized (seg) {
+                Node<E> node = seg.any();
+                if (node != null) {
+                    seg.replace(node, null);
+                    size.decrement();
+                    return node.entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes all entries from this set, one segment at a time.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < segments.length; i++) {
+            Segment<E> seg = segments[i];
+            synchronized (seg) {
+                size.add(-seg.count);
+                seg.table = new AtomicReferenceArray<>(SEGMENT_TABLE_SIZE);
+                seg.count = 0;
+            }
+        }
+    }
+
+    /**
+     * Tests whether this set contains a given entry, without taking any
+     * lock.
+     *
+     * @param entry  The entry to locate
+     * @return  true if this set contains entry; false if not
+     * @throws NullPointerException  If entry is null
+     */
+    @Override
+    public boolean contains(E entry) throws NullPointerException {
+        if (entry == null) throw new NullPointerException();
+
+        int hash = spread(entry.hashCode());
+        return segmentFor(hash).find(entry, hash) != null;
+    }
+
+    /**
+     * Adds an entry to this set, or combines it with the equal entry already
+     * present, atomically and in a single probe.
+     *
+     * @param entry  The entry to add or combine
+     * @param remapping  The function combining the existing and given entries
+     * @return  The entry now in this set, or null if it was removed
+     * @throws NullPointerException  If entry or remapping is null
+     * @throws IllegalArgumentException  If remapping returns an entry that is
+     * not equal to the existing entry
+     */
+    @Override
+    public E merge(E entry, BiFunction<? super E, ? super E, ? extends E>
+            remapping) throws NullPointerException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException();
+        }
+
+        int hash = spread(entry.hashCode());
+        Segment<E> seg = segmentFor(hash);
+        synchronized (seg) {
+            Node<E> node = seg.find(entry, hash);
+            if (node == null) {
+                seg.insert(entry, hash);
+                size.increment();
+                return entry;
+            }
+            return update(seg, node, remapping.apply(node.entry, entry));
+        }
+    }
+
+    /**
+     * Updates the entry equal to a given entry, if present, atomically and in
+     * a single probe.
+     *
+     * @param entry  The entry to locate
+     * @param remapping  The function computing the replacement entry
+     * @return  The entry now in this set, or null if it was absent or removed
+     * @throws NullPointerException  If entry or remapping is null
+     * @throws IllegalArgumentException  If remapping returns an entry that is
+     * not equal to the existing entry
+     */
+    @Override
+    public E computeIfPresent(E entry, BiFunction<? super E, ? super E,
+            ? extends E> remapping) throws NullPointerException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException();
+        }
+
+        int hash = spread(entry.hashCode());
+        Segment<E> seg = segmentFor(hash);
+        synchronized (seg) {
+            Node<E> node = seg.find(entry, hash);
+            if (node == null) return null;
+            return update(seg, node, remapping.apply(node.entry, entry));
+        }
+    }
+
+    /**
+     * Replaces the entry equal to a given entry, if present, atomically and
+     * in a single probe.
+     *
+     * @param entry  The replacement entry
+     * @return  The replaced entry, or null if no equal entry was present
+     * @throws NullPointerException  If entry is null
+     */
+    @Override
+    public E replace(E entry) throws NullPointerException {
+        if (entry == null) throw new NullPointerException();
+
+        int hash = spread(entry.hashCode());
+        Segment<E> seg = segmentFor(hash);
+        synchronized (seg) {
+            Node<E> node = seg.find(entry, hash);
+            if (node == null) return null;
+            seg.replace(node, entry);
+            return node.entry;
+        }
+    }
+
+    /**
+     * Retrieves all entries that are in this set. Each segment is copied at a
+     * slightly different moment, so entries added or removed concurrently may
+     * or may not be included.
+     *
+     * @return  A newly-allocated array of all the entries in this set
+     */
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[getSize()];
+        int n = 0;
+        for (int s = 0; s < segments.length; s++) {
+            AtomicReferenceArray<Node<E>> tab = segments[s].table;
+            for (int i = 0; i < tab.length(); i++) {
+                for (Node<E> node = tab.get(i); node != null;
+                        node = node.next) {
+                    if (n == result.length) {
+                        result = Arrays.copyOf(result, n * 2 + 1);
+                    }
+                    result[n++] = node.entry;
+                }
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Creates a new ConcurrentSet holding every entry that is in this set,
+     * another set, or both. Like toArray, it sees each segment of this set
+     * at a slightly different moment.
+     *
+     * @param other  The set to combine with this one
+     * @return  A new ConcurrentSet containing the union of both sets
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public ConcurrentSet<E> union(SetInterface<? extends E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        ConcurrentSet<E> result = new ConcurrentSet<>(segments.length);
+        Object[] mine = toArray();
+        for (int i = 0; i < mine.length; i++) {
+            @SuppressWarnings("unchecked")
+            E entry = (E) mine[i];
+            result.add(entry);
+        }
+        Object[] theirs = other.toArray();
+        for (int i = 0; i < theirs.length; i++) {
+            @SuppressWarnings("unchecked")
+            E entry = (E) theirs[i];
+            result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a new ConcurrentSet holding every entry that is in both this
+     * set and another set. Like toArray, it sees each segment of this set at
+     * a slightly different moment.
+     *
+     * @param other  The set to intersect with this one
+     * @return  A new ConcurrentSet containing the intersection of both sets
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public ConcurrentSet<E> intersection(SetInterface<E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        ConcurrentSet<E> result = new ConcurrentSet<>(segments.length);
+        Object[] entries = toArray();
+        for (int i = 0; i < entries.length; i++) {
+            @SuppressWarnings("unchecked")
+            E entry = (E) entries[i];
+            if (other.contains(entry)) result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * Scrambles a hash code so that its high bits pick the segment and its low
+     * bits pick the bucket.
+     */
+    private static int spread(int h) {
+        h *= GOLDEN;
+        return h ^ (h >>> 16);
+    }
+
+    private Segment<E> segmentFor(int hash) {
+        return segments[segmentShift == 32 ? 0 : hash >>> segmentShift];
+    }
+
+    /**
+     * Applies the result of a remapping function to a node, while holding
+     * the segment's lock.
+     */
+    private E update(Segment<E> seg, Node<E> node, E result) {
+        if (result == null) {
+            seg.replace(node, null);
+            size.decrement();
+            return null;
+        }
+        if (!result.equals(node.entry)) {
+            throw new IllegalArgumentException("Remapped entry is not equal");
+        }
+
+        seg.replace(node, result);
+        return result;
+    }
+
+    /**
+     * An immutable link in a bucket chain. Because nodes never change once
+     * published, a reader can follow a chain without locking.
+     */
+    private static final class Node<E> {
+        final int hash;
+        final E entry;
+        final Node<E> next;
+
+        Node(int hash, E entry, Node<E> next) {
+            this.hash = hash;
+            this.entry = entry;
+            this.next = next;
+        }
+    }
+
+    /**
+     * One independently locked partition of the set. All mutators must be
+     * called while holding the segment's monitor; find may be called
+     * without it.
+     */
+    private static final class Segment<E> {
+        volatile AtomicReferenceArray<Node<E>> table =
+                new AtomicReferenceArray<>(SEGMENT_TABLE_SIZE);
+        volatile int count;
+
+        Node<E> find(E entry, int hash) {
+            AtomicReferenceArray<Node<E>> tab = table;
+            Node<E> node = tab.get(hash & (tab.length() - 1));
+            for (; node != null; node = node.next) {
+                if (node.hash == hash && node.entry.equals(entry)) return node;
+            }
+            return null;
+        }
+
+        Node<E> any() {
+            AtomicReferenceArray<Node<E>> tab = table;
+            for (int i = 0; i < tab.length(); i++) {
+                Node<E> node = tab.get(i);
+                if (node != null) return node;
+            }
+            return null;
+        }
+
+        void insert(E entry, int hash) {
+            if (count + 1 > table.length() / 4 * 3) resize();
+
+            AtomicReferenceArray<Node<E>> tab = table;
+            int i = hash & (tab.length() - 1);
+            tab.set(i, new Node<>(hash, entry, tab.get(i)));
+            count++;
+        }
+
+        /**
+         * Replaces a node's entry, or unlinks the node if entry is null, by
+         * copying the part of its chain in front of it.
+         */
+        void replace(Node<E> target, E entry) {
+            AtomicReferenceArray<Node<E>> tab = table;
+            int i = target.hash & (tab.length() - 1);
+            Node<E> head = entry == null
+                    ? target.next : new Node<>(target.hash, entry, target.next);
+            for (Node<E> node = tab.get(i); node != target; node = node.next) {
+                head = new Node<>(node.hash, node.entry, head);
+            }
+            tab.set(i, head);
+            if (entry == null) count--;
+        }
+
+        /**
+         * Doubles the table. The new table is filled completely before it is
+         * published, so readers see either the old table or the new one.
+         */
+        void resize() {
+            AtomicReferenceArray<Node<E>> old = table;
+            int length = old.length() * 2;
+            AtomicReferenceArray<Node<E>> tab =
+                    new AtomicReferenceArray<>(length);
+            for (int i = 0; i < old.length(); i++) {
+                for (Node<E> node = old.get(i); node != null;
+                        node = node.next) {
+                    int j = node.hash & (length - 1);
+                    tab.set(j, new Node<>(node.hash, node.entry, tab.get(j)));
+                }
+            }
+            table = tab;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package cs445.a1;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks ConcurrentSet against java.util.HashSet, single-threaded and under
+ * contention. Run it with java cs445.a1.ConcurrentSetTest; it throws
+ * AssertionError at the first check that fails.
+ */
+public class ConcurrentSetTest {
+
+    public static void main(String[] args) throws Exception {
+        matchesReference();
+        removeReturnsStoredEntry();
+        concurrentAddsAndRemoves();
+        System.out.println("All ConcurrentSet tests passed");
+    }
+
+    private static void matchesReference() {
+        Random random = new Random(1);
+        ConcurrentSet<Integer> set = new ConcurrentSet<>(4);
+        java.util.HashSet<Integer> ref = new java.util.HashSet<>();
+
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(5000);
+            switch (random.nextInt(4)) {
+            case 0:
+            case 1:
+                check(set.add(key) == ref.add(key), "add " + key);
+                break;
+            case 2:
+                check((set.remove(key) != null) == ref.remove(key),
+                        "remove " + key);
+                break;
+            default:
+                check(set.contains(key) == ref.contains(key),
+                        "contains " + key);
+            }
+            check(set.getSize() == ref.size(), "size after op " + i);
+        }
+
+        java.util.HashSet<Object> all = new java.util.HashSet<>();
+        for (Object o : set.toArray()) {
+            check(all.add(o), "toArray duplicate " + o);
+        }
+        check(all.equals(ref), "toArray contents");
+
+        while (!set.isEmpty()) {
+            check(ref.remove(set.remove()), "remove() returned a stranger");
+        }
+        check(ref.isEmpty(), "remove() missed entries");
+    }
+
+    private static void removeReturnsStoredEntry() {
+        ConcurrentSet<GroceryItem> set = new ConcurrentSet<>();
+        GroceryItem stored = new GroceryItem("Milk", 3);
+        set.add(stored);
+
+        GroceryItem removed = set.remove(new GroceryItem("Milk", 1));
+        check(removed == stored, "remove(E) returned the argument");
+        check(removed.getQuantity() == 3, "stored quantity lost");
+        check(set.remove(new GroceryItem("Milk", 1)) == null,
+                "removed twice");
+    }
+
+    /**
+     * Each thread adds its own range of keys and removes every other one, so
+     * the final contents are known exactly.
+     */
+    private static void concurrentAddsAndRemoves() throws Exception {
+        int threads = 8;
+        int perThread = 20000;
+        ConcurrentSet<Integer> set = new ConcurrentSet<>(threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        Future<?>[] done = new Future<?>[threads];
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            done[t] = pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    check(set.add(base + i), "add " + (base + i));
+                    // other threads' keys are never in this range
+                    check(!set.add(base + i), "added twice " + (base + i));
+                }
+                for (int i = 0; i < perThread; i += 2) {
+                    check(set.remove(base + i) != null,
+                            "remove " + (base + i));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        for (Future<?> f : done) {
+            f.get();
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+
+        check(set.getSize() == threads * perThread / 2, "size after race");
+        for (int key = 0; key < threads * perThread; key++) {
+            check(set.contains(key) == (key % 2 == 1), "contains " + key);
+        }
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) throw new AssertionError(what);
+    }
+}
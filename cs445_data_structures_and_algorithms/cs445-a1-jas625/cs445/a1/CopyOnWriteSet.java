@@ -0,0 +1,570 @@
+package cs445.a1;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+
+/**
+ * A thread-safe implementation of SetInterface for sets that are read far
+ * more often than they are written. The entries live in an immutable,
+ * hash-indexed Snapshot. Every write builds a new snapshot and publishes it
+ * through a volatile reference, so readers never take a lock and never see a
+ * half-finished update; they simply probe whichever snapshot was current when
+ * they looked.
+ *
+ * <p> Writes cost time proportional to the size of the set and are
+ * serialized with each other. Bulk operations build just one new snapshot,
+ * so batch writes together where possible.
+ */
+public class CopyOnWriteSet<E> implements SetInterface<E> {
+
+    private volatile Snapshot<E> current;
+
+    public CopyOnWriteSet() {
+        @SuppressWarnings("unchecked")
+        E[] none = (E[]) new Object[0];
+        current = new Snapshot<>(none, new int[0]);
+    }
+
+    private CopyOnWriteSet(Snapshot<E> snapshot) {
+        current = snapshot;
+    }
+
+    public CopyOnWriteSet(E[] preFill) {
+        this();
+        HashSet<E> distinct = new HashSet<>(preFill);
+        @SuppressWarnings("unchecked")
+        E[] entries = (E[]) distinct.toArray();
+        publish(entries);
+    }
+
+    /**
+     * Gets the current snapshot of this set. The snapshot never changes, so
+     * it can be probed or iterated any number of times without locking or
+     * copying, even while other threads keep writing to this set.
+     *
+     * @return  An immutable view of this set's current contents
+     */
+    public Snapshot<E> snapshot() {
+        return current;
+    }
+
+    /**
+     * Determines the current number of entries in this set.
+     *
+     * @return  The integer number of entries currently in this set
+     */
+    @Override
+    public int getSize() {
+        return current.getSize();
+    }
+
+    /**
+     * Determines whether this set is empty.
+     *
+     * @return  true if this set is empty; false if not
+     */
+    @Override
+    public boolean isEmpty() {
+        return current.isEmpty();
+    }
+
+    /**
+     * Adds a new entry to this set, avoiding duplicates, by publishing a new
+     * snapshot. This set never throws SetFullException.
+     *
+     * @param newEntry  The object to be added as a new entry
+     * @return  true if the addition is successful; false if the item already is
+     * in this set
+     * @throws NullPointerException  If newEntry is null
+     */
+    @Override
+    public synchronized boolean add(E newEntry) throws NullPointerException {
+        if (newEntry == null) throw new NullPointerException();
+
+        Snapshot<E> snap = current;
+        if (snap.indexOf(newEntry) >= 0) return false;
+
+        int n = snap.entries.length;
+        E[] entries = Arrays.copyOf(snap.entries, n + 1);
+        int[] hashes = Arrays.copyOf(snap.hashes, n + 1);
+        entries[n] = newEntry;
+        hashes[n] = newEntry.hashCode();
+        current = new Snapshot<>(entries, hashes);
+        return true;
+    }
+
+    /**
+     * Removes a specific entry from this set, if possible, by publishing a
+     * new snapshot.
+     *
+     * @param entry  The entry to be removed
+     * @return  The removed entry if removal was successful; null otherwise
+     * @throws NullPointerException  If entry is null
+     */
+    @Override
+    public synchronized E remove(E entry) throws NullPointerException {
+        if (entry == null) throw new NullPointerException();
+
+        Snapshot<E> snap = current;
+        int i = snap.indexOf(entry);
+        if (i < 0) return null;
+
+        return removeAt(snap, i);
+    }
+
+    /**
+     * Removes an arbitrary entry from this set, if possible, by publishing a
+     * new snapshot.
+     *
+     * @return  The removed entry if the removal was successful; null otherwise
+     */
+    @Override
+    public synchronized E remove() {
+        Snapshot<E> snap = current;
+        if (snap.isEmpty()) return null;
+
+        return removeAt(snap, snap.entries.length - 1);
+    }
+
+    /**
+     * Removes all entries from this set.
+     */
+    @Override
+    public synchronized void clear() {
+        Snapshot<E> snap = current;
+        if (!snap.isEmpty()) publish(Arrays.copyOf(snap.entries, 0));
+    }
+
+    /**
+     * Tests whether this set contains a given entry, by probing the current
+     * snapshot without locking.
+     *
+     * @param entry  The entry to locate
+     * @return  true if this set contains entry; false if not
+     * @throws NullPointerException  If entry is null
+     */
+    @Override
+    public boolean contains(E entry) throws NullPointerException {
+        return current.contains(entry);
+    }
+
+    /**
+     * Adds an entry to this set, or combines it with the equal entry already
+     * present, atomically.
+     *
+     * @param entry  The entry to add or combine
+     * @param remapping  The function combining the existing and given entries
+     * @return  The entry now in this set, or null if it was removed
+     * @throws NullPointerException  If entry or remapping is null
+     * @throws IllegalArgumentException  If remapping returns an entry that is
+     * not equal to the existing entry
+     */
+    @Override
+    public synchronized E merge(E entry, BiFunction<? super E, ? super E,
+            ? extends E> remapping) throws NullPointerException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException();
+        }
+
+        if (current.indexOf(entry) < 0) {
+            add(entry);
+            return entry;
+        }
+        return computeIfPresent(entry, remapping);
+    }
+
+    /**
+     * Updates the entry equal to a given entry, if present, atomically.
+     *
+     * @param entry  The entry to locate
+     * @param remapping  The function computing the replacement entry
+     * @return  The entry now in this set, or null if it was absent or removed
+     * @throws NullPointerException  If entry or remapping is null
+     * @throws IllegalArgumentException  If remapping returns an entry that is
+     * not equal to the existing entry
+     */
+    @Override
+    public synchronized E computeIfPresent(E entry, BiFunction<? super E,
+            ? super E, ? extends E> remapping) throws NullPointerException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException();
+        }
+
+        Snapshot<E> snap = current;
+        int i = snap.indexOf(entry);
+        if (i < 0) return null;
+
+        E result = remapping.apply(snap.entries[i], entry);
+        if (result == null) {
+            removeAt(snap, i);
+            return null;
+        }
+        if (!result.equals(snap.entries[i])) {
+            throw new IllegalArgumentException("Remapped entry is not equal");
+        }
+
+        replaceAt(snap, i, result);
+        return result;
+    }
+
+    /**
+     * Replaces the entry equal to a given entry, if present, atomically.
+     *
+     * @param entry  The replacement entry
+     * @return  The replaced entry, or null if no equal entry was present
+     * @throws NullPointerException  If entry is null
+     */
+    @Override
+    public synchronized E replace(E entry) throws NullPointerException {
+        if (entry == null) throw new NullPointerException();
+
+        Snapshot<E> snap = current;
+        int i = snap.indexOf(entry);
+        if (i < 0) return null;
+
+        E old = snap.entries[i];
+        replaceAt(snap, i, entry);
+        return old;
+    }
+
+    /**
+     * Adds every entry of another set to this set, publishing a single new
+     * snapshot.
+     *
+     * @param other  The set whose entries are to be added
+     * @return  true if this set changed; false otherwise
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public synchronized boolean addAll(SetInterface<? extends E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        Snapshot<E> snap = current;
+        E[] entries = snap.merged(other);
+        if (entries.length == snap.entries.length) return false;
+
+        publish(entries);
+        return true;
+    }
+
+    /**
+     * Removes from this set every entry that is also in another set,
+     * publishing a single new snapshot.
+     *
+     * @param other  The set whose entries are to be removed
+     * @return  true if this set changed; false otherwise
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public synchronized boolean removeAll(SetInterface<E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        return filter(other, false);
+    }
+
+    /**
+     * Removes from this set every entry that is not also in another set,
+     * publishing a single new snapshot.
+     *
+     * @param other  The set whose entries are to be kept
+     * @return  true if this set changed; false otherwise
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public synchronized boolean retainAll(SetInterface<E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        return filter(other, true);
+    }
+
+    /**
+     * Creates a new CopyOnWriteSet holding every entry that is in this set,
+     * another set, or both. The result starts out with a single snapshot
+     * built from this set's current one.
+     *
+     * @param other  The set to combine with this one
+     * @return  A new CopyOnWriteSet containing the union of both sets
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public CopyOnWriteSet<E> union(SetInterface<? extends E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        return new CopyOnWriteSet<>(current.union(other));
+    }
+
+    /**
+     * Creates a new CopyOnWriteSet holding every entry that is in both this
+     * set and another set, as of this set's current snapshot.
+     *
+     * @param other  The set to intersect with this one
+     * @return  A new CopyOnWriteSet containing the intersection of both sets
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public CopyOnWriteSet<E> intersection(SetInterface<E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        return new CopyOnWriteSet<>(current.intersection(other));
+    }
+
+    /**
+     * Retrieves all entries that are in this set. Readers that only need to
+     * look at the entries should iterate over snapshot() instead, which does
+     * not copy.
+     *
+     * @return  A newly-allocated array of all the entries in this set
+     */
+    @Override
+    public Object[] toArray() {
+        return current.toArray();
+    }
+
+    private void publish(E[] entries) {
+        current = Snapshot.of(entries);
+    }
+
+    /**
+     * Publishes a copy of snap without the entry at i, moving the last entry
+     * into its place like Set does.
+     */
+    private E removeAt(Snapshot<E> snap, int i) {
+        int last = snap.entries.length - 1;
+        E removed = snap.entries[i];
+        E[] entries = Arrays.copyOf(snap.entries, last);
+        int[] hashes = Arrays.copyOf(snap.hashes, last);
+        if (i != last) {
+            entries[i] = snap.entries[last];
+            hashes[i] = snap.hashes[last];
+        }
+        current = new Snapshot<>(entries, hashes);
+        return removed;
+    }
+
+    /**
+     * Publishes a copy of snap with the entry at i replaced by an equal one.
+     * The hash index does not change, so it is shared with the new snapshot.
+     */
+    private void replaceAt(Snapshot<E> snap, int i, E entry) {
+        E[] entries = snap.entries.clone();
+        entries[i] = entry;
+        current = new Snapshot<>(entries, snap.hashes, snap.index);
+    }
+
+    private boolean filter(SetInterface<E> other, boolean keep) {
+        Snapshot<E> snap = current;
+        E[] entries = snap.filtered(other, keep);
+        if (entries.length == snap.entries.length) return false;
+
+        publish(entries);
+        return true;
+    }
+
+    /**
+     * An immutable, hash-indexed set of entries. Snapshots are produced by
+     * CopyOnWriteSet and can be read from any number of threads without
+     * synchronization. Every method that would modify a snapshot throws
+     * UnsupportedOperationException.
+     */
+    public static final class Snapshot<E> implements SetInterface<E>,
+            Iterable<E> {
+
+        private final E[] entries;
+        private final int[] hashes;
+
+        /** Maps the hash in hashes of every entry to its position */
+        private final HashIndex index;
+
+        private Snapshot(E[] entries, int[] hashes) {
+            this(entries, hashes, new HashIndex(hashes, hashes.length));
+        }
+
+        private Snapshot(E[] entries, int[] hashes, HashIndex index) {
+            this.entries = entries;
+            this.hashes = hashes;
+            this.index = index;
+        }
+
+        /**
+         * Creates a snapshot of distinct entries, hashing each one once.
+         */
+        private static <E> Snapshot<E> of(E[] entries) {
+            int[] hashes = new int[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                hashes[i] = entries[i].hashCode();
+            }
+            return new Snapshot<>(entries, hashes);
+        }
+
+        /**
+         * Copies the entries of this snapshot followed by those of other that
+         * it lacks.
+         */
+        private E[] merged(SetInterface<? extends E> other) {
+            Object[] added = other.toArray();
+            E[] result = Arrays.copyOf(entries, entries.length + added.length);
+            int n = entries.length;
+            for (int i = 0; i < added.length; i++) {
+                @SuppressWarnings("unchecked")
+                E entry = (E) added[i];
+                if (indexOf(entry) < 0) result[n++] = entry;
+            }
+            return n == result.length ? result : Arrays.copyOf(result, n);
+        }
+
+        /**
+         * Copies the entries of this snapshot whose membership in other
+         * equals keep. A large Set is indexed first, so that each entry
+         * costs one hash lookup rather than a scan.
+         */
+        private E[] filtered(SetInterface<E> other, boolean keep) {
+            SetInterface<E> probe = HashSet.probeable(other);
+            E[] result = Arrays.copyOf(entries, entries.length);
+            int n = 0;
+            for (int i = 0; i < entries.length; i++) {
+                if (probe.contains(entries[i]) == keep) {
+                    result[n++] = entries[i];
+                }
+            }
+            return n == result.length ? result : Arrays.copyOf(result, n);
+        }
+
+        /**
+         * Finds the position of an entry.
+         *
+         * @return The position of entry in entries, or -1 if absent
+         */
+        private int indexOf(E entry) {
+            int hash = entry.hashCode();
+            for (int slot = index.home(hash); ; slot = index.next(slot)) {
+                int pos = index.position(slot);
+                if (pos < 0) return -1;
+                if (hashes[pos] == hash && entries[pos].equals(entry)) {
+                    return pos;
+                }
+            }
+        }
+
+        @Override
+        public int getSize() {
+            return entries.length;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return entries.length == 0;
+        }
+
+        @Override
+        public boolean contains(E entry) throws NullPointerException {
+            if (entry == null) throw new NullPointerException();
+
+            return indexOf(entry) >= 0;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return Arrays.copyOf(entries, entries.length, Object[].class);
+        }
+
+        /**
+         * Iterates over the entries of this snapshot without copying them.
+         *
+         * @return  An iterator over this snapshot's entries
+         */
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < entries.length;
+                }
+
+                @Override
+                public E next() {
+                    if (next >= entries.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return entries[next++];
+                }
+            };
+        }
+
+        @Override
+        public boolean add(E newEntry) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E remove(E entry) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E merge(E entry, BiFunction<? super E, ? super E, ? extends E>
+                remapping) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E computeIfPresent(E entry, BiFunction<? super E, ? super E,
+                ? extends E> remapping) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E replace(E entry) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean addAll(SetInterface<? extends E> other) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean removeAll(SetInterface<E> other) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean retainAll(SetInterface<E> other) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Snapshot<E> union(SetInterface<? extends E> other)
+                throws NullPointerException {
+            if (other == null) throw new NullPointerException();
+
+            return of(merged(other));
+        }
+
+        @Override
+        public Snapshot<E> intersection(SetInterface<E> other)
+                throws NullPointerException {
+            if (other == null) throw new NullPointerException();
+
+            return of(filtered(other, true));
+        }
+    }
+}
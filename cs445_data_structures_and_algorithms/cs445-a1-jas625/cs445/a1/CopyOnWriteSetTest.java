@@ -0,0 +1,216 @@
+package cs445.a1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Checks CopyOnWriteSet against java.util.HashSet, checks that snapshots
+ * never change and cannot be modified, and races readers against a writer
+ * to check that readers only ever see whole updates. Run it with
+ * java cs445.a1.CopyOnWriteSetTest; it throws AssertionError at the first
+ * check that fails.
+ */
+public class CopyOnWriteSetTest {
+
+    private static final Random RANDOM = new Random(6);
+
+    public static void main(String[] args) throws Exception {
+        for (int round = 0; round < 100; round++) {
+            matchesReference();
+        }
+        for (int round = 0; round < 300; round++) {
+            bulkOperations();
+        }
+        snapshotsAreImmutable();
+        readersSeeWholeUpdates();
+        System.out.println("All CopyOnWriteSet tests passed");
+    }
+
+    private static void matchesReference() {
+        CopyOnWriteSet<Integer> set = new CopyOnWriteSet<>();
+        java.util.HashSet<Integer> ref = new java.util.HashSet<>();
+        int range = 1 + RANDOM.nextInt(300);
+
+        for (int i = 0; i < 1000; i++) {
+            int key = RANDOM.nextInt(range);
+            switch (RANDOM.nextInt(6)) {
+            case 0:
+            case 1:
+                check(set.add(key) == ref.add(key), "add " + key);
+                break;
+            case 2:
+                check((set.remove(key) != null) == ref.remove(key),
+                        "remove " + key);
+                break;
+            case 3:
+                if (!ref.isEmpty()) {
+                    check(ref.remove(set.remove()), "remove()");
+                }
+                break;
+            case 4:
+                check((set.replace(key) != null) == ref.contains(key),
+                        "replace " + key);
+                break;
+            default:
+                check(set.contains(key) == ref.contains(key),
+                        "contains " + key);
+            }
+            check(set.getSize() == ref.size(), "size");
+        }
+        check(contents(set.snapshot()).equals(ref), "snapshot contents");
+    }
+
+    /**
+     * Runs one bulk operation against another set of a random kind, which
+     * is large enough half of the time for a Set operand to be indexed.
+     */
+    private static void bulkOperations() throws SetFullException {
+        CopyOnWriteSet<Integer> set = new CopyOnWriteSet<>();
+        java.util.HashSet<Integer> ref = new java.util.HashSet<>();
+        SetInterface<Integer> other = RANDOM.nextBoolean()
+                ? new Set<>() : new HashSet<>();
+        java.util.HashSet<Integer> otherRef = new java.util.HashSet<>();
+        int range = 1 + RANDOM.nextInt(100);
+        int m = RANDOM.nextBoolean() ? RANDOM.nextInt(5) : RANDOM.nextInt(60);
+        for (int i = 0; i < 50; i++) {
+            int key = RANDOM.nextInt(range);
+            set.add(key);
+            ref.add(key);
+        }
+        for (int i = 0; i < m; i++) {
+            int key = RANDOM.nextInt(range);
+            other.add(key);
+            otherRef.add(key);
+        }
+
+        CopyOnWriteSet.Snapshot<Integer> before = set.snapshot();
+        switch (RANDOM.nextInt(5)) {
+        case 0:
+            check(set.addAll(other) == ref.addAll(otherRef), "addAll");
+            break;
+        case 1:
+            check(set.removeAll(other) == ref.removeAll(otherRef),
+                    "removeAll");
+            break;
+        case 2:
+            check(set.retainAll(other) == ref.retainAll(otherRef),
+                    "retainAll");
+            break;
+        case 3:
+            CopyOnWriteSet<Integer> union = set.union(other);
+            java.util.HashSet<Integer> both = new java.util.HashSet<>(ref);
+            both.addAll(otherRef);
+            check(contents(union.snapshot()).equals(both), "union");
+            check(set.snapshot() == before, "union changed this set");
+            break;
+        default:
+            CopyOnWriteSet.Snapshot<Integer> common =
+                    before.intersection(other);
+            java.util.HashSet<Integer> shared = new java.util.HashSet<>(ref);
+            shared.retainAll(otherRef);
+            check(contents(common).equals(shared), "intersection");
+            check(contents(before).equals(ref),
+                    "intersection changed the snapshot");
+        }
+        check(contents(set.snapshot()).equals(ref), "contents");
+        check(set.getSize() == ref.size(), "size");
+    }
+
+    private static void snapshotsAreImmutable() {
+        CopyOnWriteSet<String> set = new CopyOnWriteSet<>(
+                new String[] {"Milk", "Eggs", "Milk"});
+        check(set.getSize() == 2, "preFill kept a duplicate");
+
+        CopyOnWriteSet.Snapshot<String> old = set.snapshot();
+        set.add("Bread");
+        set.remove("Milk");
+        check(old.getSize() == 2 && old.contains("Milk")
+                && !old.contains("Bread"), "snapshot changed");
+        set.clear();
+        check(set.isEmpty() && old.getSize() == 2, "clear changed snapshot");
+
+        List<Runnable> writes = List.of(
+                () -> old.add("Bread"),
+                () -> old.remove("Milk"),
+                () -> old.remove(),
+                () -> old.clear(),
+                () -> old.replace("Milk"),
+                () -> old.addAll(new Set<>()),
+                () -> old.retainAll(new Set<>()));
+        for (Runnable write : writes) {
+            try {
+                write.run();
+                throw new AssertionError("snapshot modified");
+            } catch (UnsupportedOperationException expected) {
+                // immutable
+            }
+        }
+        check(contents(old).size() == 2, "failed write changed snapshot");
+    }
+
+    /**
+     * A writer adds and removes pairs of keys with single bulk operations
+     * while readers probe and iterate snapshots. Every snapshot must hold
+     * both keys of a pair or neither.
+     */
+    private static void readersSeeWholeUpdates() throws Exception {
+        CopyOnWriteSet<Integer> set = new CopyOnWriteSet<>();
+        AtomicBoolean done = new AtomicBoolean();
+        int readers = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(readers + 1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < readers; t++) {
+            futures.add(pool.submit(() -> {
+                while (!done.get()) {
+                    CopyOnWriteSet.Snapshot<Integer> snap = set.snapshot();
+                    int count = 0;
+                    for (int key : snap) {
+                        check(snap.contains(key ^ 1), "half a pair: " + key);
+                        count++;
+                    }
+                    check(count == snap.getSize(), "iteration count");
+                }
+                return null;
+            }));
+        }
+        futures.add(pool.submit(() -> {
+            for (int i = 0; i < 20000; i++) {
+                int pair = RANDOM.nextInt(50) * 2;
+                SetInterface<Integer> both = new Set<>(
+                        new Integer[] {pair, pair + 1});
+                if (i % 2 == 0) {
+                    set.addAll(both);
+                } else {
+                    set.removeAll(both);
+                }
+            }
+            done.set(true);
+            return null;
+        }));
+
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private static java.util.HashSet<Object> contents(SetInterface<?> set) {
+        java.util.HashSet<Object> result = new java.util.HashSet<>();
+        for (Object entry : set.toArray()) {
+            check(result.add(entry), "duplicate " + entry);
+        }
+        return result;
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) throw new AssertionError(what);
+    }
+}
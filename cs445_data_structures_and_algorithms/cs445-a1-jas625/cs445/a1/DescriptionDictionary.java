@@ -0,0 +1,205 @@
+package cs445.a1;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A dictionary that maps each distinct item description to one shared
+ * Entry, holding a canonical copy of the description, a compact int id and
+ * a precomputed, well-mixed hash code. While an entry is in use, every
+ * lookup of an equal description returns that same entry, so equal
+ * descriptions are stored once and two entries are equal exactly when
+ * their ids are.
+ *
+ * <p> GroceryItem and Groceries hold entries rather than strings, so a
+ * description keeps its entry, and its id, for as long as any item or
+ * grocery list refers to it. The dictionary itself only holds its entries
+ * weakly: once nothing refers to an entry any more, the garbage collector
+ * may reclaim it and the dictionary forgets the description. Looking it up
+ * again later creates a fresh entry with a new id, which is safe because
+ * nothing holding the old id is left to compare against. The dictionary
+ * therefore holds only the descriptions that are in use, not every
+ * description ever seen. Ids are never reused.
+ *
+ * <p> The hash code depends only on the characters of the description, so
+ * it is the same for every entry of an equal description. Descriptions are
+ * compared exactly as String.equals does; no case folding or other
+ * rewriting takes place.
+ *
+ * <p> The dictionary is thread-safe. Looking up a description that is
+ * already known takes no lock.
+ */
+public final class DescriptionDictionary {
+
+    private static final DescriptionDictionary SHARED =
+            new DescriptionDictionary();
+
+    private final ConcurrentHashMap<String, EntryRef> entries =
+            new ConcurrentHashMap<>();
+
+    /** References to entries the garbage collector has reclaimed */
+    private final ReferenceQueue<Entry> reclaimed = new ReferenceQueue<>();
+
+    /** The next id to hand out; guarded by this */
+    private int nextId;
+
+    /**
+     * Gets the dictionary shared by all GroceryItems.
+     *
+     * @return  the shared dictionary
+     */
+    public static DescriptionDictionary shared() {
+        return SHARED;
+    }
+
+    /**
+     * Gets the entry of a description, creating one if the description is
+     * not in use.
+     *
+     * @param desc the description to look up
+     * @return  the description's entry
+     * @throws NullPointerException if desc is null
+     */
+    public Entry intern(String desc) throws NullPointerException {
+        EntryRef ref = entries.get(desc);
+        Entry entry = ref == null ? null : ref.get();
+        if (entry != null) return entry;
+
+        synchronized (this) {
+            expungeReclaimed();
+            ref = entries.get(desc);
+            entry = ref == null ? null : ref.get();
+            if (entry != null) return entry;
+
+            entry = new Entry(desc, nextId++, mix(desc.hashCode()));
+            entries.put(desc, new EntryRef(desc, entry, reclaimed));
+            return entry;
+        }
+    }
+
+    /**
+     * Gets the entry of a description if it is in use, without creating
+     * one. A description that is not in use is held by no item or grocery
+     * list.
+     *
+     * @param desc the description to look up
+     * @return  the description's entry, or null if it is not in use
+     * @throws NullPointerException if desc is null
+     */
+    public Entry find(String desc) throws NullPointerException {
+        EntryRef ref = entries.get(desc);
+        return ref == null ? null : ref.get();
+    }
+
+    /**
+     * Gets the canonical copy of a description, interning it if needed.
+     *
+     * @param desc the description to look up
+     * @return  the canonical String equal to desc
+     * @throws NullPointerException if desc is null
+     */
+    public String canonical(String desc) throws NullPointerException {
+        return intern(desc).getDescription();
+    }
+
+    /**
+     * Determines the number of descriptions the dictionary currently holds.
+     * This includes entries that are no longer in use but have not been
+     * reclaimed by the garbage collector yet.
+     *
+     * @return  the number of entries held
+     */
+    public synchronized int getSize() {
+        expungeReclaimed();
+        return entries.size();
+    }
+
+    /**
+     * Drops the descriptions whose entries have been reclaimed. The caller
+     * must hold the lock on this.
+     */
+    private void expungeReclaimed() {
+        EntryRef ref;
+        while ((ref = (EntryRef) reclaimed.poll()) != null) {
+            // the description may have been interned again since
+            entries.remove(ref.desc, ref);
+        }
+    }
+
+    /**
+     * Scrambles a hash code so that its bits are spread over the whole int
+     * (the finalization step of MurmurHash3).
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * An interned description. Entries are compared by identity: while an
+     * entry is in use it is the only entry of its description, so equal
+     * entries have equal ids and equal descriptions. Its hash code is the
+     * precomputed hash, so entries can key hash tables directly.
+     */
+    public static final class Entry {
+        private final String desc;
+        private final int id;
+        private final int hash;
+
+        private Entry(String desc, int id, int hash) {
+            this.desc = desc;
+            this.id = id;
+            this.hash = hash;
+        }
+
+        /**
+         * Gets the canonical copy of the description.
+         *
+         * @return  the description
+         */
+        public String getDescription() {
+            return desc;
+        }
+
+        /**
+         * Gets the id of the description.
+         *
+         * @return  the id
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Gets the precomputed hash code of the description.
+         *
+         * @return  the hash code
+         */
+        public int getHash() {
+            return hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A weak reference to an entry that remembers its description, so the
+     * map entry can be removed once the entry is reclaimed.
+     */
+    private static final class EntryRef extends WeakReference<Entry> {
+        final String desc;
+
+        EntryRef(String desc, Entry entry, ReferenceQueue<Entry> queue) {
+            super(entry, queue);
+            this.desc = desc;
+        }
+    }
+}
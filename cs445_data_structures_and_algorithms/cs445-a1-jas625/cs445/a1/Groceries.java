@@ -1,77 +1,590 @@
 package cs445.a1;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+
 public class Groceries implements GroceriesInterface {
 
-    private Set<GroceryItem> groceryList;
+    /** Size of the reusable buffers used by writeTo and readFrom */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Lists merged sequentially by one leaf task of mergeAll */
+    private static final int MERGE_GRANULARITY = 16;
+
+    /**
+     * Maps each item description, as its entry in the shared
+     * DescriptionDictionary, to its quantity. Entries hash to their
+     * precomputed hash and compare by identity, so no lookup looks at the
+     * characters of a description, and holding the entries keeps every
+     * description on the list interned with the same id.
+     */
+    private Bag<DescriptionDictionary.Entry> counts;
+
+    /**
+     * Every description in counts, for prefix queries, or null until the
+     * first prefix query is made. Groceries that are never searched by
+     * prefix do not pay for the index on every new description.
+     */
+    private PrefixIndex prefixes;
+
+    /**
+     * Every item ordered by decreasing quantity, or null if these groceries
+     * do not maintain a ranking.
+     */
+    private SkipListSet<Rank> ranking;
 
     public Groceries() {
-        groceryList = new Set<>();
+        this(false);
+    }
+
+    /**
+     * Creates empty groceries, optionally keeping every item ranked by
+     * quantity as it changes. A ranking makes topK cost O(k) instead of a
+     * pass over every item, at the price of O(log n) extra work on every
+     * change to a quantity.
+     *
+     * @param ranked whether to maintain a ranking for topK
+     */
+    public Groceries(boolean ranked) {
+        counts = new Bag<>();
+        if (ranked) ranking = new SkipListSet<>();
+    }
+
+    /**
+     * Creates new groceries holding the combined quantities of every list in
+     * a collection; none of the lists are modified. The lists are reduced by
+     * a fork/join tree: small runs of lists are merged sequentially into
+     * partial totals, and partial totals are combined pairwise, always
+     * folding the smaller one into the larger. The lists must not be
+     * modified while the merge is running.
+     *
+     * @param lists the lists to merge
+     * @return  new groceries holding the totals
+     * @throws NullPointerException if lists or any of its elements is null
+     */
+    public static Groceries mergeAll(Collection<Groceries> lists)
+            throws NullPointerException {
+        Groceries[] array = lists.toArray(new Groceries[0]);
+        for (Groceries list : array) {
+            if (list == null) throw new NullPointerException();
+        }
+        return ForkJoinPool.commonPool().invoke(
+                new MergeTask(array, 0, array.length));
     }
 
     @Override
     public void addItem(GroceryItem item) {
         if (item == null) return;
 
-        GroceryItem updated = item;
-
-        if (groceryList.contains(item)) {
-            updated = groceryList.remove(item);
-            updated.setQuantity(updated.getQuantity() + item.getQuantity());
-        }
-
-        // our Set will never throw a SetFullException, so we don't really
-        // have to worry about this
-        try {
-            groceryList.add(updated);
-        } catch (SetFullException e) {
-            e.printStackTrace();
-        }
+        add(item.getEntry(), item.getQuantity());
     }
 
     @Override
     public void removeItem(GroceryItem item) {
-        if (!groceryList.contains(item)) return;
-
-        GroceryItem updated = groceryList.remove(item);
-        int newQty = updated.getQuantity() - item.getQuantity();
-        if (newQty > 0) {
-            updated.setQuantity(newQty);
-            try {
-                groceryList.add(updated);
-            } catch (SetFullException e) {
-                e.printStackTrace();
-            }
+        String desc = item.getDescription();
+        int oldQty = counts.remove(item.getEntry(), item.getQuantity());
+        if (prefixes != null && oldQty > 0 && oldQty <= item.getQuantity()) {
+            prefixes.remove(desc);
         }
+        rerank(desc, oldQty, Math.max(oldQty - item.getQuantity(), 0));
     }
 
     @Override
     public int modifyQuantity(GroceryItem item) {
         if (item == null) throw new NullPointerException();
 
-        int oldQty = -1;
+        int oldQty = counts.replace(item.getEntry(), item.getQuantity());
+        if (oldQty == 0) return -1;
+
+        rerank(item.getDescription(), oldQty, item.getQuantity());
+        return oldQty;
+    }
+
+    /**
+     * Applies a batch of changes to these groceries. All changes are first
+     * combined per description (added and removed quantities are summed, and
+     * the last modification wins), and then each description is updated
+     * with a single lookup. Null items in removes or modifies are detected
+     * before anything is changed.
+     *
+     * @param adds the items to add
+     * @param removes the items to remove
+     * @param modifies the items whose quantity should be set
+     * @throws NullPointerException if removes or modifies contains null
+     */
+    @Override
+    public void applyBatch(List<GroceryItem> adds, List<GroceryItem> removes,
+            List<GroceryItem> modifies) {
+        Bag<DescriptionDictionary.Entry> added = new Bag<>();
+        Bag<DescriptionDictionary.Entry> removed = new Bag<>();
+        Bag<DescriptionDictionary.Entry> modified = new Bag<>();
 
-        if (groceryList.contains(item)) {
-            oldQty = groceryList.remove(item).getQuantity();
-            try {
-                groceryList.add(item);
-            } catch (SetFullException e) {
-                e.printStackTrace();
+        if (adds != null) {
+            for (GroceryItem item : adds) {
+                if (item != null) {
+                    added.add(item.getEntry(), item.getQuantity());
+                }
+            }
+        }
+        if (removes != null) {
+            for (GroceryItem item : removes) {
+                removed.add(item.getEntry(), item.getQuantity());
+            }
+        }
+        if (modifies != null) {
+            for (GroceryItem item : modifies) {
+                // the last modification of a description wins
+                DescriptionDictionary.Entry entry = item.getEntry();
+                if (modified.replace(entry, item.getQuantity()) == 0) {
+                    modified.add(entry, item.getQuantity());
+                }
             }
         }
 
-        return oldQty;
+        BatchDelta delta = new BatchDelta();
+        added.forEach((entry, qty) -> {
+            delta.set(qty, removed.count(entry), modified.count(entry));
+            apply(entry, delta);
+        });
+        removed.forEach((entry, qty) -> {
+            if (added.contains(entry)) return;
+            delta.set(0, qty, modified.count(entry));
+            apply(entry, delta);
+        });
+        modified.forEach((entry, qty) -> {
+            if (added.contains(entry) || removed.contains(entry)) return;
+            delta.set(0, 0, qty);
+            apply(entry, delta);
+        });
+    }
+
+    /**
+     * Gets the current quantity of a description.
+     *
+     * @param desc the description to look up
+     * @return  the quantity, or 0 if the item is not in these groceries
+     * @throws NullPointerException if desc is null
+     */
+    public int getQuantity(String desc) throws NullPointerException {
+        // a description that is not in use cannot be on this list
+        DescriptionDictionary.Entry entry =
+                DescriptionDictionary.shared().find(desc);
+        return entry == null ? 0 : counts.count(entry);
+    }
+
+    /**
+     * Finds the first items, ordered by description, whose description
+     * starts with a given prefix. The first call builds a PrefixIndex of
+     * every description, which from then on is updated whenever an item is
+     * added or removed entirely, so the cost of later calls depends on the
+     * prefix and the number of results, not on the size of these groceries.
+     * Matching is case-sensitive.
+     *
+     * @param prefix the prefix to match
+     * @param k the maximum number of items to return
+     * @return  up to k matching items with their current quantities
+     * @throws NullPointerException if prefix is null
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<GroceryItem> startingWith(String prefix, int k)
+            throws NullPointerException, IllegalArgumentException {
+        if (prefixes == null) {
+            PrefixIndex index = new PrefixIndex();
+            counts.forEach((entry, qty) -> index.add(entry.getDescription()));
+            prefixes = index;
+        }
+
+        List<String> descs = prefixes.startingWith(prefix, k);
+        List<GroceryItem> items = new ArrayList<>(descs.size());
+        for (String desc : descs) {
+            items.add(new GroceryItem(desc, getQuantity(desc)));
+        }
+        return items;
+    }
+
+    /**
+     * Finds the k items with the largest quantities, largest first. Items
+     * with equal quantities are ordered by description. If these groceries
+     * maintain a ranking, the items are read off its front in O(k) time;
+     * otherwise every item is passed once through a bounded min-heap of the
+     * best k seen so far, in O(n log k) time and O(k) extra space.
+     *
+     * @param k the maximum number of items to return
+     * @return  up to k items with their current quantities
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<GroceryItem> topK(int k) throws IllegalArgumentException {
+        if (k < 0) throw new IllegalArgumentException("Negative k");
+
+        k = Math.min(k, counts.getSize());
+        List<GroceryItem> items = new ArrayList<>(k);
+        if (ranking != null) {
+            Iterator<Rank> it = ranking.iterator();
+            while (items.size() < k) {
+                Rank rank = it.next();
+                items.add(new GroceryItem(rank.desc, rank.qty));
+            }
+            return items;
+        }
+
+        TopK top = new TopK(k);
+        counts.forEach((entry, qty) -> top.accept(entry.getDescription(), qty));
+        GroceryItem[] sorted = new GroceryItem[top.size];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = new GroceryItem(top.descs[0], top.qtys[0]);
+            top.pop();
+        }
+        for (GroceryItem item : sorted) {
+            items.add(item);
+        }
+        return items;
     }
 
     @Override
     public void printAll() {
-        String output = "Groceries:\n";
+        System.out.print("Groceries:\n");
+        try {
+            writeTo(System.out);
+        } catch (IOException e) {
+            // PrintStream never throws, it records errors instead
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes every item to out, one per line, in the same "quantity
+     * description" form that printAll uses (without the header). Lines are
+     * gathered in a fixed-size buffer and handed to out in large chunks, so
+     * the time taken is linear in the size of the output and the memory used
+     * does not grow with it.
+     *
+     * <p> Descriptions that contain line breaks are written as is, and
+     * cannot be read back by readFrom.
+     *
+     * @param out the destination
+     * @throws IOException if out throws IOException
+     */
+    public void writeTo(Appendable out) throws IOException {
+        StringBuilder chunk = new StringBuilder(BUFFER_SIZE);
+        try {
+            counts.forEach((entry, qty) -> {
+                chunk.append(qty).append(' ').append(entry.getDescription())
+                        .append('\n');
+                if (chunk.length() >= BUFFER_SIZE) flush(out, chunk);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        flush(out, chunk);
+    }
+
+    /**
+     * Writes every item to a channel as UTF-8 text, in the line format of
+     * writeTo(Appendable). The channel is not closed.
+     *
+     * @param out the destination channel
+     * @throws IOException if writing to the channel fails
+     */
+    public void writeTo(WritableByteChannel out) throws IOException {
+        Writer writer = Channels.newWriter(out, StandardCharsets.UTF_8);
+        writeTo(writer);
+        writer.flush();
+    }
+
+    /**
+     * Reads items from a channel of UTF-8 text in the line format written by
+     * writeTo, and adds each of them to these groceries as addItem would.
+     * Blank lines are skipped. Input is decoded through a fixed-size buffer,
+     * so memory use does not depend on the size of the input. The channel is
+     * not closed.
+     *
+     * @param in the source channel
+     * @throws IOException if reading fails or a line is malformed; items on
+     * the lines before it have already been added
+     */
+    public void readFrom(ReadableByteChannel in) throws IOException {
+        Reader reader = Channels.newReader(in,
+                StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE);
+        char[] buffer = new char[BUFFER_SIZE];
+        StringBuilder line = new StringBuilder();
+
+        int n;
+        while ((n = reader.read(buffer)) >= 0) {
+            for (int i = 0; i < n; i++) {
+                if (buffer[i] == '\n') {
+                    readLine(line);
+                    line.setLength(0);
+                } else {
+                    line.append(buffer[i]);
+                }
+            }
+        }
+        readLine(line);
+    }
 
-        Object[] groceries = groceryList.toArray();
+    /**
+     * Passes the contents of chunk to out and empties it.
+     */
+    private static void flush(Appendable out, StringBuilder chunk) {
+        if (chunk.length() == 0) return;
+        try {
+            out.append(chunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        chunk.setLength(0);
+    }
+
+    /**
+     * Parses one "quantity description" line and adds the item it describes.
+     */
+    private void readLine(StringBuilder line) throws IOException {
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\r') end--;
+        if (end == 0) return;
 
-        for (int i = 0; i< groceries.length; i++) {
-            output += groceries[i].toString() + "\n";
+        int space = line.indexOf(" ");
+        if (space <= 0 || space >= end - 1) {
+            throw new IOException("Malformed grocery line: " + line);
+        }
+
+        int qty;
+        try {
+            qty = Integer.parseInt(line, 0, space, 10);
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed grocery quantity: " + line);
+        }
+        if (qty < 1) {
+            throw new IOException("Quantity less than 1: " + line);
         }
 
-        System.out.print(output);
+        add(DescriptionDictionary.shared().intern(
+                line.substring(space + 1, end)), qty);
+    }
+
+    /**
+     * Adds qty of a description, indexing it if it is new and there is a
+     * prefix index.
+     */
+    private void add(DescriptionDictionary.Entry entry, int qty) {
+        int oldQty = counts.add(entry, qty);
+        if (oldQty == 0 && prefixes != null) {
+            prefixes.add(entry.getDescription());
+        }
+        rerank(entry.getDescription(), oldQty, oldQty + qty);
+    }
+
+    /**
+     * Applies a batch's combined effect to a description, updating the
+     * prefix index if the description appears or disappears.
+     */
+    private void apply(DescriptionDictionary.Entry entry, BatchDelta delta) {
+        String desc = entry.getDescription();
+        int oldQty = counts.compute(entry, delta);
+        int newQty = delta.applyAsInt(oldQty);
+        if (prefixes != null && oldQty <= 0 && newQty > 0) {
+            prefixes.add(desc);
+        } else if (prefixes != null && oldQty > 0 && newQty <= 0) {
+            prefixes.remove(desc);
+        }
+        rerank(desc, oldQty, Math.max(newQty, 0));
+    }
+
+    /**
+     * Moves a description within the ranking after its quantity changed. A
+     * quantity of 0 means the item is absent.
+     */
+    private void rerank(String desc, int oldQty, int newQty) {
+        if (ranking == null || oldQty == newQty) return;
+
+        if (oldQty > 0) ranking.remove(new Rank(desc, oldQty));
+        if (newQty > 0) ranking.add(new Rank(desc, newQty));
+    }
+
+    /**
+     * Adds every quantity of other to these groceries, without updating the
+     * prefix index or ranking. Only used for mergeAll's partial totals, which
+     * have neither.
+     */
+    private void addAll(Groceries other) {
+        other.counts.forEach((entry, qty) -> counts.add(entry, qty));
+    }
+
+    /**
+     * Merges the lists in a range of an array into one new Groceries.
+     */
+    private static final class MergeTask extends RecursiveTask<Groceries> {
+        private static final long serialVersionUID = 1L;
+
+        private final Groceries[] lists;
+        private final int lo;
+        private final int hi;
+
+        MergeTask(Groceries[] lists, int lo, int hi) {
+            this.lists = lists;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Groceries compute() {
+            if (hi - lo <= MERGE_GRANULARITY) {
+                Groceries total = new Groceries();
+                for (int i = lo; i < hi; i++) {
+                    total.addAll(lists[i]);
+                }
+                return total;
+            }
+
+            int mid = (lo + hi) >>> 1;
+            MergeTask left = new MergeTask(lists, lo, mid);
+            left.fork();
+            Groceries right = new MergeTask(lists, mid, hi).compute();
+            Groceries leftTotal = left.join();
+
+            if (leftTotal.counts.getSize() < right.counts.getSize()) {
+                right.addAll(leftTotal);
+                return right;
+            }
+            leftTotal.addAll(right);
+            return leftTotal;
+        }
+    }
+
+    /**
+     * An item's position in a ranking: larger quantities first, then
+     * descriptions in increasing order.
+     */
+    private static final class Rank implements Comparable<Rank> {
+        final String desc;
+        final int qty;
+
+        Rank(String desc, int qty) {
+            this.desc = desc;
+            this.qty = qty;
+        }
+
+        @Override
+        public int compareTo(Rank other) {
+            if (qty != other.qty) return qty > other.qty ? -1 : 1;
+            return desc.compareTo(other.desc);
+        }
+    }
+
+    /**
+     * A bounded min-heap holding the best k items passed to it, in the order
+     * of Rank. The root is the worst item kept, so a new item only has to be
+     * compared against the root to know whether it belongs.
+     */
+    private static final class TopK implements ObjIntConsumer<String> {
+        final String[] descs;
+        final int[] qtys;
+        int size;
+
+        TopK(int k) {
+            descs = new String[k];
+            qtys = new int[k];
+        }
+
+        @Override
+        public void accept(String desc, int qty) {
+            if (size < descs.length) {
+                // sift the new item up from the end
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!worse(qty, desc, qtys[parent], descs[parent])) break;
+                    descs[i] = descs[parent];
+                    qtys[i] = qtys[parent];
+                    i = parent;
+                }
+                descs[i] = desc;
+                qtys[i] = qty;
+            } else if (size > 0 && worse(qtys[0], descs[0], qty, desc)) {
+                siftDown(desc, qty);
+            }
+        }
+
+        /**
+         * Removes the root, the worst item kept.
+         */
+        void pop() {
+            int last = --size;
+            if (last > 0) siftDown(descs[last], qtys[last]);
+            descs[last] = null;
+        }
+
+        /**
+         * Replaces the root with an item and restores the heap order.
+         */
+        private void siftDown(String desc, int qty) {
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < size && worse(qtys[right], descs[right],
+                        qtys[child], descs[child])) {
+                    child = right;
+                }
+                if (!worse(qtys[child], descs[child], qty, desc)) break;
+                descs[i] = descs[child];
+                qtys[i] = qtys[child];
+                i = child;
+            }
+            descs[i] = desc;
+            qtys[i] = qty;
+        }
+
+        /**
+         * Tests whether item a ranks after item b.
+         */
+        private static boolean worse(int qtyA, String descA, int qtyB,
+                String descB) {
+            if (qtyA != qtyB) return qtyA < qtyB;
+            return descA.compareTo(descB) > 0;
+        }
+    }
+
+    /**
+     * The combined effect of a batch on one description's quantity: first
+     * the added quantity, then the removed quantity, then (if the item is
+     * still present) the last modification. A reusable operator, so applying
+     * a batch does not allocate per description.
+     */
+    private static final class BatchDelta implements IntUnaryOperator {
+        private int add;
+        private int remove;
+        private int modify;
+
+        void set(int add, int remove, int modify) {
+            this.add = add;
+            this.remove = remove;
+            this.modify = modify;
+        }
+
+        @Override
+        public int applyAsInt(int qty) {
+            long next = (long) qty + add - remove;
+            if (next > 0 && modify > 0) return modify;
+            if (next > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Quantity overflows int");
+            }
+            return (int) next;
+        }
     }
 }
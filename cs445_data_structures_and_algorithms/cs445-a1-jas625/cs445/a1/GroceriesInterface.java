@@ -1,5 +1,7 @@
 package cs445.a1;
 
+import java.util.List;
+
 /**
  * A Groceries is a representation of a shopping "list", though it is unordered
  * and does not permit duplicates. It uses the Set data structure to store a
@@ -44,6 +46,35 @@ public interface GroceriesInterface {
      */
     public int modifyQuantity(GroceryItem item);
 
+    /**
+     * Applies a batch of changes to these groceries. The result is the same
+     * as calling addItem for each item of adds, then removeItem for each item
+     * of removes, then modifyQuantity for each item of modifies, each in list
+     * order. Any of the lists may be null, which is treated as empty.
+     *
+     * <p> Implementations are encouraged to combine all changes to the same
+     * description before touching the groceries, so that each description is
+     * looked up at most once no matter how many times it appears in the
+     * batch.
+     *
+     * @param adds the items to add
+     * @param removes the items to remove
+     * @param modifies the items whose quantity should be set
+     * @throws NullPointerException if removes or modifies contains null
+     */
+    public default void applyBatch(List<GroceryItem> adds,
+            List<GroceryItem> removes, List<GroceryItem> modifies) {
+        if (adds != null) {
+            for (GroceryItem item : adds) addItem(item);
+        }
+        if (removes != null) {
+            for (GroceryItem item : removes) removeItem(item);
+        }
+        if (modifies != null) {
+            for (GroceryItem item : modifies) modifyQuantity(item);
+        }
+    }
+
     /**
      * Prints all groceries. Includes a header "Groceries:" and prints each item
      * on a separate line.
@@ -0,0 +1,363 @@
+package cs445.a1;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Checks Groceries and the description dictionary behind its items. Run it
+ * with java cs445.a1.GroceriesTest; it throws AssertionError at the first
+ * check that fails.
+ */
+public class GroceriesTest {
+
+    private static final Random RANDOM = new Random(1);
+
+    public static void main(String[] args) throws IOException {
+        descriptionsStayInterned();
+        for (int round = 0; round < 50; round++) {
+            startingWithStaysInSync();
+            topKMatchesSort();
+        }
+        mergeAllAddsUp();
+        readFromRoundTrips();
+        readFromRejectsBadLines();
+        System.out.println("All Groceries tests passed");
+    }
+
+    /**
+     * A description on a grocery list keeps its entry, and so its id, even
+     * after every item naming it is gone; descriptions read from text are
+     * interned too, and equal items are equal by id.
+     */
+    private static void descriptionsStayInterned() throws IOException {
+        DescriptionDictionary dictionary = DescriptionDictionary.shared();
+        Groceries groceries = new Groceries();
+        int n = 1000;
+
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            GroceryItem item = new GroceryItem("Added " + i, 1);
+            ids[i] = item.getDescriptionId();
+            groceries.addItem(item);
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            text.append("2 Read ").append(i).append('\n');
+        }
+        groceries.readFrom(Channels.newChannel(new ByteArrayInputStream(
+                text.toString().getBytes(StandardCharsets.UTF_8))));
+
+        // nothing but the list refers to the descriptions any more
+        collectGarbage();
+        for (int i = 0; i < n; i++) {
+            String added = "Added " + i;
+            check(new GroceryItem(added).getDescriptionId() == ids[i],
+                    "id of " + added + " changed");
+            check(dictionary.find(added) != null, added + " forgotten");
+
+            String read = "Read " + i;
+            check(dictionary.find(read) != null, read + " not interned");
+            GroceryItem first = new GroceryItem(read);
+            GroceryItem second = new GroceryItem(new String(read));
+            check(first.getDescription() == second.getDescription(),
+                    read + " stored twice");
+            check(first.equals(second) && first.hashCode() == second.hashCode(),
+                    read + " not equal");
+            check(groceries.getQuantity(read) == 2, "quantity of " + read);
+        }
+        check(!new GroceryItem("Read 1").equals(new GroceryItem("Read 2")),
+                "different descriptions equal");
+
+        // once removed from the list, nothing holds them
+        for (int i = 0; i < n; i++) {
+            groceries.removeItem(new GroceryItem("Added " + i));
+        }
+        collectGarbage();
+        int forgotten = 0;
+        for (int i = 0; i < n; i++) {
+            if (dictionary.find("Added " + i) == null) forgotten++;
+        }
+        check(forgotten > 0, "unused descriptions never forgotten");
+        check(groceries.getQuantity("Added 0") == 0, "removed item remains");
+    }
+
+    /**
+     * Adds, removes and modifies items, querying by prefix now and then, and
+     * checks every answer against a java.util.TreeMap of quantities. The
+     * first query builds the prefix index part way through, and later
+     * changes must keep it in sync.
+     */
+    private static void startingWithStaysInSync() {
+        Groceries groceries = new Groceries(RANDOM.nextBoolean());
+        TreeMap<String, Integer> ref = new TreeMap<>();
+
+        for (int i = 0; i < 2000; i++) {
+            String desc = randomDescription();
+            int qty = 1 + RANDOM.nextInt(3);
+            int old = ref.getOrDefault(desc, 0);
+            switch (RANDOM.nextInt(5)) {
+            case 0:
+            case 1:
+                groceries.addItem(new GroceryItem(desc, qty));
+                ref.put(desc, old + qty);
+                break;
+            case 2:
+                groceries.removeItem(new GroceryItem(desc, qty));
+                if (old > qty) {
+                    ref.put(desc, old - qty);
+                } else {
+                    ref.remove(desc);
+                }
+                break;
+            case 3:
+                int result = groceries.modifyQuantity(
+                        new GroceryItem(desc, qty));
+                check(result == (old == 0 ? -1 : old), "modify " + desc);
+                if (old > 0) ref.put(desc, qty);
+                break;
+            default:
+                String prefix = randomDescription()
+                        .substring(0, RANDOM.nextInt(3));
+                int k = RANDOM.nextInt(10);
+                List<GroceryItem> items = groceries.startingWith(prefix, k);
+                List<String> expected = new ArrayList<>();
+                for (Map.Entry<String, Integer> e
+                        : ref.tailMap(prefix).entrySet()) {
+                    if (expected.size() == k
+                            || !e.getKey().startsWith(prefix)) break;
+                    expected.add(e.getKey());
+                }
+                check(items.size() == expected.size(),
+                        "startingWith " + prefix + " " + k);
+                for (int j = 0; j < items.size(); j++) {
+                    GroceryItem item = items.get(j);
+                    check(item.getDescription().equals(expected.get(j)),
+                            "startingWith " + prefix + " order");
+                    check(item.getQuantity() == ref.get(expected.get(j)),
+                            "startingWith " + prefix + " quantity");
+                }
+            }
+        }
+    }
+
+    /**
+     * Changes quantities at random and compares topK, with and without a
+     * maintained ranking, against the items sorted by decreasing quantity
+     * and then by description.
+     */
+    private static void topKMatchesSort() {
+        Groceries plain = new Groceries();
+        Groceries ranked = new Groceries(true);
+        Map<String, Integer> ref = new HashMap<>();
+
+        for (int i = 0; i < 500; i++) {
+            String desc = randomDescription();
+            int qty = 1 + RANDOM.nextInt(5);
+            int old = ref.getOrDefault(desc, 0);
+            switch (RANDOM.nextInt(3)) {
+            case 0:
+                plain.addItem(new GroceryItem(desc, qty));
+                ranked.addItem(new GroceryItem(desc, qty));
+                ref.put(desc, old + qty);
+                break;
+            case 1:
+                plain.removeItem(new GroceryItem(desc, qty));
+                ranked.removeItem(new GroceryItem(desc, qty));
+                if (old > qty) {
+                    ref.put(desc, old - qty);
+                } else {
+                    ref.remove(desc);
+                }
+                break;
+            default:
+                plain.modifyQuantity(new GroceryItem(desc, qty));
+                ranked.modifyQuantity(new GroceryItem(desc, qty));
+                if (old > 0) ref.put(desc, qty);
+            }
+        }
+
+        List<Map.Entry<String, Integer>> sorted =
+                new ArrayList<>(ref.entrySet());
+        sorted.sort((a, b) -> a.getValue().equals(b.getValue())
+                ? a.getKey().compareTo(b.getKey())
+                : b.getValue() - a.getValue());
+        for (int k : new int[] {0, 1, 5, ref.size(), ref.size() + 10}) {
+            checkTop(plain.topK(k), sorted, k, "topK " + k);
+            checkTop(ranked.topK(k), sorted, k, "ranked topK " + k);
+        }
+        try {
+            plain.topK(-1);
+            throw new AssertionError("negative k accepted");
+        } catch (IllegalArgumentException expected) {
+            // rejected
+        }
+    }
+
+    private static void checkTop(List<GroceryItem> top,
+            List<Map.Entry<String, Integer>> sorted, int k, String what) {
+        check(top.size() == Math.min(k, sorted.size()), what + " size");
+        for (int i = 0; i < top.size(); i++) {
+            check(top.get(i).getDescription().equals(sorted.get(i).getKey())
+                    && top.get(i).getQuantity() == sorted.get(i).getValue(),
+                    what + " at " + i);
+        }
+    }
+
+    /**
+     * Merges enough lists to be split across several tasks, and checks the
+     * totals and that none of the lists changed.
+     */
+    private static void mergeAllAddsUp() throws IOException {
+        List<Groceries> lists = new ArrayList<>();
+        List<Map<String, Integer>> before = new ArrayList<>();
+        Map<String, Integer> totals = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            Groceries list = new Groceries(i % 3 == 0);
+            for (int j = RANDOM.nextInt(200); j > 0; j--) {
+                String desc = randomDescription();
+                int qty = 1 + RANDOM.nextInt(5);
+                list.addItem(new GroceryItem(desc, qty));
+                totals.merge(desc, qty, Integer::sum);
+            }
+            lists.add(list);
+            before.add(quantities(list));
+        }
+
+        check(quantities(Groceries.mergeAll(lists)).equals(totals),
+                "merged totals");
+        for (int i = 0; i < lists.size(); i++) {
+            check(quantities(lists.get(i)).equals(before.get(i)),
+                    "mergeAll changed list " + i);
+        }
+        check(quantities(Groceries.mergeAll(
+                Collections.<Groceries>emptyList())).isEmpty(),
+                "merging no lists");
+
+        Collection<Groceries> withNull = new ArrayList<>(lists);
+        withNull.add(null);
+        try {
+            Groceries.mergeAll(withNull);
+            throw new AssertionError("null list accepted");
+        } catch (NullPointerException expected) {
+            // rejected
+        }
+    }
+
+    /**
+     * Writes groceries with non-ASCII and very long descriptions, so that
+     * characters and lines straddle the read buffer, and reads them back.
+     * Blank lines and CRLF line ends are accepted too.
+     */
+    private static void readFromRoundTrips() throws IOException {
+        Groceries groceries = new Groceries();
+        String[] descs = {
+            "Jalape\u00f1os", "Cr\u00e8me fra\u00eeche", "\u725b\u5976",
+            "Line with  two spaces", "x".repeat(20000), "\u00e9".repeat(9000),
+        };
+        for (int i = 0; i < 5000; i++) {
+            String desc = i < descs.length ? descs[i] : randomDescription();
+            groceries.addItem(new GroceryItem(desc, 1 + RANDOM.nextInt(100)));
+        }
+        Map<String, Integer> expected = quantities(groceries);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        groceries.writeTo(Channels.newChannel(bytes));
+        Groceries copy = new Groceries();
+        copy.readFrom(channel(bytes.toByteArray()));
+        check(quantities(copy).equals(expected), "round trip");
+
+        Groceries crlf = new Groceries();
+        crlf.readFrom(channel(("\r\n2 Milk\r\n\n3 Eggs\r\n1 Milk")
+                .getBytes(StandardCharsets.UTF_8)));
+        check(crlf.getQuantity("Milk") == 3 && crlf.getQuantity("Eggs") == 3
+                && quantities(crlf).size() == 2, "CRLF and blank lines");
+    }
+
+    /**
+     * Every malformed line is rejected with IOException, after the lines
+     * before it have been added.
+     */
+    private static void readFromRejectsBadLines() {
+        String[] bad = {
+            "Milk", "2", "2 ", " Milk", "0 Milk", "-1 Milk", "two Milk",
+            "99999999999 Milk", "2\tMilk",
+        };
+        for (String line : bad) {
+            Groceries groceries = new Groceries();
+            try {
+                groceries.readFrom(channel(("4 Bread\n" + line + "\n1 Jam\n")
+                        .getBytes(StandardCharsets.UTF_8)));
+                throw new AssertionError("accepted \"" + line + "\"");
+            } catch (IOException expected) {
+                // rejected
+            }
+            check(groceries.getQuantity("Bread") == 4
+                    && groceries.getQuantity("Jam") == 0,
+                    "lines around \"" + line + "\"");
+        }
+    }
+
+    private static java.nio.channels.ReadableByteChannel channel(
+            byte[] bytes) {
+        return Channels.newChannel(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Reads every quantity through writeTo.
+     */
+    private static Map<String, Integer> quantities(Groceries groceries)
+            throws IOException {
+        StringBuilder text = new StringBuilder();
+        groceries.writeTo(text);
+        Map<String, Integer> result = new HashMap<>();
+        for (String line : text.toString().split("\n")) {
+            if (line.isEmpty()) continue;
+            int space = line.indexOf(' ');
+            check(result.put(line.substring(space + 1),
+                    Integer.parseInt(line.substring(0, space))) == null,
+                    "writeTo repeated " + line);
+        }
+        return result;
+    }
+
+    /**
+     * A description of a few letters from a small alphabet, so that many
+     * descriptions share prefixes.
+     */
+    private static String randomDescription() {
+        StringBuilder desc = new StringBuilder("p");
+        int length = 1 + RANDOM.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            desc.append("abC".charAt(RANDOM.nextInt(3)));
+        }
+        return desc.toString();
+    }
+
+    /**
+     * Encourages the garbage collector to clear weakly reachable entries.
+     */
+    private static void collectGarbage() {
+        List<byte[]> pressure = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            pressure.add(new byte[1 << 20]);
+        }
+        pressure.clear();
+        System.gc();
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) throw new AssertionError(what);
+    }
+}
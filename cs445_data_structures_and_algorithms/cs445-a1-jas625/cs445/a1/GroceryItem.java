@@ -3,10 +3,17 @@ package cs445.a1;
 /**
  * GroceryItem represents a single item on a shopping list. Its quantity is
  * mutable but its description is not editable once created.
+ *
+ * <p> Every description is interned in the shared DescriptionDictionary when
+ * the item is created. The item keeps the description's entry, which holds
+ * a compact id and a precomputed hash, so items with the same description
+ * share one String, and neither hashing nor comparing items looks at the
+ * characters of the description: items with equal descriptions hold the
+ * same entry, so equality is a comparison of ids.
  */
 public class GroceryItem {
 
-    private String desc;
+    private final DescriptionDictionary.Entry entry;
     private int quantity;
 
     /**
@@ -22,7 +29,7 @@ public class GroceryItem {
             throw new IllegalArgumentException("Empty description");
         if (quantity < 1)
             throw new IllegalArgumentException("Quantity less than 1");
-        this.desc = desc;
+        this.entry = DescriptionDictionary.shared().intern(desc);
         this.quantity = quantity;
     }
 
@@ -36,12 +43,32 @@ public class GroceryItem {
     }
 
     /**
-     * Gets this item's description.
+     * Gets this item's description. The same String instance is returned for
+     * every item with an equal description.
      *
      * @return  the description
      */
     public String getDescription() {
-        return desc;
+        return entry.getDescription();
+    }
+
+    /**
+     * Gets the id of this item's description in the shared
+     * DescriptionDictionary. Items with equal descriptions that exist at the
+     * same time have the same id, and the id stays the same for as long as
+     * any item or grocery list holds the description.
+     *
+     * @return  the description id
+     */
+    public int getDescriptionId() {
+        return entry.getId();
+    }
+
+    /**
+     * Gets this item's entry in the shared DescriptionDictionary.
+     */
+    DescriptionDictionary.Entry getEntry() {
+        return entry;
     }
 
     /**
@@ -72,7 +99,7 @@ public class GroceryItem {
      */
     @Override
     public String toString() {
-        return quantity + " " + desc;
+        return quantity + " " + entry.getDescription();
     }
 
     /**
@@ -88,8 +115,20 @@ public class GroceryItem {
         if (!(other instanceof GroceryItem)) return false;
         GroceryItem gOther = (GroceryItem)other;
 
-        // Note: because desc cannot be set to null, this is safe
-        return desc.equals(gOther.desc);
+        // both entries are in use, so they are the same entry exactly when
+        // the descriptions are equal
+        return entry.getId() == gOther.entry.getId();
+    }
+
+    /**
+     * Computes a hash code consistent with equals: it depends only on the
+     * description, so items that differ only in quantity hash the same.
+     *
+     * @return  the precomputed hash code of this item's description
+     */
+    @Override
+    public int hashCode() {
+        return entry.getHash();
     }
 
 }
@@ -0,0 +1,170 @@
+package cs445.a1;
+
+import java.util.Arrays;
+
+/**
+ * The open-addressed index shared by the hash-indexed collections. The
+ * collection keeps its entries densely packed in arrays of its own, along
+ * with an int hash for every position; the index maps each hash to the
+ * position of its entry. It uses Fibonacci hashing, linear probing and
+ * backward-shift deletion, so it never fills up with tombstones.
+ *
+ * <p> A slot holds a position plus one, or 0 if the slot is empty. The
+ * number of slots is always a power of two and at least twice the number of
+ * entries. The index never looks at the entries themselves: lookups walk the
+ * probe sequence from home(hash) with next(slot) and compare entries at each
+ * position, and every method that moves slots around is given the owner's
+ * array of hashes.
+ */
+final class HashIndex {
+
+    /** Fibonacci hashing multiplier, 2^32 divided by the golden ratio */
+    private static final int GOLDEN = 0x9E3779B9;
+
+    private int[] slots;
+    private int shift;
+
+    /**
+     * Creates an empty index with room for at least cap entries at a load
+     * factor of one half.
+     */
+    HashIndex(int cap) {
+        allocate(cap);
+    }
+
+    /**
+     * Creates an index of the first size positions, whose hashes are given.
+     */
+    HashIndex(int[] hashes, int size) {
+        allocate(size);
+        fill(hashes, size);
+    }
+
+    /**
+     * Computes the slot an entry with the given hash would occupy if there
+     * were no collisions.
+     */
+    int home(int hash) {
+        return (hash * GOLDEN) >>> shift;
+    }
+
+    /**
+     * Steps to the next slot of a probe sequence.
+     */
+    int next(int slot) {
+        return (slot + 1) & (slots.length - 1);
+    }
+
+    /**
+     * Gets the position a slot refers to.
+     *
+     * @return The position, or -1 if the slot is empty
+     */
+    int position(int slot) {
+        return slots[slot] - 1;
+    }
+
+    /**
+     * Makes an empty slot, found by probing, refer to a position.
+     */
+    void set(int slot, int pos) {
+        slots[slot] = pos + 1;
+    }
+
+    /**
+     * Finds the slot that refers to a position.
+     *
+     * @param pos A position in the index
+     * @param hash The hash of the entry at pos
+     * @return The slot holding pos
+     */
+    int slotOf(int pos, int hash) {
+        int slot = home(hash);
+        while (slots[slot] != pos + 1) {
+            slot = next(slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Points the slot that refers to one position at another, for when the
+     * owner moves an entry, such as the last one into a gap.
+     *
+     * @param from The entry's old position
+     * @param to The entry's new position
+     * @param hash The entry's hash
+     */
+    void move(int from, int to, int hash) {
+        slots[slotOf(from, hash)] = to + 1;
+    }
+
+    /**
+     * Empties a slot using backward-shift deletion: every entry in the probe
+     * run after the slot that would no longer be reachable is shifted back
+     * into the hole, so lookups never need tombstones.
+     *
+     * @param hole The slot to empty
+     * @param hashes The hash of the entry at every position
+     */
+    void delete(int hole, int[] hashes) {
+        int slot = hole;
+        while (true) {
+            slot = next(slot);
+            int p = slots[slot];
+            if (p == 0) break;
+
+            int home = home(hashes[p - 1]);
+            // the entry can stay if its home lies cyclically in (hole, slot]
+            boolean reachable = hole <= slot
+                    ? hole < home && home <= slot
+                    : hole < home || home <= slot;
+            if (!reachable) {
+                slots[hole] = p;
+                hole = slot;
+            }
+        }
+        slots[hole] = 0;
+    }
+
+    /**
+     * Grows the index, if needed, so that cap entries fit at a load factor
+     * of at most one half. Owners call this after every insertion, and
+     * before a bulk insertion so that it rehashes at most once.
+     *
+     * @param cap The number of entries to make room for
+     * @param hashes The hash of the entry at every position
+     * @param size The number of positions currently in use
+     */
+    void reserve(int cap, int[] hashes, int size) {
+        if (cap * 2 > slots.length) {
+            allocate(cap);
+            fill(hashes, size);
+        }
+    }
+
+    /**
+     * Empties every slot, keeping the current length.
+     */
+    void clear() {
+        Arrays.fill(slots, 0);
+    }
+
+    private void allocate(int cap) {
+        int length = Integer.highestOneBit(Math.max(cap, 1)) << 2;
+        slots = new int[length];
+        shift = Integer.numberOfLeadingZeros(length) + 1;
+    }
+
+    /**
+     * Links the first size positions into an empty index.
+     */
+    private void fill(int[] hashes, int size) {
+        for (int pos = 0; pos < size; pos++) {
+            int slot = home(hashes[pos]);
+            while (slots[slot] != 0) {
+                slot = next(slot);
+            }
+            slots[slot] = pos + 1;
+        }
+    }
+}
@@ -0,0 +1,733 @@
+package cs445.a1;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A hash-indexed implementation of SetInterface. Entries are kept densely
+ * packed in an array (removal swaps the last entry into the gap, just like
+ * Set), and a separate open-addressed index maps each entry's hash code to its
+ * position in that array. The index uses linear probing and backward-shift
+ * deletion, so it never fills up with tombstones, and add, contains and remove
+ * all run in expected constant time.
+ *
+ * <p> Entries must implement hashCode consistently with equals. Set remains
+ * the better choice for very small sets, where a linear scan is cheaper than
+ * hashing.
+ */
+public class HashSet<E> implements SetInterface<E>, Iterable<E> {
+
+    private static final int DEFAULT_SIZE = 16;
+
+    /**
+     * A Set at most this large is probed with a linear scan; a larger one is
+     * copied into a HashSet first when many lookups are needed.
+     */
+    private static final int SCAN_LIMIT = 8;
+
+    private E[] mContents;
+    private int[] mHashes;
+
+    /** Maps the hash in mHashes of every entry to its position */
+    private HashIndex mIndex;
+    private int size;
+
+    /** Counts structural modifications, for fail-fast iteration */
+    private int modCount;
+
+    public HashSet() {
+        this(DEFAULT_SIZE);
+    }
+
+    public HashSet(int cap) {
+        if (cap < 1) cap = 1;
+        @SuppressWarnings("unchecked")
+        E[] contents = (E[]) new Object[cap];
+        mContents = contents;
+        mHashes = new int[cap];
+        mIndex = new HashIndex(cap);
+        size = 0;
+    }
+
+    public HashSet(E[] preFill) {
+        this(preFill.length);
+        for (int i = 0; i < preFill.length; i++) {
+            add(preFill[i]);
+        }
+    }
+
+    /**
+     * Determines the current number of entries in this set.
+     *
+     * @return  The integer number of entries currently in this set
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Determines whether this set is empty.
+     *
+     * @return  true if this set is empty; false if not
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a new entry to this set, avoiding duplicates.
+     *
+     * <p> If newEntry is not null and this set does not contain newEntry, then
+     * add modifies the set so that it contains newEntry. All other entries
+     * remain unmodified. Duplicates are determined using the .hashCode() and
+     * .equals() methods. This set resizes as needed, so it never throws
+     * SetFullException.
+     *
+     * <p> If newEntry is null, then add throws NullPointerException without
+     * modifying the set. If this set already contains newEntry, then add
+     * returns false without modifying the set.
+     *
+     * @param newEntry  The object to be added as a new entry
+     * @return  true if the addition is successful; false if the item already is
+     * in this set
+     * @throws NullPointerException  If newEntry is null
+     */
+    @Override
+    public boolean add(E newEntry) throws NullPointerException {
+        if (newEntry == null) throw new NullPointerException();
+
+        int hash = newEntry.hashCode();
+        int slot = findSlot(newEntry, hash);
+        if (slot >= 0) return false;
+
+        insert(~slot, newEntry, hash);
+        return true;
+    }
+
+    /**
+     * Removes a specific entry from this set, if possible.
+     *
+     * <p> If this set contains the entry, remove modifies the set so that it no
+     * longer contains entry. All other entries remain unmodified. Identifying
+     * this entry is accomplished using the .hashCode() and .equals() methods.
+     * The removed entry will be returned.
+     *
+     * <p> If this set does not contain entry, remove will return null without
+     * modifying the set. Because null cannot be added, a return value of null
+     * will never indicate a successful removal.
+     *
+     * <p> If the specified entry is null, then remove throws
+     * NullPointerException without modifying the set.
+     *
+     * @param entry  The entry to be removed
+     * @return  The removed entry if removal was successful; null otherwise
+     * @throws NullPointerException  If entry is null
+     */
+    @Override
+    public E remove(E entry) throws NullPointerException {
+        if (entry == null) throw new NullPointerException();
+
+        int slot = findSlot(entry, entry.hashCode());
+        if (slot < 0) return null;
+
+        return removeSlot(slot);
+    }
+
+    /**
+     * Removes an arbitrary entry from this set, if possible.
+     *
+     * <p> If this set contains at least one entry, remove will modify the set
+     * so that it no longer contains one of its entries. All other entries
+     * remain unmodified. The removed entry will be returned.
+     *
+     * <p> If this set is empty, remove will return null without modifying the
+     * set. Because null cannot be added, a return value of null will never
+     * indicate a successful removal.
+     *
+     * @return  The removed entry if the removal was successful; null otherwise
+     */
+    @Override
+    public E remove() {
+        if (size == 0) return null;
+
+        return removeSlot(slotOf(size - 1));
+    }
+
+    /**
+     * Removes all entries from this set.
+     *
+     * <p> If this set is already empty, clear will not modify the set.
+     * Otherwise, the set will be modified so that it contains no entries.
+     */
+    @Override
+    public void clear() {
+        if (size == 0) return;
+
+        Arrays.fill(mContents, 0, size, null);
+        mIndex.clear();
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Tests whether this set contains a given entry. Equality is determined
+     * using the .hashCode() and .equals() methods.
+     *
+     * <p> If this set contains entry, then contains returns true. Otherwise
+     * (including if this set is empty), contains returns false. If entry is
+     * null, then contains throws NullPointerException. The method never
+     * modifies this set.
+     *
+     * @param entry  The entry to locate
+     * @return  true if this set contains entry; false if not
+     * @throws NullPointerException  If entry is null
+     */
+    @Override
+    public boolean contains(E entry) throws NullPointerException {
+        if (entry == null) throw new NullPointerException();
+
+        return findSlot(entry, entry.hashCode()) >= 0;
+    }
+
+    /**
+     * Adds an entry to this set, or combines it with the equal entry already
+     * present, in a single probe.
+     *
+     * <p> If this set does not contain entry, merge adds it exactly as add
+     * would and returns it. Otherwise, remapping is called with the existing
+     * entry and the given entry, and its result takes the existing entry's
+     * place without changing the position of any other entry. If the result
+     * is null, the existing entry is removed instead.
+     *
+     * @param entry  The entry to add or combine
+     * @param remapping  The function combining the existing and given entries
+     * @return  The entry now in this set, or null if it was removed
+     * @throws NullPointerException  If entry or remapping is null
+     * @throws IllegalArgumentException  If remapping returns an entry that is
+     * not equal to the existing entry
+     */
+    @Override
+    public E merge(E entry, BiFunction<? super E, ? super E, ? extends E>
+            remapping) throws NullPointerException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException();
+        }
+
+        int hash = entry.hashCode();
+        int slot = findSlot(entry, hash);
+        if (slot < 0) {
+            insert(~slot, entry, hash);
+            return entry;
+        }
+
+        int pos = mIndex.position(slot);
+        return update(slot, remapping.apply(mContents[pos], entry));
+    }
+
+    /**
+     * Updates the entry equal to a given entry, if present, in a single
+     * probe.
+     *
+     * <p> If this set contains entry, remapping is called with the existing
+     * entry and the given entry, and its result takes the existing entry's
+     * place without changing the position of any other entry. If the result
+     * is null, the existing entry is removed instead. If this set does not
+     * contain entry, computeIfPresent returns null without calling remapping.
+     *
+     * @param entry  The entry to locate
+     * @param remapping  The function computing the replacement entry
+     * @return  The entry now in this set, or null if it was absent or removed
+     * @throws NullPointerException  If entry or remapping is null
+     * @throws IllegalArgumentException  If remapping returns an entry that is
+     * not equal to the existing entry
+     */
+    @Override
+    public E computeIfPresent(E entry, BiFunction<? super E, ? super E,
+            ? extends E> remapping) throws NullPointerException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException();
+        }
+
+        int slot = findSlot(entry, entry.hashCode());
+        if (slot < 0) return null;
+
+        int pos = mIndex.position(slot);
+        return update(slot, remapping.apply(mContents[pos], entry));
+    }
+
+    /**
+     * Replaces the entry equal to a given entry, if present, in a single
+     * probe.
+     *
+     * <p> If this set contains an entry equal to entry, that entry is replaced
+     * by the given one without changing the position of any other entry, and
+     * the replaced entry is returned. Otherwise, replace returns null without
+     * modifying the set.
+     *
+     * @param entry  The replacement entry
+     * @return  The replaced entry, or null if no equal entry was present
+     * @throws NullPointerException  If entry is null
+     */
+    @Override
+    public E replace(E entry) throws NullPointerException {
+        if (entry == null) throw new NullPointerException();
+
+        int slot = findSlot(entry, entry.hashCode());
+        if (slot < 0) return null;
+
+        int pos = mIndex.position(slot);
+        E old = mContents[pos];
+        mContents[pos] = entry;
+        return old;
+    }
+
+    /**
+     * Adds every entry of another set to this set. The backing arrays and
+     * index are grown once to fit all of other's entries before any are
+     * added.
+     *
+     * @param other  The set whose entries are to be added
+     * @return  true if this set changed; false if it already contained every
+     * entry of other
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public boolean addAll(SetInterface<? extends E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        Object[] entries = other.toArray();
+        ensureCapacity(size + entries.length);
+
+        int oldSize = size;
+        for (int i = 0; i < entries.length; i++) {
+            @SuppressWarnings("unchecked")
+            E entry = (E) entries[i];
+            add(entry);
+        }
+        return size != oldSize;
+    }
+
+    /**
+     * Removes from this set every entry that is also in another set. The
+     * smaller of the two sets is walked and the larger one is probed.
+     *
+     * @param other  The set whose entries are to be removed
+     * @return  true if this set changed; false otherwise
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public boolean removeAll(SetInterface<E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        int oldSize = size;
+        if (other.getSize() <= size) {
+            Object[] entries = other.toArray();
+            for (int i = 0; i < entries.length; i++) {
+                @SuppressWarnings("unchecked")
+                E entry = (E) entries[i];
+                remove(entry);
+            }
+        } else {
+            SetInterface<E> probe = probeable(other);
+            // walking backwards means every entry swapped into a gap has
+            // already been examined
+            for (int pos = size - 1; pos >= 0; pos--) {
+                if (probe.contains(mContents[pos])) {
+                    removeSlot(slotOf(pos));
+                }
+            }
+        }
+        return size != oldSize;
+    }
+
+    /**
+     * Removes from this set every entry that is not also in another set.
+     *
+     * @param other  The set whose entries are to be kept
+     * @return  true if this set changed; false otherwise
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public boolean retainAll(SetInterface<E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        int oldSize = size;
+        SetInterface<E> probe = probeable(other);
+        for (int pos = size - 1; pos >= 0; pos--) {
+            if (!probe.contains(mContents[pos])) {
+                removeSlot(slotOf(pos));
+            }
+        }
+        return size != oldSize;
+    }
+
+    /**
+     * Creates a new HashSet holding every entry that is in this set, another
+     * set, or both. The result is sized for both sets up front, so it is
+     * never rehashed while it is filled.
+     *
+     * @param other  The set to combine with this one
+     * @return  A new HashSet containing the union of both sets
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public HashSet<E> union(SetInterface<? extends E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        HashSet<E> result = new HashSet<>(size + other.getSize());
+        result.addAll(this);
+        result.addAll(other);
+        return result;
+    }
+
+    /**
+     * Creates a new HashSet holding every entry that is in both this set and
+     * another set. The smaller of the two sets is walked and the larger one
+     * is probed.
+     *
+     * @param other  The set to intersect with this one
+     * @return  A new HashSet containing the intersection of both sets
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public HashSet<E> intersection(SetInterface<E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        if (other.getSize() < size) {
+            HashSet<E> result = new HashSet<>(other.getSize());
+            Object[] entries = other.toArray();
+            for (int i = 0; i < entries.length; i++) {
+                @SuppressWarnings("unchecked")
+                E entry = (E) entries[i];
+                if (contains(entry)) result.add(entry);
+            }
+            return result;
+        }
+
+        SetInterface<E> probe = probeable(other);
+        HashSet<E> result = new HashSet<>(size);
+        for (int pos = 0; pos < size; pos++) {
+            if (probe.contains(mContents[pos])) result.add(mContents[pos]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a set with fast lookups holding the same entries as the given
+     * set. A Set with more than a few entries is copied into a HashSet, which
+     * requires its entries to implement hashCode; any other set is returned
+     * as is.
+     *
+     * @param set The set that is about to be probed repeatedly
+     * @return A set equal to the given one that is cheap to probe
+     */
+    static <T> SetInterface<T> probeable(SetInterface<T> set) {
+        if (set instanceof Set && set.getSize() > SCAN_LIMIT) {
+            @SuppressWarnings("unchecked")
+            T[] entries = (T[]) set.toArray();
+            return new HashSet<>(entries);
+        }
+        return set;
+    }
+
+    /**
+     * Creates a fail-fast iterator over the entries of this set. Modifying
+     * the set other than through the iterator's own remove method makes the
+     * iterator throw ConcurrentModificationException.
+     *
+     * @return  An iterator over this set's entries, in no particular order
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    /**
+     * Creates a sized, splittable spliterator over the entries of this set,
+     * which reads the backing array directly instead of copying it.
+     *
+     * @return  A spliterator over this set's entries
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new Splitr(0, -1, 0);
+    }
+
+    /**
+     * Creates a sequential stream over the entries of this set.
+     *
+     * @return  A stream of this set's entries
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Creates a parallel stream over the entries of this set. The backing
+     * array is split into halves recursively, so large sets can be processed
+     * on every core without an intermediate copy.
+     *
+     * @return  A parallel stream of this set's entries
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Retrieves all entries that are in this set.
+     *
+     * <p> An array is returned that contains a reference to each of the entries
+     * in this set. The returned array's length will be equal to the number of
+     * elements in this set, and thus the array will contain no null values.
+     * The backing array is never returned; a new array is allocated with
+     * exactly the appropriate capacity (including an array of size 0, if the
+     * set is empty).
+     *
+     * @return  A newly-allocated array of all the entries in this set
+     */
+    @Override
+    public Object[] toArray() {
+        return Arrays.copyOf(mContents, size, Object[].class);
+    }
+
+    /**
+     * Probes the index for an entry.
+     *
+     * @param entry The entry to find
+     * @param hash The entry's hash code
+     * @return The slot holding the entry, or the bitwise complement of the
+     * empty slot where it would be inserted if it is not in this set
+     */
+    private int findSlot(E entry, int hash) {
+        for (int slot = mIndex.home(hash); ; slot = mIndex.next(slot)) {
+            int pos = mIndex.position(slot);
+            if (pos < 0) return ~slot;
+            if (mHashes[pos] == hash && mContents[pos].equals(entry)) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Finds the index slot that points at position pos of mContents.
+     *
+     * @param pos A valid position in mContents
+     * @return The slot holding pos
+     */
+    private int slotOf(int pos) {
+        return mIndex.slotOf(pos, mHashes[pos]);
+    }
+
+    /**
+     * Grows the backing arrays and the index, if needed, so that cap entries
+     * fit without any further resizing.
+     *
+     * @param cap The number of entries to make room for
+     */
+    private void ensureCapacity(int cap) {
+        if (cap > mContents.length) {
+            mContents = Arrays.copyOf(mContents, cap);
+            mHashes = Arrays.copyOf(mHashes, cap);
+        }
+        mIndex.reserve(cap, mHashes, size);
+    }
+
+    /**
+     * Appends an entry known to be absent and links it into the index at the
+     * given empty slot, growing the backing arrays as needed.
+     */
+    private void insert(int slot, E entry, int hash) {
+        if (size == mContents.length) {
+            int cap = mContents.length * 2;
+            mContents = Arrays.copyOf(mContents, cap);
+            mHashes = Arrays.copyOf(mHashes, cap);
+        }
+
+        mContents[size] = entry;
+        mHashes[size] = hash;
+        mIndex.set(slot, size++);
+        modCount++;
+        mIndex.reserve(size, mHashes, size);
+    }
+
+    /**
+     * Removes the entry referenced by the given index slot. The last entry of
+     * mContents is moved into the gap, and its index slot is updated.
+     *
+     * @param slot An occupied slot in mIndex
+     * @return The removed entry
+     */
+    private E removeSlot(int slot) {
+        int pos = mIndex.position(slot);
+        E removed = mContents[pos];
+        mIndex.delete(slot, mHashes);
+
+        int last = --size;
+        if (pos != last) {
+            mIndex.move(last, pos, mHashes[last]);
+            mContents[pos] = mContents[last];
+            mHashes[pos] = mHashes[last];
+        }
+        mContents[last] = null;
+        modCount++;
+
+        return removed;
+    }
+
+    /**
+     * Stores the result of a remapping function in place of the entry
+     * referenced by an index slot, or removes that entry if the result is
+     * null.
+     *
+     * @param slot An occupied slot in mIndex
+     * @param result The remapped entry
+     * @return The entry now in this set, or null if it was removed
+     */
+    private E update(int slot, E result) {
+        if (result == null) {
+            removeSlot(slot);
+            return null;
+        }
+
+        int pos = mIndex.position(slot);
+        if (!result.equals(mContents[pos])) {
+            throw new IllegalArgumentException("Remapped entry is not equal");
+        }
+
+        mContents[pos] = result;
+        return result;
+    }
+
+    /**
+     * A fail-fast iterator over the backing array. Removing through the
+     * iterator moves the last entry into the gap, so the cursor steps back to
+     * visit it.
+     */
+    private class Itr implements Iterator<E> {
+        private int cursor = 0;
+        private int lastRet = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        @Override
+        public E next() {
+            checkForComodification();
+            if (cursor >= size) throw new NoSuchElementException();
+
+            lastRet = cursor++;
+            return mContents[lastRet];
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet < 0) throw new IllegalStateException();
+            checkForComodification();
+
+            removeSlot(slotOf(lastRet));
+            cursor = lastRet;
+            lastRet = -1;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * A sized, splittable view of a range of the backing array. The range is
+     * bound to the set's size on first use, and forEachRemaining checks for
+     * concurrent modification once it has finished.
+     */
+    private class Splitr implements Spliterator<E> {
+        private int index;
+        private int fence;
+        private int expectedModCount;
+
+        Splitr(int origin, int fence, int expectedModCount) {
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() {
+            if (fence < 0) {
+                expectedModCount = modCount;
+                fence = size;
+            }
+            return fence;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int hi = getFence();
+            int mid = (index + hi) >>> 1;
+            if (index >= mid) return null;
+
+            Splitr prefix = new Splitr(index, mid, expectedModCount);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (action == null) throw new NullPointerException();
+
+            int hi = getFence();
+            if (index >= hi) return false;
+
+            E entry = mContents[index++];
+            action.accept(entry);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            if (action == null) throw new NullPointerException();
+
+            int hi = getFence();
+            E[] contents = mContents;
+            for (int i = index; i < hi; i++) {
+                action.accept(contents[i]);
+            }
+            index = hi;
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return getFence() - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.SIZED | Spliterator.SUBSIZED
+                    | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+    }
+}
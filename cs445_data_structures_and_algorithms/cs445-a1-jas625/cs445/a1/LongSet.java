@@ -0,0 +1,193 @@
+package cs445.a1;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of primitive long values. LongSet follows the semantics of
+ * SetInterface (add refuses duplicates, remove swaps the last entry into the
+ * gap, toArray returns an exactly-sized copy), but stores raw longs instead of
+ * boxed Longs. Entries are kept densely packed in a long array and indexed
+ * by an open-addressed table with linear probing and backward-shift deletion,
+ * so add, contains and remove run in expected constant time and never
+ * allocate unless the set has to grow.
+ */
+public class LongSet {
+
+    private static final int DEFAULT_SIZE = 16;
+
+    private long[] mContents;
+
+    /** The folded hash of every entry, in the same order as mContents */
+    private int[] mHashes;
+
+    /** Maps the hash in mHashes of every entry to its position */
+    private HashIndex mIndex;
+    private int size;
+
+    public LongSet() {
+        this(DEFAULT_SIZE);
+    }
+
+    public LongSet(int cap) {
+        if (cap < 1) cap = 1;
+        mContents = new long[cap];
+        mHashes = new int[cap];
+        mIndex = new HashIndex(cap);
+        size = 0;
+    }
+
+    public LongSet(long[] preFill) {
+        this(preFill.length);
+        for (int i = 0; i < preFill.length; i++) {
+            add(preFill[i]);
+        }
+    }
+
+    /**
+     * Determines the current number of entries in this set.
+     *
+     * @return  The integer number of entries currently in this set
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Determines whether this set is empty.
+     *
+     * @return  true if this set is empty; false if not
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a new entry to this set, avoiding duplicates. This set resizes as
+     * needed, so it never runs out of capacity.
+     *
+     * @param newEntry  The value to be added as a new entry
+     * @return  true if the addition is successful; false if the value already
+     * is in this set
+     */
+    public boolean add(long newEntry) {
+        int slot = findSlot(newEntry);
+        if (slot >= 0) return false;
+
+        if (size == mContents.length) {
+            mContents = Arrays.copyOf(mContents, mContents.length * 2);
+            mHashes = Arrays.copyOf(mHashes, mHashes.length * 2);
+        }
+        mContents[size] = newEntry;
+        mHashes[size] = hash(newEntry);
+        mIndex.set(~slot, size++);
+        mIndex.reserve(size, mHashes, size);
+        return true;
+    }
+
+    /**
+     * Removes a specific entry from this set, if possible. If this set
+     * contains the entry, the last entry is moved into its place; all other
+     * entries remain unmodified.
+     *
+     * @param entry  The value to be removed
+     * @return  true if the value was removed; false if it was not in this set
+     */
+    public boolean remove(long entry) {
+        int slot = findSlot(entry);
+        if (slot < 0) return false;
+
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * Removes an arbitrary entry from this set. Because there is no null long,
+     * calling this on an empty set is an error rather than returning null.
+     *
+     * @return  The removed value
+     * @throws NoSuchElementException  If this set is empty
+     */
+    public long remove() throws NoSuchElementException {
+        if (size == 0) throw new NoSuchElementException();
+
+        return removeSlot(findSlot(mContents[size - 1]));
+    }
+
+    /**
+     * Removes all entries from this set.
+     */
+    public void clear() {
+        if (size == 0) return;
+
+        mIndex.clear();
+        size = 0;
+    }
+
+    /**
+     * Tests whether this set contains a given value. The method never
+     * modifies this set.
+     *
+     * @param entry  The value to locate
+     * @return  true if this set contains entry; false if not
+     */
+    public boolean contains(long entry) {
+        return findSlot(entry) >= 0;
+    }
+
+    /**
+     * Retrieves all entries that are in this set, in a newly-allocated array
+     * whose length equals the number of entries.
+     *
+     * @return  A newly-allocated array of all the entries in this set
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(mContents, size);
+    }
+
+    /**
+     * Computes the hash the index uses for a value. The two halves of the
+     * value are folded together so that keys differing only in their high
+     * bits still spread out.
+     */
+    private static int hash(long key) {
+        return (int) (key ^ (key >>> 32));
+    }
+
+    /**
+     * Probes the index for a value.
+     *
+     * @param key The value to find
+     * @return The slot referencing key, or the bitwise complement of the empty
+     * slot where it would be inserted if it is not in this set
+     */
+    private int findSlot(long key) {
+        for (int slot = mIndex.home(hash(key)); ; slot = mIndex.next(slot)) {
+            int pos = mIndex.position(slot);
+            if (pos < 0) return ~slot;
+            if (mContents[pos] == key) return slot;
+        }
+    }
+
+    /**
+     * Removes the entry referenced by the given index slot, moving the last
+     * entry of mContents into the gap.
+     *
+     * @param slot An occupied slot in mIndex
+     * @return The removed value
+     */
+    private long removeSlot(int slot) {
+        int pos = mIndex.position(slot);
+        long removed = mContents[pos];
+        mIndex.delete(slot, mHashes);
+
+        int last = --size;
+        if (pos != last) {
+            mIndex.move(last, pos, mHashes[last]);
+            mContents[pos] = mContents[last];
+            mHashes[pos] = mHashes[last];
+        }
+
+        return removed;
+    }
+}
@@ -0,0 +1,529 @@
+package cs445.a1;
+
+import java.io.Closeable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.BiFunction;
+import java.util.function.LongConsumer;
+
+/**
+ * A set of 64-bit keys stored outside the Java heap. The keys live directly
+ * in an open-addressed table with linear probing and backward-shift
+ * deletion, split across direct ByteBuffers of at most 128 MiB each, so the
+ * table can grow past 2^31 slots and the garbage collector never has to
+ * trace or copy it. Heap usage stays a few hundred bytes however many keys
+ * the set holds.
+ *
+ * <p> An empty slot is marked by the key 0, so 0 itself is tracked by a
+ * separate flag. The table is kept at most three-quarters full and doubles
+ * when it fills up. While it doubles, the old and new tables both exist, so
+ * memory use briefly peaks at three times the old table; the old table is
+ * freed as soon as its keys have moved.
+ *
+ * <p> The off-heap memory is not managed by the garbage collector, so a set
+ * should be closed when it is no longer needed, which frees its table at
+ * once. A closed set is empty, and throws IllegalStateException on every
+ * operation that reads or changes its keys. If the running JDK offers no
+ * way to free direct memory explicitly, closing leaves the memory to be
+ * reclaimed when the buffers are garbage collected.
+ *
+ * <p> OffHeapLongSet implements SetInterface&lt;Long&gt; for compatibility,
+ * but the primitive overloads (add(long), contains(long), remove(long),
+ * forEach) avoid boxing and should be preferred for large sets.
+ */
+public class OffHeapLongSet implements SetInterface<Long>, Closeable {
+
+    private static final int DEFAULT_SIZE = 16;
+
+    /** Each chunk holds 2^24 slots of 8 bytes, or 128 MiB */
+    private static final int CHUNK_SHIFT = 24;
+    private static final int CHUNK_SLOTS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SLOTS - 1;
+
+    /** Fibonacci hashing multiplier, 2^64 divided by the golden ratio */
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Frees the memory of a direct buffer immediately, or null if the JDK
+     * does not allow it
+     */
+    private static final MethodHandle FREE = findFree();
+
+    /** The table, or null once this set is closed */
+    private ByteBuffer[] chunks;
+
+    /** The number of slots, always a power of two */
+    private long slots;
+    private int shift;
+
+    /** Number of nonzero keys in the table */
+    private long used;
+    private boolean hasZero;
+
+    /**
+     * Every slot below this one is empty, so remove() can resume scanning
+     * here instead of starting over at slot 0.
+     */
+    private long cursor;
+
+    public OffHeapLongSet() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a set with room for an expected number of keys before it has
+     * to grow.
+     *
+     * @param cap the number of keys to size the table for
+     */
+    public OffHeapLongSet(long cap) {
+        allocate(tableSize(cap));
+    }
+
+    /**
+     * Determines the current number of entries in this set, saturating at
+     * Integer.MAX_VALUE. Use getLongSize for sets that may be larger.
+     *
+     * @return  The integer number of entries currently in this set
+     */
+    @Override
+    public int getSize() {
+        return (int) Math.min(getLongSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Determines the current number of entries in this set.
+     *
+     * @return  The number of entries currently in this set
+     */
+    public long getLongSize() {
+        return used + (hasZero ? 1 : 0);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return used == 0 && !hasZero;
+    }
+
+    /**
+     * Adds a new entry to this set, avoiding duplicates. This set resizes as
+     * needed, so it never runs out of capacity.
+     *
+     * @param newEntry  The value to be added as a new entry
+     * @return  true if the addition is successful; false if the value already
+     * is in this set
+     */
+    public boolean add(long newEntry) {
+        ensureOpen();
+        if (newEntry == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            return true;
+        }
+
+        long slot = findSlot(newEntry);
+        if (slot >= 0) return false;
+
+        slot = ~slot;
+        put(slot, newEntry);
+        if (slot < cursor) cursor = slot;
+        if (++used > slots - (slots >>> 2)) rehash(slots * 2);
+        return true;
+    }
+
+    @Override
+    public boolean add(Long newEntry) throws NullPointerException {
+        return add(newEntry.longValue());
+    }
+
+    /**
+     * Removes a specific entry from this set, if possible.
+     *
+     * @param entry  The value to be removed
+     * @return  true if the value was removed; false if it was not in this set
+     */
+    public boolean remove(long entry) {
+        ensureOpen();
+        if (entry == 0) {
+            boolean had = hasZero;
+            hasZero = false;
+            return had;
+        }
+
+        long slot = findSlot(entry);
+        if (slot < 0) return false;
+
+        deleteSlot(slot);
+        used--;
+        return true;
+    }
+
+    @Override
+    public Long remove(Long entry) throws NullPointerException {
+        return remove(entry.longValue()) ? entry : null;
+    }
+
+    /**
+     * Removes an arbitrary entry from this set, if possible. Repeated calls
+     * scan the table once in total rather than once per call.
+     *
+     * @return  The removed entry if the removal was successful; null otherwise
+     */
+    @Override
+    public Long remove() {
+        ensureOpen();
+        if (hasZero) {
+            hasZero = false;
+            return 0L;
+        }
+        if (used == 0) return null;
+
+        while (get(cursor) == 0) {
+            cursor++;
+        }
+        long removed = get(cursor);
+        deleteSlot(cursor);
+        used--;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        ensureOpen();
+        for (int c = 0; c < chunks.length; c++) {
+            ByteBuffer chunk = chunks[c];
+            for (int off = 0; off < chunk.capacity(); off += 8) {
+                chunk.putLong(off, 0);
+            }
+        }
+        used = 0;
+        hasZero = false;
+        cursor = 0;
+    }
+
+    /**
+     * Tests whether this set contains a given value. The method never
+     * modifies this set.
+     *
+     * @param entry  The value to locate
+     * @return  true if this set contains entry; false if not
+     */
+    public boolean contains(long entry) {
+        ensureOpen();
+        if (entry == 0) return hasZero;
+        return findSlot(entry) >= 0;
+    }
+
+    @Override
+    public boolean contains(Long entry) throws NullPointerException {
+        return contains(entry.longValue());
+    }
+
+    @Override
+    public Long merge(Long entry, BiFunction<? super Long, ? super Long,
+            ? extends Long> remapping) throws NullPointerException {
+        if (remapping == null) throw new NullPointerException();
+
+        if (add(entry.longValue())) return entry;
+        return update(entry, remapping.apply(entry, entry));
+    }
+
+    @Override
+    public Long computeIfPresent(Long entry, BiFunction<? super Long,
+            ? super Long, ? extends Long> remapping)
+            throws NullPointerException {
+        if (remapping == null) throw new NullPointerException();
+
+        if (!contains(entry.longValue())) return null;
+        return update(entry, remapping.apply(entry, entry));
+    }
+
+    /**
+     * Replaces an entry with an equal one. Since equal longs are
+     * indistinguishable, this only reports whether the entry is present.
+     *
+     * @param entry  The entry to replace
+     * @return  The entry if it was in this set; null otherwise
+     * @throws NullPointerException  If entry is null
+     */
+    @Override
+    public Long replace(Long entry) throws NullPointerException {
+        return contains(entry.longValue()) ? entry : null;
+    }
+
+    /**
+     * Retrieves all entries that are in this set, boxed. Prefer forEach for
+     * large sets.
+     *
+     * @return  A newly-allocated array of all the entries in this set
+     * @throws IllegalStateException  If this set holds too many entries to
+     * fit in an array
+     */
+    @Override
+    public Object[] toArray() throws IllegalStateException {
+        long size = getLongSize();
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many entries for an array");
+        }
+
+        Object[] result = new Object[(int) size];
+        int[] i = new int[1];
+        forEach(key -> result[i[0]++] = key);
+        return result;
+    }
+
+    /**
+     * Creates a new OffHeapLongSet holding every entry that is in this set,
+     * another set, or both. The result has its own off-heap table, which
+     * the caller must close.
+     *
+     * @param other  The set to combine with this one
+     * @return  A new OffHeapLongSet containing the union of both sets
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public OffHeapLongSet union(SetInterface<? extends Long> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+        ensureOpen();
+
+        OffHeapLongSet result = new OffHeapLongSet(
+                getLongSize() + other.getSize());
+        forEach(result::add);
+        Object[] theirs = other.toArray();
+        for (int i = 0; i < theirs.length; i++) {
+            result.add((Long) theirs[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a new OffHeapLongSet holding every entry that is in both this
+     * set and another set. The result has its own off-heap table, which the
+     * caller must close.
+     *
+     * @param other  The set to intersect with this one
+     * @return  A new OffHeapLongSet containing the intersection of both sets
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public OffHeapLongSet intersection(SetInterface<Long> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+        ensureOpen();
+
+        OffHeapLongSet result = new OffHeapLongSet(
+                Math.min(getLongSize(), other.getSize()));
+        forEach(key -> {
+            if (other.contains(key)) result.add(key);
+        });
+        return result;
+    }
+
+    /**
+     * Passes every entry of this set to an action, without boxing. The set
+     * must not be modified while this runs.
+     *
+     * @param action the action to perform on each entry
+     * @throws NullPointerException if action is null
+     */
+    public void forEach(LongConsumer action) throws NullPointerException {
+        if (action == null) throw new NullPointerException();
+        ensureOpen();
+
+        if (hasZero) action.accept(0);
+        for (int c = 0; c < chunks.length; c++) {
+            ByteBuffer chunk = chunks[c];
+            for (int off = 0; off < chunk.capacity(); off += 8) {
+                long key = chunk.getLong(off);
+                if (key != 0) action.accept(key);
+            }
+        }
+    }
+
+    /**
+     * Frees the off-heap table. Closing a set that is already closed has no
+     * effect.
+     */
+    @Override
+    public void close() {
+        if (chunks == null) return;
+
+        ByteBuffer[] old = chunks;
+        chunks = null;
+        used = 0;
+        hasZero = false;
+        free(old);
+    }
+
+    /**
+     * Stores the result of a remapping function for an entry known to be
+     * present, or removes the entry if the result is null.
+     */
+    private Long update(Long entry, Long result) {
+        if (result == null) {
+            remove(entry.longValue());
+            return null;
+        }
+        if (result.longValue() != entry.longValue()) {
+            throw new IllegalArgumentException("Remapped entry is not equal");
+        }
+        return result;
+    }
+
+    private long get(long slot) {
+        return chunks[(int) (slot >>> CHUNK_SHIFT)]
+                .getLong(((int) slot & CHUNK_MASK) << 3);
+    }
+
+    private void put(long slot, long key) {
+        chunks[(int) (slot >>> CHUNK_SHIFT)]
+                .putLong(((int) slot & CHUNK_MASK) << 3, key);
+    }
+
+    /**
+     * Computes the slot a nonzero key would occupy if there were no
+     * collisions.
+     */
+    private long homeSlot(long key) {
+        return (key * GOLDEN) >>> shift;
+    }
+
+    /**
+     * Probes the table for a nonzero key.
+     *
+     * @param key The key to find
+     * @return The slot holding key, or the bitwise complement of the empty
+     * slot where it would be inserted if it is not in this set
+     */
+    private long findSlot(long key) {
+        long mask = slots - 1;
+        long slot = homeSlot(key);
+        while (true) {
+            long k = get(slot);
+            if (k == 0) return ~slot;
+            if (k == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Empties a slot using backward-shift deletion, so lookups never need
+     * tombstones.
+     *
+     * @param hole The slot to empty
+     */
+    private void deleteSlot(long hole) {
+        long mask = slots - 1;
+        long slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long k = get(slot);
+            if (k == 0) break;
+
+            long home = homeSlot(k);
+            // the key can stay if its home lies cyclically in (hole, slot]
+            boolean reachable = hole <= slot
+                    ? hole < home && home <= slot
+                    : hole < home || home <= slot;
+            if (!reachable) {
+                put(hole, k);
+                hole = slot;
+            }
+        }
+        put(hole, 0);
+    }
+
+    /**
+     * Computes the number of slots needed to hold cap keys below the
+     * maximum load factor.
+     */
+    private static long tableSize(long cap) {
+        long needed = Math.max(cap, DEFAULT_SIZE) * 4 / 3 + 1;
+        return Long.highestOneBit(needed - 1) << 1;
+    }
+
+    /**
+     * Allocates an empty table with the given number of slots, which must
+     * be a power of two.
+     */
+    private void allocate(long length) {
+        int chunkSlots = (int) Math.min(length, CHUNK_SLOTS);
+        int count = (int) (length / chunkSlots);
+
+        chunks = new ByteBuffer[count];
+        for (int c = 0; c < count; c++) {
+            chunks[c] = ByteBuffer.allocateDirect(chunkSlots << 3)
+                    .order(ByteOrder.nativeOrder());
+        }
+        slots = length;
+        shift = Long.numberOfLeadingZeros(length) + 1;
+        cursor = 0;
+    }
+
+    /**
+     * Moves every key into a new table with the given number of slots.
+     */
+    private void rehash(long length) {
+        ByteBuffer[] old = chunks;
+        allocate(length);
+
+        long mask = length - 1;
+        for (int c = 0; c < old.length; c++) {
+            ByteBuffer chunk = old[c];
+            for (int off = 0; off < chunk.capacity(); off += 8) {
+                long key = chunk.getLong(off);
+                if (key == 0) continue;
+
+                long slot = homeSlot(key);
+                while (get(slot) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                put(slot, key);
+            }
+        }
+        free(old);
+    }
+
+    private void ensureOpen() throws IllegalStateException {
+        if (chunks == null) throw new IllegalStateException("Set is closed");
+    }
+
+    /**
+     * Frees the memory of buffers that will not be used again, if the JDK
+     * allows it; otherwise they are left to the garbage collector.
+     */
+    private static void free(ByteBuffer[] buffers) {
+        if (FREE == null) return;
+
+        for (int i = 0; i < buffers.length; i++) {
+            try {
+                FREE.invokeExact(buffers[i]);
+            } catch (Throwable e) {
+                // left to the garbage collector
+            }
+        }
+    }
+
+    /**
+     * Looks up sun.misc.Unsafe.invokeCleaner, the only way to free a direct
+     * buffer before it is garbage collected.
+     */
+    private static MethodHandle findFree() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return MethodHandles.lookup().findVirtual(unsafeClass,
+                    "invokeCleaner",
+                    MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
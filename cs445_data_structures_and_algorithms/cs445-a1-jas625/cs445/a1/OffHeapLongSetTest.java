@@ -0,0 +1,99 @@
+package cs445.a1;
+
+import java.util.Random;
+
+/**
+ * Checks OffHeapLongSet against java.util.HashSet, including the key 0,
+ * growth across many rehashes and closing. Run it with
+ * java -XX:MaxDirectMemorySize=64m cs445.a1.OffHeapLongSetTest to also check
+ * that closed sets give their memory back; it throws AssertionError at the
+ * first check that fails.
+ */
+public class OffHeapLongSetTest {
+
+    public static void main(String[] args) {
+        matchesReference();
+        growsAndDrains();
+        closeFreesMemory();
+        System.out.println("All OffHeapLongSet tests passed");
+    }
+
+    private static void matchesReference() {
+        Random random = new Random(16);
+        for (int round = 0; round < 100; round++) {
+            try (OffHeapLongSet set = new OffHeapLongSet()) {
+                java.util.HashSet<Long> ref = new java.util.HashSet<>();
+                int range = 1 + random.nextInt(5000);
+                for (int i = 0; i < 10000; i++) {
+                    // small keys around 0, and some far apart
+                    long key = random.nextInt(range) - range / 2;
+                    if (random.nextInt(8) == 0) key *= 1L << 40;
+
+                    switch (random.nextInt(4)) {
+                    case 0:
+                    case 1:
+                        check(set.add(key) == ref.add(key), "add " + key);
+                        break;
+                    case 2:
+                        check(set.remove(key) == ref.remove(key),
+                                "remove " + key);
+                        break;
+                    default:
+                        check(set.contains(key) == ref.contains(key),
+                                "contains " + key);
+                    }
+                    check(set.getLongSize() == ref.size(), "size");
+                }
+
+                java.util.HashSet<Long> seen = new java.util.HashSet<>();
+                set.forEach(key -> check(seen.add(key), "forEach twice"));
+                check(seen.equals(ref), "forEach contents");
+            }
+        }
+    }
+
+    private static void growsAndDrains() {
+        try (OffHeapLongSet set = new OffHeapLongSet()) {
+            int n = 1 << 20;
+            for (long key = 0; key < n; key++) {
+                check(set.add(key * 0x9E3779B97F4A7C15L), "add " + key);
+            }
+            check(set.getLongSize() == n, "size after growth");
+            for (long key = 0; key < n; key++) {
+                check(set.contains(key * 0x9E3779B97F4A7C15L),
+                        "lost " + key);
+            }
+
+            long count = 0;
+            while (set.remove() != null) {
+                count++;
+            }
+            check(count == n && set.isEmpty(), "remove() drained " + count);
+        }
+    }
+
+    private static void closeFreesMemory() {
+        OffHeapLongSet set = new OffHeapLongSet();
+        set.add(1);
+        set.close();
+        set.close();
+        check(set.isEmpty(), "closed set not empty");
+        try {
+            set.contains(1);
+            throw new AssertionError("closed set still usable");
+        } catch (IllegalStateException expected) {
+            // closed
+        }
+
+        // 64 tables of 32 MiB only fit if each is freed on close
+        for (int i = 0; i < 64; i++) {
+            try (OffHeapLongSet big = new OffHeapLongSet(3000000)) {
+                big.add(i + 1);
+            }
+        }
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) throw new AssertionError(what);
+    }
+}
@@ -0,0 +1,414 @@
+package cs445.a1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * A GroceriesInterface implementation that survives restarts. The groceries
+ * are held in memory in a Groceries, and every change is first appended to
+ * a write-ahead log in a memory-mapped file, so a write costs one
+ * sequential append to memory. Once the log grows past a threshold, the
+ * current state is written to a checkpoint file (in the format of
+ * Groceries.writeTo) and the log starts over. Opening the store reads the
+ * checkpoint and replays only the changes logged since it was taken.
+ *
+ * <p> Both files carry a generation number that increases with every
+ * checkpoint, and each log record is checksummed together with the
+ * generation. Replay stops at the first record that is incomplete or left
+ * over from an earlier generation, so a crash in the middle of an append or
+ * a checkpoint never replays anything twice or applies a torn record.
+ * Whatever follows the last valid record is cleared once it is found.
+ *
+ * <p> Appended records reach the operating system immediately, so they
+ * survive the process crashing. To also survive the machine crashing, call
+ * sync. Changes are checked before they are logged: descriptions containing
+ * line breaks cannot be checkpointed, and additions that would overflow a
+ * quantity cannot be applied, so both are rejected before anything is
+ * logged. Should the log hold a change that cannot be applied anyway,
+ * replay skips it. This class is not
+ * thread-safe, and a directory must not be opened by more than one store at
+ * a time.
+ */
+public class PersistentGroceries implements GroceriesInterface, Closeable {
+
+    /** Log bytes at which a checkpoint is taken, unless told otherwise */
+    public static final long DEFAULT_CHECKPOINT_BYTES = 64L << 20;
+
+    private static final long MAGIC = 0x47524F434C4F4731L;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER = 8;
+    private static final int INITIAL_LOG_SIZE = 1 << 20;
+
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final byte MODIFY = 3;
+
+    private final Path dir;
+    private final Path checkpointFile;
+    private final Path tempFile;
+    private final long checkpointBytes;
+    private final FileChannel channel;
+    private final CRC32C crc = new CRC32C();
+
+    /** The generation number as 8 bytes, fed into every checksum */
+    private final ByteBuffer generationBytes = ByteBuffer.allocate(8);
+
+    private Groceries groceries;
+    private MappedByteBuffer log;
+    private long generation;
+
+    /** Offset in the log where the next record goes */
+    private int position;
+
+    /**
+     * Opens the store in a directory, creating it if needed, with the
+     * default checkpoint threshold.
+     *
+     * @param dir the directory holding the checkpoint and log files
+     * @throws IOException if the files cannot be read or created
+     */
+    public PersistentGroceries(Path dir) throws IOException {
+        this(dir, DEFAULT_CHECKPOINT_BYTES);
+    }
+
+    /**
+     * Opens the store in a directory, creating it if needed.
+     *
+     * @param dir the directory holding the checkpoint and log files
+     * @param checkpointBytes the log size, in bytes, at which a checkpoint
+     * is taken; at most 1 GiB
+     * @throws IOException if the files cannot be read or created
+     * @throws IllegalArgumentException if checkpointBytes is out of range
+     */
+    public PersistentGroceries(Path dir, long checkpointBytes)
+            throws IOException, IllegalArgumentException {
+        if (checkpointBytes < 1 || checkpointBytes > 1L << 30) {
+            throw new IllegalArgumentException("checkpointBytes out of range");
+        }
+
+        Files.createDirectories(dir);
+        this.dir = dir;
+        this.checkpointFile = dir.resolve("groceries.checkpoint");
+        this.tempFile = dir.resolve("groceries.checkpoint.tmp");
+        this.checkpointBytes = checkpointBytes;
+
+        groceries = new Groceries();
+        generation = readCheckpoint();
+        setGeneration(generation);
+
+        channel = FileChannel.open(dir.resolve("groceries.log"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        log = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                Math.max(channel.size(), INITIAL_LOG_SIZE));
+
+        if (log.getLong(0) == MAGIC && log.getLong(8) == generation) {
+            replay();
+        } else {
+            // a new log, or one whose records are all in the checkpoint
+            resetLog();
+        }
+    }
+
+    /**
+     * Adds item to these groceries, logging the change first.
+     *
+     * @param item the item to add
+     * @throws IllegalArgumentException if the item's description contains a
+     * line break, or its new quantity would exceed Integer.MAX_VALUE
+     */
+    @Override
+    public void addItem(GroceryItem item) throws IllegalArgumentException {
+        if (item == null) return;
+
+        checkDescription(item);
+        // a change that cannot be applied must never reach the log
+        if (groceries.getQuantity(item.getDescription())
+                > Integer.MAX_VALUE - item.getQuantity()) {
+            throw new IllegalArgumentException("Quantity overflows int");
+        }
+        append(ADD, item);
+        groceries.addItem(item);
+    }
+
+    /**
+     * Removes item from these groceries, logging the change first.
+     *
+     * @param item the item to remove
+     * @throws IllegalArgumentException if the item's description contains a
+     * line break
+     */
+    @Override
+    public void removeItem(GroceryItem item) throws IllegalArgumentException {
+        checkDescription(item);
+        append(REMOVE, item);
+        groceries.removeItem(item);
+    }
+
+    /**
+     * Modifies an item's quantity within these groceries, logging the change
+     * first.
+     *
+     * @param item the item to modify
+     * @return  the old quantity, or -1 if the item was not found
+     * @throws IllegalArgumentException if the item's description contains a
+     * line break
+     */
+    @Override
+    public int modifyQuantity(GroceryItem item)
+            throws IllegalArgumentException {
+        if (item == null) throw new NullPointerException();
+
+        checkDescription(item);
+        append(MODIFY, item);
+        return groceries.modifyQuantity(item);
+    }
+
+    @Override
+    public void printAll() {
+        groceries.printAll();
+    }
+
+    /**
+     * Writes the current state to the checkpoint file and empties the log.
+     * This happens automatically whenever the log outgrows its threshold.
+     * The checkpoint file and the directory entry that names it are both
+     * forced to the storage device before the log is emptied.
+     *
+     * @throws IOException if the checkpoint cannot be written or the
+     * directory cannot be forced; the log is left as it was
+     */
+    public void checkpoint() throws IOException {
+        long next = generation + 1;
+        try (FileChannel out = FileChannel.open(tempFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.wrap(("generation " + next + "\n")
+                    .getBytes(StandardCharsets.UTF_8)));
+            groceries.writeTo(out);
+            out.force(true);
+        }
+        Files.move(tempFile, checkpointFile, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+
+        // the rename lives in the directory, so it is only durable once the
+        // directory is forced; otherwise a crash could keep the reset log
+        // below but lose the new checkpoint, and the log would be discarded
+        // as stale on the next open
+        try (FileChannel directory = FileChannel.open(dir,
+                StandardOpenOption.READ)) {
+            directory.force(true);
+        }
+
+        // from here on the old log is covered by the checkpoint, even if we
+        // crash before the log is reset
+        setGeneration(next);
+        resetLog();
+    }
+
+    /**
+     * Forces every logged change out to the storage device.
+     */
+    public void sync() {
+        log.force();
+    }
+
+    /**
+     * Takes a final checkpoint, so the next open has nothing to replay, and
+     * closes the log.
+     *
+     * @throws IOException if the checkpoint cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            checkpoint();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Loads the checkpoint file, if there is one, into groceries.
+     *
+     * @return the checkpoint's generation, or 0 if there is none
+     */
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) return 0;
+
+        try (FileChannel in = FileChannel.open(checkpointFile)) {
+            // the header is short and ASCII, so read it a byte at a time and
+            // leave the channel positioned at the first item
+            StringBuilder header = new StringBuilder();
+            ByteBuffer b = ByteBuffer.allocate(1);
+            while (in.read(b) == 1 && b.get(0) != '\n') {
+                header.append((char) b.get(0));
+                b.clear();
+            }
+
+            String prefix = "generation ";
+            if (header.indexOf(prefix) != 0) {
+                throw new IOException("Malformed checkpoint header: " + header);
+            }
+            long gen;
+            try {
+                gen = Long.parseLong(header.substring(prefix.length()));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed checkpoint header: " + header);
+            }
+
+            groceries.readFrom(in);
+            return gen;
+        }
+    }
+
+    /**
+     * Applies every valid record of the current generation in the log,
+     * skipping any whose change is rejected, positions the log after the
+     * last one and clears what follows.
+     */
+    private void replay() {
+        int pos = HEADER_SIZE;
+        int limit = log.capacity();
+        while (pos + RECORD_HEADER <= limit) {
+            int length = log.getInt(pos);
+            if (length < 5 || length > limit - pos - RECORD_HEADER) break;
+
+            ByteBuffer payload = log.slice(pos + RECORD_HEADER, length);
+            if (checksum(payload) != log.getInt(pos + 4)) break;
+
+            byte op = payload.get(0);
+            if (op != ADD && op != REMOVE && op != MODIFY) break;
+            pos += RECORD_HEADER + length;
+
+            int qty = payload.getInt(1);
+            byte[] bytes = new byte[length - 5];
+            payload.get(5, bytes);
+            try {
+                GroceryItem item = new GroceryItem(
+                        new String(bytes, StandardCharsets.UTF_8), qty);
+                if (op == ADD) {
+                    groceries.addItem(item);
+                } else if (op == REMOVE) {
+                    groceries.removeItem(item);
+                } else {
+                    groceries.modifyQuantity(item);
+                }
+            } catch (IllegalArgumentException e) {
+                // the change was rejected when it was made as well, so it
+                // never happened; skip it rather than fail every open
+            }
+        }
+        position = pos;
+        clearTail();
+    }
+
+    /**
+     * Zeroes the log after the last valid record. Records of this
+     * generation may lie beyond a torn one (pages of the mapping can reach
+     * the disk in any order), and a later append could end exactly where
+     * one of them starts and bring it back on the next replay. Only words
+     * that are not already zero are written, so a clean tail is just read.
+     */
+    private void clearTail() {
+        int end = log.capacity();
+        int pos = position;
+        for (; pos < end && (pos & 7) != 0; pos++) {
+            if (log.get(pos) != 0) log.put(pos, (byte) 0);
+        }
+        for (; pos + 8 <= end; pos += 8) {
+            if (log.getLong(pos) != 0) log.putLong(pos, 0);
+        }
+        for (; pos < end; pos++) {
+            if (log.get(pos) != 0) log.put(pos, (byte) 0);
+        }
+        log.force();
+    }
+
+    /**
+     * Rejects descriptions that would break the line format of the
+     * checkpoint. Logging one would make every later open fail once it was
+     * checkpointed.
+     */
+    private static void checkDescription(GroceryItem item)
+            throws IllegalArgumentException {
+        String desc = item.getDescription();
+        if (desc.indexOf('\n') >= 0 || desc.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException(
+                    "Description contains a line break");
+        }
+    }
+
+    /**
+     * Appends a record to the log, taking a checkpoint first if the log has
+     * grown past its threshold.
+     */
+    private void append(byte op, GroceryItem item) {
+        byte[] desc = item.getDescription().getBytes(StandardCharsets.UTF_8);
+        int length = 5 + desc.length;
+        try {
+            if (position > checkpointBytes) checkpoint();
+            ensureCapacity(position + RECORD_HEADER + length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int start = position + RECORD_HEADER;
+        log.put(start, op);
+        log.putInt(start + 1, item.getQuantity());
+        log.put(start + 5, desc);
+        log.putInt(position + 4, checksum(log.slice(start, length)));
+        log.putInt(position, length);
+        position = start + length;
+    }
+
+    /**
+     * Remaps the log with at least the given size, doubling it if needed.
+     */
+    private void ensureCapacity(long size) throws IOException {
+        if (size <= log.capacity()) return;
+
+        long newSize = Math.max((long) log.capacity() * 2, size);
+        if (newSize > Integer.MAX_VALUE) {
+            throw new IOException("Log record too large");
+        }
+        log = channel.map(FileChannel.MapMode.READ_WRITE, 0, newSize);
+    }
+
+    /**
+     * Starts the log over at the current generation. Records left over from
+     * older generations fail their checksum, so they need not be erased.
+     */
+    private void resetLog() {
+        log.putLong(0, MAGIC);
+        log.putLong(8, generation);
+        position = HEADER_SIZE;
+        log.force();
+    }
+
+    private void setGeneration(long gen) {
+        generation = gen;
+        generationBytes.putLong(0, gen);
+    }
+
+    /**
+     * Computes the checksum of a record's payload in the current
+     * generation.
+     */
+    private int checksum(ByteBuffer payload) {
+        crc.reset();
+        crc.update(generationBytes.duplicate());
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+}
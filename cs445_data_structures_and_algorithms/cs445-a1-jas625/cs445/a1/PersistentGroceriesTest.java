@@ -0,0 +1,358 @@
+package cs445.a1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Checks that PersistentGroceries recovers exactly the changes it logged:
+ * after a clean close, after the process is abandoned with changes only in
+ * the log, across automatic checkpoints, after a crash in the middle of a
+ * checkpoint, with a torn record at the end or in the middle of the log,
+ * and with changes that cannot be applied. Every store is checked against a
+ * plain Groceries that saw the same changes. Run it with
+ * java cs445.a1.PersistentGroceriesTest; it throws AssertionError at the
+ * first check that fails.
+ */
+public class PersistentGroceriesTest {
+
+    private static final String[] NAMES = {
+        "Milk", "Eggs", "Bread", "Apples", "Brie", "Jalape\u00f1o", "Tea",
+        "Rice",
+    };
+
+    private static final Random RANDOM = new Random(20);
+
+    public static void main(String[] args) throws IOException {
+        Path root = Files.createTempDirectory("groceries");
+        try {
+            reopensAfterClose(root.resolve("close"));
+            replaysAfterCrash(root.resolve("crash"));
+            replaysAcrossCheckpoints(root.resolve("checkpoints"));
+            survivesCrashDuringCheckpoint(root.resolve("midcheckpoint"));
+            stopsAtTornRecord(root.resolve("torn"));
+            forgetsRecordsAfterTear(root.resolve("tear"));
+            skipsRejectedChanges(root.resolve("rejected"));
+            rejectsLineBreaks(root.resolve("newline"));
+        } finally {
+            delete(root);
+        }
+        System.out.println("All PersistentGroceries tests passed");
+    }
+
+    private static void reopensAfterClose(Path dir) throws IOException {
+        Groceries ref = new Groceries();
+        for (int round = 0; round < 5; round++) {
+            try (PersistentGroceries store = new PersistentGroceries(dir)) {
+                randomChanges(store, ref, 500);
+            }
+            check(contents(dir).equals(lines(ref)), "round " + round);
+        }
+    }
+
+    /**
+     * The store is dropped without close, so everything since it was opened
+     * is only in the log.
+     */
+    private static void replaysAfterCrash(Path dir) throws IOException {
+        Groceries ref = new Groceries();
+        for (int round = 0; round < 5; round++) {
+            PersistentGroceries store = new PersistentGroceries(dir);
+            randomChanges(store, ref, 500);
+        }
+        check(contents(dir).equals(lines(ref)), "replay after crash");
+    }
+
+    /**
+     * A threshold of a few hundred bytes forces many automatic checkpoints,
+     * and the crash comes after some of them.
+     */
+    private static void replaysAcrossCheckpoints(Path dir) throws IOException {
+        Groceries ref = new Groceries();
+        for (int round = 0; round < 5; round++) {
+            PersistentGroceries store = new PersistentGroceries(dir, 300);
+            randomChanges(store, ref, 1000 + RANDOM.nextInt(100));
+        }
+        check(contents(dir).equals(lines(ref)), "replay across checkpoints");
+    }
+
+    /**
+     * Puts back the log as it was before a checkpoint, as if the process
+     * died after renaming the new checkpoint but before emptying the log.
+     * The old records are all in the checkpoint, so none may be replayed.
+     */
+    private static void survivesCrashDuringCheckpoint(Path dir)
+            throws IOException {
+        Groceries ref = new Groceries();
+        PersistentGroceries store = new PersistentGroceries(dir);
+        randomChanges(store, ref, 500);
+
+        Path logFile = dir.resolve("groceries.log");
+        byte[] before = Files.readAllBytes(logFile);
+        store.checkpoint();
+        try (FileChannel log = FileChannel.open(logFile,
+                StandardOpenOption.WRITE)) {
+            log.write(ByteBuffer.wrap(before), 0);
+        }
+
+        check(contents(dir).equals(lines(ref)), "replayed covered records");
+    }
+
+    /**
+     * Damages the last record in the log. Replay must apply everything
+     * before it and nothing after.
+     */
+    private static void stopsAtTornRecord(Path dir) throws IOException {
+        List<GroceryItem> items = new ArrayList<>();
+        PersistentGroceries store = new PersistentGroceries(dir);
+        for (int i = 0; i < 300; i++) {
+            GroceryItem item = randomItem();
+            store.addItem(item);
+            items.add(item);
+        }
+
+        try (FileChannel log = openLog(dir)) {
+            List<Long> records = records(log);
+            check(records.size() == 301, "records in the log");
+            // the last byte of the description, as if half written
+            damage(log, records.get(300) - 1);
+        }
+
+        Groceries ref = new Groceries();
+        for (GroceryItem item : items.subList(0, items.size() - 1)) {
+            ref.addItem(item);
+        }
+        check(contents(dir).equals(lines(ref)), "applied a torn record");
+
+        // the reopened store appends over the torn record
+        ref.addItem(new GroceryItem("Milk", 1));
+        try (PersistentGroceries again = new PersistentGroceries(dir)) {
+            again.addItem(new GroceryItem("Milk", 1));
+        }
+        check(contents(dir).equals(lines(ref)), "append after torn record");
+    }
+
+    /**
+     * Damages a record in the middle of the log, as if the pages after it
+     * reached the disk but its own did not. The records after it are of the
+     * current generation and intact, so the store must forget them before
+     * appending: here the next append ends exactly where one of them starts.
+     */
+    private static void forgetsRecordsAfterTear(Path dir) throws IOException {
+        PersistentGroceries store = new PersistentGroceries(dir);
+        for (int i = 0; i < 100; i++) {
+            store.addItem(new GroceryItem("Milk", 1));
+        }
+        try (FileChannel log = openLog(dir)) {
+            damage(log, records(log).get(50) + 8);
+        }
+
+        // "Eggs" logs a record as long as "Milk" does
+        PersistentGroceries again = new PersistentGroceries(dir);
+        again.addItem(new GroceryItem("Eggs", 1));
+
+        Groceries ref = new Groceries();
+        ref.addItem(new GroceryItem("Milk", 50));
+        ref.addItem(new GroceryItem("Eggs", 1));
+        check(contents(dir).equals(lines(ref)),
+                "records after a tear came back");
+    }
+
+    /**
+     * An addition that would overflow a quantity is rejected before it is
+     * logged, so the store still opens after a crash. A log that holds such
+     * a record anyway (written here by hand) is replayed without it.
+     */
+    private static void skipsRejectedChanges(Path dir) throws IOException {
+        Groceries ref = new Groceries();
+        ref.addItem(new GroceryItem("Milk", Integer.MAX_VALUE));
+        ref.addItem(new GroceryItem("Eggs", 2));
+
+        PersistentGroceries store = new PersistentGroceries(dir.resolve("a"));
+        store.addItem(new GroceryItem("Milk", Integer.MAX_VALUE));
+        try {
+            store.addItem(new GroceryItem("Milk", 1));
+            throw new AssertionError("overflowing addition accepted");
+        } catch (IllegalArgumentException expected) {
+            // rejected before logging
+        }
+        store.addItem(new GroceryItem("Eggs", 2));
+        try (FileChannel log = openLog(dir.resolve("a"))) {
+            check(records(log).size() == 3, "rejected addition was logged");
+        }
+        check(contents(dir.resolve("a")).equals(lines(ref)),
+                "reopen after a rejected addition");
+
+        // a new directory has no checkpoint, so its log is generation 0
+        store = new PersistentGroceries(dir.resolve("b"));
+        store.addItem(new GroceryItem("Milk", Integer.MAX_VALUE));
+        try (FileChannel log = openLog(dir.resolve("b"))) {
+            List<Long> records = records(log);
+            long pos = records.get(records.size() - 1);
+            pos = writeRecord(log, pos, 0, new GroceryItem("Milk", 1));
+            writeRecord(log, pos, 0, new GroceryItem("Eggs", 2));
+        }
+        check(contents(dir.resolve("b")).equals(lines(ref)),
+                "replay of a rejected record");
+    }
+
+    private static void rejectsLineBreaks(Path dir) throws IOException {
+        Groceries ref = new Groceries();
+        PersistentGroceries store = new PersistentGroceries(dir);
+        randomChanges(store, ref, 50);
+        for (String bad : new String[] {"Milk\n2 Eggs", "Milk\r", "\n"}) {
+            try {
+                store.addItem(new GroceryItem(bad, 1));
+                throw new AssertionError("added " + bad);
+            } catch (IllegalArgumentException expected) {
+                // rejected before logging
+            }
+            try {
+                store.modifyQuantity(new GroceryItem(bad, 1));
+                throw new AssertionError("modified " + bad);
+            } catch (IllegalArgumentException expected) {
+                // rejected before logging
+            }
+            try {
+                store.removeItem(new GroceryItem(bad, 1));
+                throw new AssertionError("removed " + bad);
+            } catch (IllegalArgumentException expected) {
+                // rejected before logging
+            }
+        }
+        check(contents(dir).equals(lines(ref)), "line break reached the log");
+    }
+
+    /**
+     * Applies the same random changes to a store and a reference.
+     */
+    private static void randomChanges(PersistentGroceries store,
+            Groceries ref, int count) {
+        for (int i = 0; i < count; i++) {
+            GroceryItem item = randomItem();
+            switch (RANDOM.nextInt(4)) {
+            case 0:
+            case 1:
+                store.addItem(item);
+                ref.addItem(item);
+                break;
+            case 2:
+                store.removeItem(item);
+                ref.removeItem(item);
+                break;
+            default:
+                check(store.modifyQuantity(item) == ref.modifyQuantity(item),
+                        "modifyQuantity " + item.getDescription());
+            }
+        }
+    }
+
+    private static GroceryItem randomItem() {
+        return new GroceryItem(NAMES[RANDOM.nextInt(NAMES.length)],
+                1 + RANDOM.nextInt(5));
+    }
+
+    private static FileChannel openLog(Path dir) throws IOException {
+        return FileChannel.open(dir.resolve("groceries.log"),
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Finds the offset of every record in a log, followed by the offset
+     * just past the last one. Records are [length][checksum][payload]
+     * after a 16 byte header, and the log is zero after the last record.
+     */
+    private static List<Long> records(FileChannel log) throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        ByteBuffer length = ByteBuffer.allocate(4);
+        long pos = 16;
+        while (true) {
+            offsets.add(pos);
+            length.clear();
+            log.read(length, pos);
+            if (length.getInt(0) == 0) return offsets;
+            pos += 8 + length.getInt(0);
+        }
+    }
+
+    /**
+     * Writes a valid addition record at pos, checksummed the way
+     * PersistentGroceries does in the given generation.
+     *
+     * @return  the offset just past the record
+     */
+    private static long writeRecord(FileChannel log, long pos, long generation,
+            GroceryItem item) throws IOException {
+        byte[] desc = item.getDescription().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(5 + desc.length);
+        payload.put((byte) 1).putInt(item.getQuantity()).put(desc).flip();
+
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(8).putLong(0, generation));
+        crc.update(payload.duplicate());
+
+        ByteBuffer record = ByteBuffer.allocate(8 + payload.remaining());
+        record.putInt(payload.remaining()).putInt((int) crc.getValue())
+                .put(payload).flip();
+        log.write(record, pos);
+        return pos + record.capacity();
+    }
+
+    /**
+     * Flips some bits of the byte at pos.
+     */
+    private static void damage(FileChannel log, long pos) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(1);
+        log.read(b, pos);
+        b.put(0, (byte) (b.get(0) ^ 0x5A)).rewind();
+        log.write(b, pos);
+    }
+
+    /**
+     * Opens the store in dir and closes it again, then gets the lines of
+     * the resulting checkpoint, without its header, in sorted order.
+     */
+    private static List<String> contents(Path dir) throws IOException {
+        new PersistentGroceries(dir).close();
+        List<String> lines = Files.readAllLines(
+                dir.resolve("groceries.checkpoint"), StandardCharsets.UTF_8);
+        check(lines.get(0).startsWith("generation "), "checkpoint header");
+        lines = new ArrayList<>(lines.subList(1, lines.size()));
+        lines.sort(null);
+        return lines;
+    }
+
+    private static List<String> lines(Groceries groceries) throws IOException {
+        StringBuilder out = new StringBuilder();
+        groceries.writeTo(out);
+        List<String> lines = new ArrayList<>(Arrays.asList(
+                out.toString().split("\n")));
+        lines.removeIf(String::isEmpty);
+        lines.sort(null);
+        return lines;
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path p : (Iterable<Path>) paths.sorted(
+                    Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) throw new AssertionError(what);
+    }
+}
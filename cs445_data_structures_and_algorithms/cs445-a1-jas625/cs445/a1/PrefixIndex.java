@@ -0,0 +1,274 @@
+package cs445.a1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An ordered index of strings that answers prefix queries, implemented as a
+ * ternary search trie. Each node holds one character and three children: lo
+ * and hi for smaller and larger characters at the same position, and eq for
+ * the next position. Every node also counts the keys stored in its subtree,
+ * so a query never wanders into a branch that holds no keys, and removing a
+ * key prunes the nodes that no longer lead anywhere.
+ *
+ * <p> Finding the first k keys with a given prefix, in lexicographic (char
+ * by char) order, costs time proportional to the length of the prefix plus
+ * the total length of the keys returned, however many keys the index holds.
+ * Keys are compared exactly, without case folding. The empty string cannot
+ * be stored. No operation recurses, so keys may be of any length.
+ */
+public class PrefixIndex {
+
+    private Node root;
+
+    /**
+     * Determines the number of keys in this index.
+     *
+     * @return  the number of keys
+     */
+    public int getSize() {
+        return root == null ? 0 : root.count;
+    }
+
+    /**
+     * Determines whether this index is empty.
+     *
+     * @return  true if this index holds no keys; false if not
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Adds a key to this index, if it is not already there.
+     *
+     * @param key the key to add
+     * @return  true if the key was added; false if it was already present
+     * @throws NullPointerException if key is null
+     * @throws IllegalArgumentException if key is empty
+     */
+    public boolean add(String key)
+            throws NullPointerException, IllegalArgumentException {
+        if (key.length() == 0) throw new IllegalArgumentException("Empty key");
+        if (contains(key)) return false;
+
+        insert(key);
+        return true;
+    }
+
+    /**
+     * Removes a key from this index, if it is there.
+     *
+     * @param key the key to remove
+     * @return  true if the key was removed; false if it was not present
+     * @throws NullPointerException if key is null
+     */
+    public boolean remove(String key) throws NullPointerException {
+        if (!contains(key)) return false;
+
+        delete(key);
+        return true;
+    }
+
+    /**
+     * Tests whether this index holds a key.
+     *
+     * @param key the key to look up
+     * @return  true if the key is present; false if not
+     * @throws NullPointerException if key is null
+     */
+    public boolean contains(String key) throws NullPointerException {
+        if (key.length() == 0) return false;
+
+        Node node = find(key);
+        return node != null && node.terminal;
+    }
+
+    /**
+     * Finds the first keys, in lexicographic order, that start with a given
+     * prefix. The empty prefix matches every key.
+     *
+     * @param prefix the prefix to match
+     * @param k the maximum number of keys to return
+     * @return  up to k matching keys, in increasing order
+     * @throws NullPointerException if prefix is null
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<String> startingWith(String prefix, int k)
+            throws NullPointerException, IllegalArgumentException {
+        if (k < 0) throw new IllegalArgumentException("Negative k");
+
+        List<String> result = new ArrayList<>(Math.min(k, getSize()));
+        if (k == 0) return result;
+
+        StringBuilder path = new StringBuilder(prefix);
+        if (prefix.length() == 0) {
+            collect(root, path, result, k);
+            return result;
+        }
+
+        Node node = find(prefix);
+        if (node == null) return result;
+        if (node.terminal) result.add(prefix);
+        collect(node.eq, path, result, k);
+        return result;
+    }
+
+    /**
+     * Removes every key from this index.
+     */
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * Finds the node holding the last character of a non-empty string.
+     */
+    private Node find(String s) {
+        Node node = root;
+        int i = 0;
+        while (node != null) {
+            char c = s.charAt(i);
+            if (c < node.c) {
+                node = node.lo;
+            } else if (c > node.c) {
+                node = node.hi;
+            } else if (++i == s.length()) {
+                return node;
+            } else {
+                node = node.eq;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Inserts a key known to be absent, incrementing the count of every node
+     * on its path.
+     */
+    private void insert(String key) {
+        int i = 0;
+        char c = key.charAt(0);
+        if (root == null) root = new Node(c);
+
+        Node node = root;
+        while (true) {
+            node.count++;
+            if (c < node.c) {
+                if (node.lo == null) node.lo = new Node(c);
+                node = node.lo;
+            } else if (c > node.c) {
+                if (node.hi == null) node.hi = new Node(c);
+                node = node.hi;
+            } else if (++i < key.length()) {
+                c = key.charAt(i);
+                if (node.eq == null) node.eq = new Node(c);
+                node = node.eq;
+            } else {
+                node.terminal = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Deletes a key known to be present, decrementing the count of every
+     * node on its path. The first node whose count reaches zero held only
+     * this key in its subtree, so it is unlinked along with everything below
+     * it.
+     */
+    private void delete(String key) {
+        Node parent = null;
+        Node node = root;
+        int i = 0;
+        while (true) {
+            if (--node.count == 0) {
+                if (parent == null) {
+                    root = null;
+                } else if (parent.lo == node) {
+                    parent.lo = null;
+                } else if (parent.hi == node) {
+                    parent.hi = null;
+                } else {
+                    parent.eq = null;
+                }
+                return;
+            }
+
+            char c = key.charAt(i);
+            parent = node;
+            if (c < node.c) {
+                node = node.lo;
+            } else if (c > node.c) {
+                node = node.hi;
+            } else if (++i < key.length()) {
+                node = node.eq;
+            } else {
+                node.terminal = false;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Appends keys below start to result in order until it holds k keys.
+     * path holds the characters leading to start and is restored before
+     * returning. The trie is walked in order with an explicit stack, so the
+     * length of the keys is not limited by the call stack. Each stack entry
+     * is a node and a tag: the length of the path above the node, shifted
+     * left by one, with the low bit set once the node's lo subtree is done.
+     */
+    private static void collect(Node start, StringBuilder path,
+            List<String> result, int k) {
+        int base = path.length();
+        Node[] nodes = new Node[16];
+        int[] tags = new int[16];
+        int top = 0;
+
+        nodes[top] = start;
+        tags[top++] = base << 1;
+        while (top > 0 && result.size() < k) {
+            Node node = nodes[--top];
+            int tag = tags[top];
+            if (node == null) continue;
+
+            if (top + 3 > nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                tags = Arrays.copyOf(tags, tags.length * 2);
+            }
+            int depth = tag >>> 1;
+            if ((tag & 1) == 0) {
+                // lo first, then the node itself, then hi
+                nodes[top] = node.hi;
+                tags[top++] = depth << 1;
+                nodes[top] = node;
+                tags[top++] = depth << 1 | 1;
+                nodes[top] = node.lo;
+                tags[top++] = depth << 1;
+            } else {
+                path.setLength(depth);
+                path.append(node.c);
+                if (node.terminal) result.add(path.toString());
+                nodes[top] = node.eq;
+                tags[top++] = (depth + 1) << 1;
+            }
+        }
+        path.setLength(base);
+    }
+
+    private static final class Node {
+        final char c;
+        Node lo;
+        Node eq;
+        Node hi;
+        boolean terminal;
+
+        /** Number of keys stored in this node's subtree, including lo and hi */
+        int count;
+
+        Node(char c) {
+            this.c = c;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package cs445.a1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Checks PrefixIndex against a java.util.TreeSet: every prefix query must
+ * return the first k keys of the tree set that start with the prefix, while
+ * keys come and go. Also checks very long keys, which a recursive trie
+ * would overflow the stack on, and the arguments the index rejects. Run it
+ * with java cs445.a1.PrefixIndexTest; it throws AssertionError at the first
+ * check that fails.
+ */
+public class PrefixIndexTest {
+
+    private static final Random RANDOM = new Random(13);
+
+    /** A small alphabet, so that keys share long prefixes */
+    private static final String LETTERS = "abcAB \u00e9\uffff";
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 200; round++) {
+            matchesReference();
+        }
+        holdsLongKeys();
+        rejectsBadArguments();
+        System.out.println("All PrefixIndex tests passed");
+    }
+
+    private static void matchesReference() {
+        PrefixIndex index = new PrefixIndex();
+        TreeSet<String> ref = new TreeSet<>();
+        int maxLength = 1 + RANDOM.nextInt(6);
+
+        for (int i = 0; i < 1000; i++) {
+            String key = randomString(1 + RANDOM.nextInt(maxLength));
+            switch (RANDOM.nextInt(5)) {
+            case 0:
+            case 1:
+                check(index.add(key) == ref.add(key), "add " + key);
+                break;
+            case 2:
+                check(index.remove(key) == ref.remove(key), "remove " + key);
+                break;
+            case 3:
+                check(index.contains(key) == ref.contains(key),
+                        "contains " + key);
+                break;
+            default:
+                String prefix = randomString(RANDOM.nextInt(maxLength + 1));
+                int k = RANDOM.nextInt(20);
+                check(index.startingWith(prefix, k)
+                        .equals(expected(ref, prefix, k)),
+                        "startingWith " + prefix + " " + k);
+            }
+            check(index.getSize() == ref.size(), "size");
+            check(index.isEmpty() == ref.isEmpty(), "isEmpty");
+        }
+
+        check(index.startingWith("", ref.size() + 1)
+                .equals(new ArrayList<>(ref)), "every key in order");
+        index.clear();
+        check(index.isEmpty() && index.startingWith("", 10).isEmpty(),
+                "clear");
+        check(index.add("a") && index.startingWith("a", 1).equals(
+                List.of("a")), "add after clear");
+    }
+
+    /**
+     * Keys a million characters long, which share all but their last
+     * character, are added, found, listed and removed.
+     */
+    private static void holdsLongKeys() {
+        PrefixIndex index = new PrefixIndex();
+        String stem = "x".repeat(1 << 20);
+        check(index.add(stem + "b") && index.add(stem + "a")
+                && index.add(stem), "add long keys");
+        check(index.contains(stem + "a") && !index.contains(stem + "c"),
+                "contains long key");
+        check(index.startingWith(stem, 10).equals(
+                List.of(stem, stem + "a", stem + "b")), "list long keys");
+        check(index.startingWith(stem.substring(1), 10).size() == 3,
+                "shorter prefix");
+        check(index.remove(stem + "a") && index.remove(stem)
+                && index.getSize() == 1, "remove long keys");
+        check(index.startingWith("", 10).equals(List.of(stem + "b")),
+                "pruned long keys");
+    }
+
+    private static void rejectsBadArguments() {
+        PrefixIndex index = new PrefixIndex();
+        try {
+            index.add("");
+            throw new AssertionError("empty key accepted");
+        } catch (IllegalArgumentException expected) {
+            // rejected
+        }
+        try {
+            index.startingWith("a", -1);
+            throw new AssertionError("negative k accepted");
+        } catch (IllegalArgumentException expected) {
+            // rejected
+        }
+        try {
+            index.startingWith(null, 1);
+            throw new AssertionError("null prefix accepted");
+        } catch (NullPointerException expected) {
+            // rejected
+        }
+        index.add("a");
+        check(!index.contains("") && !index.remove("")
+                && index.startingWith("a", 0).isEmpty(), "empty arguments");
+    }
+
+    /**
+     * The first k keys of a tree set that start with prefix. String order is
+     * the char-by-char order the index promises, so they follow one another
+     * from the prefix itself onwards.
+     */
+    private static List<String> expected(TreeSet<String> ref, String prefix,
+            int k) {
+        List<String> result = new ArrayList<>();
+        for (String key : ref.tailSet(prefix)) {
+            if (result.size() == k || !key.startsWith(prefix)) break;
+            result.add(key);
+        }
+        return result;
+    }
+
+    private static String randomString(int length) {
+        StringBuilder s = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            s.append(LETTERS.charAt(RANDOM.nextInt(LETTERS.length())));
+        }
+        return s.toString();
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) throw new AssertionError(what);
+    }
+}
@@ -0,0 +1,156 @@
+package cs445.a1;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Checks IntSet and LongSet against java.util.HashSet, with keys chosen to
+ * collide in the index: multiples of a large power of two, and for LongSet,
+ * keys that differ only in their high 32 bits. Run it with
+ * java cs445.a1.PrimitiveSetTest; it throws AssertionError at the first
+ * check that fails.
+ */
+public class PrimitiveSetTest {
+
+    private static final Random RANDOM = new Random(3);
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 200; round++) {
+            intsMatchReference(round);
+            longsMatchReference(round);
+        }
+        drainsAndRefills();
+        System.out.println("All primitive set tests passed");
+    }
+
+    private static void intsMatchReference(int round) {
+        IntSet set = new IntSet(1 + RANDOM.nextInt(4));
+        java.util.HashSet<Integer> ref = new java.util.HashSet<>();
+        int range = 1 + RANDOM.nextInt(3000);
+        int stride = round % 2 == 0 ? 1 : 1 << 20;
+
+        for (int i = 0; i < 5000; i++) {
+            int key = (RANDOM.nextInt(range) - range / 2) * stride;
+            switch (RANDOM.nextInt(5)) {
+            case 0:
+            case 1:
+                check(set.add(key) == ref.add(key), "IntSet add " + key);
+                break;
+            case 2:
+                check(set.remove(key) == ref.remove(key),
+                        "IntSet remove " + key);
+                break;
+            case 3:
+                if (!ref.isEmpty()) {
+                    check(ref.remove(set.remove()), "IntSet remove()");
+                }
+                break;
+            default:
+                check(set.contains(key) == ref.contains(key),
+                        "IntSet contains " + key);
+            }
+            check(set.getSize() == ref.size(), "IntSet size");
+        }
+
+        int[] entries = set.toArray();
+        check(entries.length == ref.size(), "IntSet toArray length");
+        for (int key : entries) {
+            check(ref.contains(key), "IntSet toArray " + key);
+        }
+    }
+
+    private static void longsMatchReference(int round) {
+        LongSet set = new LongSet(1 + RANDOM.nextInt(4));
+        java.util.HashSet<Long> ref = new java.util.HashSet<>();
+        int range = 1 + RANDOM.nextInt(3000);
+
+        for (int i = 0; i < 5000; i++) {
+            long key = RANDOM.nextInt(range) - range / 2;
+            // the same low half in every key, so only folding spreads them
+            if (round % 2 == 1) key = key << 32 | 0x5555L;
+
+            switch (RANDOM.nextInt(5)) {
+            case 0:
+            case 1:
+                check(set.add(key) == ref.add(key), "LongSet add " + key);
+                break;
+            case 2:
+                check(set.remove(key) == ref.remove(key),
+                        "LongSet remove " + key);
+                break;
+            case 3:
+                if (!ref.isEmpty()) {
+                    check(ref.remove(set.remove()), "LongSet remove()");
+                }
+                break;
+            default:
+                check(set.contains(key) == ref.contains(key),
+                        "LongSet contains " + key);
+            }
+            check(set.getSize() == ref.size(), "LongSet size");
+        }
+
+        long[] entries = set.toArray();
+        check(entries.length == ref.size(), "LongSet toArray length");
+        for (long key : entries) {
+            check(ref.contains(key), "LongSet toArray " + key);
+        }
+    }
+
+    /**
+     * Fills both sets past several rehashes, including the extreme values,
+     * drains them with remove(), and checks that they work after clear.
+     */
+    private static void drainsAndRefills() {
+        int n = 100000;
+        IntSet ints = new IntSet(new int[] {7, 7, Integer.MIN_VALUE});
+        check(ints.getSize() == 2, "IntSet preFill kept duplicates");
+        LongSet longs = new LongSet(new long[] {Long.MAX_VALUE, 0, 0});
+        check(longs.getSize() == 2, "LongSet preFill kept duplicates");
+        for (int i = 0; i < n; i++) {
+            ints.add(i * 0x9E3779B9);
+            longs.add((long) i << 32);
+        }
+        check(ints.contains(Integer.MIN_VALUE) && ints.contains(7),
+                "IntSet lost an extreme value");
+        check(longs.contains(Long.MAX_VALUE) && longs.contains(0),
+                "LongSet lost an extreme value");
+
+        int[] sorted = ints.toArray();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            check(sorted[i - 1] != sorted[i], "IntSet holds a duplicate");
+        }
+
+        int count = 0;
+        while (!ints.isEmpty()) {
+            int key = ints.remove();
+            check(!ints.contains(key), "IntSet remove() left " + key);
+            count++;
+        }
+        check(count == sorted.length, "IntSet drained " + count);
+        while (!longs.isEmpty()) {
+            longs.remove();
+        }
+        try {
+            longs.remove();
+            throw new AssertionError("empty LongSet removed an entry");
+        } catch (NoSuchElementException expected) {
+            // empty
+        }
+
+        ints.add(1);
+        ints.clear();
+        check(ints.isEmpty() && !ints.contains(1), "IntSet clear");
+        check(ints.add(1) && ints.contains(1), "IntSet add after clear");
+        longs.add(1);
+        longs.clear();
+        check(longs.isEmpty() && !longs.contains(1), "LongSet clear");
+        check(longs.add(1) && longs.contains(1), "LongSet add after clear");
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) throw new AssertionError(what);
+    }
+}
@@ -1,20 +1,33 @@
 package cs445.a1;
 
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class Set<E> implements cs445.a1.SetInterface<E> {
+public class Set<E> implements cs445.a1.SetInterface<E>, Iterable<E> {
 
     private static final int DEFAULT_SIZE = 20;
 
     private E[] mContents;
     private int size;
 
+    /** Counts structural modifications, for fail-fast iteration */
+    private int modCount;
+
     public Set() {
         this(DEFAULT_SIZE);
     }
 
     public Set(int cap) {
-        mContents = (E[]) new Object[cap];
+        @SuppressWarnings("unchecked")
+        E[] contents = (E[]) new Object[cap];
+        mContents = contents;
         size = 0;
     }
 
@@ -75,11 +88,7 @@ public class Set<E> implements cs445.a1.SetInterface<E> {
         if (newEntry == null) throw new NullPointerException();
         if (contains(newEntry)) return false;
 
-        if (size == mContents.length) {
-           mContents = Arrays.copyOf(mContents, mContents.length * 2);
-        }
-
-        mContents[size++] = newEntry;
+        append(newEntry);
 
         return true;
     }
@@ -142,6 +151,7 @@ public class Set<E> implements cs445.a1.SetInterface<E> {
             mContents[i] = null;
         }
         size = 0;
+        modCount++;
     }
 
     /**
@@ -169,6 +179,256 @@ public class Set<E> implements cs445.a1.SetInterface<E> {
         return false;
     }
 
+    /**
+     * Adds an entry to this set, or combines it with the equal entry already
+     * present, in a single scan.
+     *
+     * <p> If this set does not contain entry, merge adds it exactly as add
+     * would and returns it. Otherwise, remapping is called with the existing
+     * entry and the given entry, and its result takes the existing entry's
+     * place without changing the position of any other entry. If the result
+     * is null, the existing entry is removed instead.
+     *
+     * @param entry  The entry to add or combine
+     * @param remapping  The function combining the existing and given entries
+     * @return  The entry now in this set, or null if it was removed
+     * @throws NullPointerException  If entry or remapping is null
+     * @throws IllegalArgumentException  If remapping returns an entry that is
+     * not equal to the existing entry
+     */
+    @Override
+    public E merge(E entry, BiFunction<? super E, ? super E, ? extends E>
+            remapping) throws SetFullException, NullPointerException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException();
+        }
+
+        int i = indexOf(entry);
+        if (i < 0) {
+            append(entry);
+            return entry;
+        }
+
+        return update(i, remapping.apply(mContents[i], entry));
+    }
+
+    /**
+     * Updates the entry equal to a given entry, if present, in a single scan.
+     *
+     * <p> If this set contains entry, remapping is called with the existing
+     * entry and the given entry, and its result takes the existing entry's
+     * place without changing the position of any other entry. If the result
+     * is null, the existing entry is removed instead. If this set does not
+     * contain entry, computeIfPresent returns null without calling remapping.
+     *
+     * @param entry  The entry to locate
+     * @param remapping  The function computing the replacement entry
+     * @return  The entry now in this set, or null if it was absent or removed
+     * @throws NullPointerException  If entry or remapping is null
+     * @throws IllegalArgumentException  If remapping returns an entry that is
+     * not equal to the existing entry
+     */
+    @Override
+    public E computeIfPresent(E entry, BiFunction<? super E, ? super E,
+            ? extends E> remapping) throws NullPointerException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException();
+        }
+
+        int i = indexOf(entry);
+        if (i < 0) return null;
+
+        return update(i, remapping.apply(mContents[i], entry));
+    }
+
+    /**
+     * Replaces the entry equal to a given entry, if present, in a single scan.
+     *
+     * <p> If this set contains an entry equal to entry, that entry is replaced
+     * by the given one without changing the position of any other entry, and
+     * the replaced entry is returned. Otherwise, replace returns null without
+     * modifying the set.
+     *
+     * @param entry  The replacement entry
+     * @return  The replaced entry, or null if no equal entry was present
+     * @throws NullPointerException  If entry is null
+     */
+    @Override
+    public E replace(E entry) throws NullPointerException {
+        if (entry == null) throw new NullPointerException();
+
+        int i = indexOf(entry);
+        if (i < 0) return null;
+
+        E old = mContents[i];
+        mContents[i] = entry;
+        return old;
+    }
+
+    /**
+     * Adds every entry of another set to this set.
+     *
+     * <p> The backing array is grown once to fit all of other's entries.
+     * Entries are compared with equals only, so each of other's entries is
+     * still checked against this set by a linear scan; use HashSet when both
+     * sets are large.
+     *
+     * @param other  The set whose entries are to be added
+     * @return  true if this set changed; false if it already contained every
+     * entry of other
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public boolean addAll(SetInterface<? extends E> other)
+            throws SetFullException, NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        Object[] entries = other.toArray();
+        if (size + entries.length > mContents.length) {
+            mContents = Arrays.copyOf(mContents, size + entries.length);
+        }
+
+        int oldSize = size;
+        for (int i = 0; i < entries.length; i++) {
+            @SuppressWarnings("unchecked")
+            E entry = (E) entries[i];
+            if (indexOf(entry) < 0) mContents[size++] = entry;
+        }
+        if (size == oldSize) return false;
+
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes from this set every entry that is also in another set. Each
+     * entry of this set is looked up in other once, and the remaining
+     * entries are compacted in a single pass and keep their relative order.
+     *
+     * @param other  The set whose entries are to be removed
+     * @return  true if this set changed; false otherwise
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public boolean removeAll(SetInterface<E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        return compact(other, false);
+    }
+
+    /**
+     * Removes from this set every entry that is not also in another set.
+     * Each entry of this set is looked up in other once, and the remaining
+     * entries are compacted in a single pass and keep their relative order.
+     *
+     * @param other  The set whose entries are to be kept
+     * @return  true if this set changed; false otherwise
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public boolean retainAll(SetInterface<E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        return compact(other, true);
+    }
+
+    /**
+     * Creates a new Set holding every entry that is in this set, another
+     * set, or both. This set's entries are copied as they are, and those of
+     * other's that are new are appended after them.
+     *
+     * @param other  The set to combine with this one
+     * @return  A new Set containing the union of both sets
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public Set<E> union(SetInterface<? extends E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        Set<E> result = new Set<>(Math.max(1, size + other.getSize()));
+        System.arraycopy(mContents, 0, result.mContents, 0, size);
+        result.size = size;
+        Object[] entries = other.toArray();
+        for (int i = 0; i < entries.length; i++) {
+            @SuppressWarnings("unchecked")
+            E entry = (E) entries[i];
+            if (result.indexOf(entry) < 0) {
+                result.mContents[result.size++] = entry;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a new Set holding every entry that is in both this set and
+     * another set. Each entry of this set is looked up in other once, and
+     * the result keeps this set's order.
+     *
+     * @param other  The set to intersect with this one
+     * @return  A new Set containing the intersection of both sets
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public Set<E> intersection(SetInterface<E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        Set<E> result = new Set<>(
+                Math.max(1, Math.min(size, other.getSize())));
+        for (int i = 0; i < size; i++) {
+            if (other.contains(mContents[i])) {
+                result.mContents[result.size++] = mContents[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a fail-fast iterator over the entries of this set. Modifying
+     * the set other than through the iterator's own remove method makes the
+     * iterator throw ConcurrentModificationException.
+     *
+     * @return  An iterator over this set's entries, in no particular order
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    /**
+     * Creates a sized, splittable spliterator over the entries of this set,
+     * which reads the backing array directly instead of copying it.
+     *
+     * @return  A spliterator over this set's entries
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new Splitr(0, -1, 0);
+    }
+
+    /**
+     * Creates a sequential stream over the entries of this set.
+     *
+     * @return  A stream of this set's entries
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Creates a parallel stream over the entries of this set. The backing
+     * array is split into halves recursively, so large sets can be processed
+     * on every core without an intermediate copy.
+     *
+     * @return  A parallel stream of this set's entries
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     /**
      * Retrieves all entries that are in this set.
      *
@@ -218,7 +478,190 @@ public class Set<E> implements cs445.a1.SetInterface<E> {
         E removed = mContents[i];
         mContents[i] = mContents[--size];
         mContents[size] = null;
+        modCount++;
 
         return removed;
     }
-}
+
+    /**
+     * Appends an entry known to be absent, doubling the backing array if it
+     * is full.
+     *
+     * @param entry The entry to append
+     */
+    private void append(E entry) {
+        if (size == mContents.length) {
+           mContents = Arrays.copyOf(mContents, mContents.length * 2);
+        }
+
+        mContents[size++] = entry;
+        modCount++;
+    }
+
+    /**
+     * Stores the result of a remapping function at index i, or removes the
+     * entry at i if the result is null.
+     *
+     * @param i The index of the existing entry
+     * @param result The remapped entry
+     * @return The entry now at i, or null if it was removed
+     */
+    private E update(int i, E result) {
+        if (result == null) {
+            removeAt(i);
+            return null;
+        }
+        if (!result.equals(mContents[i])) {
+            throw new IllegalArgumentException("Remapped entry is not equal");
+        }
+
+        mContents[i] = result;
+        return result;
+    }
+
+    /**
+     * Keeps only the entries whose membership in probe equals keep, sliding
+     * the survivors down over the gaps.
+     *
+     * @param probe The set to test entries against
+     * @param keep Whether to keep entries found in probe (true) or entries
+     * not found in probe (false)
+     * @return true if any entry was removed
+     */
+    private boolean compact(SetInterface<E> probe, boolean keep) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (probe.contains(mContents[i]) == keep) {
+                mContents[kept++] = mContents[i];
+            }
+        }
+        for (int i = kept; i < size; i++) {
+            mContents[i] = null;
+        }
+
+        if (kept == size) return false;
+
+        size = kept;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * A fail-fast iterator over the backing array. Removing through the
+     * iterator moves the last entry into the gap, so the cursor steps back to
+     * visit it.
+     */
+    private class Itr implements Iterator<E> {
+        private int cursor = 0;
+        private int lastRet = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        @Override
+        public E next() {
+            checkForComodification();
+            if (cursor >= size) throw new NoSuchElementException();
+
+            lastRet = cursor++;
+            return mContents[lastRet];
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet < 0) throw new IllegalStateException();
+            checkForComodification();
+
+            removeAt(lastRet);
+            cursor = lastRet;
+            lastRet = -1;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * A sized, splittable view of a range of the backing array. The range is
+     * bound to the set's size on first use, and forEachRemaining checks for
+     * concurrent modification once it has finished.
+     */
+    private class Splitr implements Spliterator<E> {
+        private int index;
+        private int fence;
+        private int expectedModCount;
+
+        Splitr(int origin, int fence, int expectedModCount) {
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() {
+            if (fence < 0) {
+                expectedModCount = modCount;
+                fence = size;
+            }
+            return fence;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int hi = getFence();
+            int mid = (index + hi) >>> 1;
+            if (index >= mid) return null;
+
+            Splitr prefix = new Splitr(index, mid, expectedModCount);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (action == null) throw new NullPointerException();
+
+            int hi = getFence();
+            if (index >= hi) return false;
+
+            E entry = mContents[index++];
+            action.accept(entry);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            if (action == null) throw new NullPointerException();
+
+            int hi = getFence();
+            E[] contents = mContents;
+            for (int i = index; i < hi; i++) {
+                action.accept(contents[i]);
+            }
+            index = hi;
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return getFence() - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.SIZED | Spliterator.SUBSIZED
+                    | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+    }
+}
\ No newline at end of file
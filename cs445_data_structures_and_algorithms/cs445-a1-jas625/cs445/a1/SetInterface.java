@@ -1,5 +1,7 @@
 package cs445.a1;
 
+import java.util.function.BiFunction;
+
 /**
  * Set is an interface that describes the operations of the ADT set. A set is a
  * homogeneous collection of objects. It is unordered, there are no limits on
@@ -106,6 +108,71 @@ public interface SetInterface<E> {
      */
     public boolean contains(E entry) throws NullPointerException;
 
+    /**
+     * Adds an entry to this set, or combines it with the equal entry already
+     * present, in a single lookup.
+     *
+     * <p> If this set does not contain entry, merge adds it exactly as add
+     * would and returns it. Otherwise, remapping is called with the existing
+     * entry and the given entry, and its result takes the existing entry's
+     * place without changing the position of any other entry. If the result
+     * is null, the existing entry is removed instead.
+     *
+     * <p> The result of remapping must be equal to the existing entry (it is
+     * typically the existing entry itself, updated in place), otherwise merge
+     * throws IllegalArgumentException without modifying the set.
+     *
+     * @param entry  The entry to add or combine
+     * @param remapping  The function combining the existing and given entries
+     * @return  The entry now in this set, or null if it was removed
+     * @throws SetFullException  If entry must be added, this set has a fixed
+     * capacity and does not have the capacity to store an additional entry
+     * @throws NullPointerException  If entry or remapping is null
+     * @throws IllegalArgumentException  If remapping returns an entry that is
+     * not equal to the existing entry
+     */
+    public E merge(E entry, BiFunction<? super E, ? super E, ? extends E>
+            remapping) throws SetFullException, NullPointerException;
+
+    /**
+     * Updates the entry equal to a given entry, if present, in a single
+     * lookup.
+     *
+     * <p> If this set contains entry, remapping is called with the existing
+     * entry and the given entry, and its result takes the existing entry's
+     * place without changing the position of any other entry. If the result
+     * is null, the existing entry is removed instead. If this set does not
+     * contain entry, computeIfPresent returns null without calling remapping.
+     *
+     * <p> The result of remapping must be equal to the existing entry,
+     * otherwise computeIfPresent throws IllegalArgumentException without
+     * modifying the set.
+     *
+     * @param entry  The entry to locate
+     * @param remapping  The function computing the replacement entry
+     * @return  The entry now in this set, or null if it was absent or removed
+     * @throws NullPointerException  If entry or remapping is null
+     * @throws IllegalArgumentException  If remapping returns an entry that is
+     * not equal to the existing entry
+     */
+    public E computeIfPresent(E entry, BiFunction<? super E, ? super E,
+            ? extends E> remapping) throws NullPointerException;
+
+    /**
+     * Replaces the entry equal to a given entry, if present, in a single
+     * lookup.
+     *
+     * <p> If this set contains an entry equal to entry, that entry is replaced
+     * by the given one without changing the position of any other entry, and
+     * the replaced entry is returned. Otherwise, replace returns null without
+     * modifying the set.
+     *
+     * @param entry  The replacement entry
+     * @return  The replaced entry, or null if no equal entry was present
+     * @throws NullPointerException  If entry is null
+     */
+    public E replace(E entry) throws NullPointerException;
+
     /**
      * Retrieves all entries that are in this set.
      *
@@ -122,5 +189,118 @@ public interface SetInterface<E> {
      */
     public Object[] toArray();
 
+    /**
+     * Adds every entry of another set to this set.
+     *
+     * <p> Entries of other that are already in this set are skipped, exactly
+     * as add would skip them. Implementations should reserve room for all of
+     * other's entries at once instead of growing one entry at a time.
+     *
+     * @param other  The set whose entries are to be added
+     * @return  true if this set changed; false if it already contained every
+     * entry of other
+     * @throws SetFullException  If this set has a fixed capacity and runs out
+     * of room; entries added before that point remain in this set
+     * @throws NullPointerException  If other is null
+     */
+    public default boolean addAll(SetInterface<? extends E> other)
+            throws SetFullException, NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        boolean changed = false;
+        Object[] entries = other.toArray();
+        for (int i = 0; i < entries.length; i++) {
+            @SuppressWarnings("unchecked")
+            E entry = (E) entries[i];
+            if (add(entry)) changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Removes from this set every entry that is also in another set.
+     *
+     * <p> The smaller of the two sets is walked and the other one is probed
+     * with contains, so implementations with fast lookups should pay for the
+     * smaller set only.
+     *
+     * @param other  The set whose entries are to be removed
+     * @return  true if this set changed; false otherwise
+     * @throws NullPointerException  If other is null
+     */
+    public default boolean removeAll(SetInterface<E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        boolean changed = false;
+        if (other.getSize() <= getSize()) {
+            Object[] entries = other.toArray();
+            for (int i = 0; i < entries.length; i++) {
+                @SuppressWarnings("unchecked")
+                E entry = (E) entries[i];
+                if (remove(entry) != null) changed = true;
+            }
+        } else {
+            Object[] entries = toArray();
+            for (int i = 0; i < entries.length; i++) {
+                @SuppressWarnings("unchecked")
+                E entry = (E) entries[i];
+                if (other.contains(entry)) {
+                    remove(entry);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Removes from this set every entry that is not also in another set.
+     *
+     * @param other  The set whose entries are to be kept
+     * @return  true if this set changed; false otherwise
+     * @throws NullPointerException  If other is null
+     */
+    public default boolean retainAll(SetInterface<E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        boolean changed = false;
+        Object[] entries = toArray();
+        for (int i = 0; i < entries.length; i++) {
+            @SuppressWarnings("unchecked")
+            E entry = (E) entries[i];
+            if (!other.contains(entry)) {
+                remove(entry);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Creates a new set holding every entry that is in this set, another
+     * set, or both. Neither set is modified. The result is a new set of the
+     * same kind as this one, sized for both sets up front.
+     *
+     * @param other  The set to combine with this one
+     * @return  A new set containing the union of both sets
+     * @throws NullPointerException  If other is null
+     */
+    public SetInterface<E> union(SetInterface<? extends E> other)
+            throws NullPointerException;
+
+    /**
+     * Creates a new set holding every entry that is in both this set and
+     * another set. Neither set is modified. The result is a new set of the
+     * same kind as this one.
+     *
+     * @param other  The set to intersect with this one
+     * @return  A new set containing the intersection of both sets
+     * @throws NullPointerException  If other is null
+     */
+    public SetInterface<E> intersection(SetInterface<E> other)
+            throws NullPointerException;
+
 }
 
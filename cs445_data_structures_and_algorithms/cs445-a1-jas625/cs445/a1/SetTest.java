@@ -0,0 +1,245 @@
+package cs445.a1;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Checks Set, HashSet and SkipListSet against java.util.TreeSet: single
+ * operations, the bulk operations with other sets of every kind and of
+ * very different and comparable sizes, and SkipListSet's ordered queries.
+ * Set's bulk operations are also checked never to hash their entries.
+ * Run it with java cs445.a1.SetTest; it throws AssertionError at the first
+ * check that fails.
+ */
+public class SetTest {
+
+    private static final Random RANDOM = new Random(15);
+
+    public static void main(String[] args) throws Exception {
+        for (int round = 0; round < 300; round++) {
+            singleOperations(newSet(round % 3), 1 + RANDOM.nextInt(2000));
+        }
+        for (int round = 0; round < 3000; round++) {
+            bulkOperations(round);
+        }
+        orderedQueries();
+        setNeverHashes();
+        System.out.println("All set tests passed");
+    }
+
+    private static SetInterface<Integer> newSet(int kind) {
+        switch (kind) {
+        case 0:
+            return new Set<>();
+        case 1:
+            return new HashSet<>();
+        default:
+            return new SkipListSet<>();
+        }
+    }
+
+    private static void singleOperations(SetInterface<Integer> set, int range)
+            throws SetFullException {
+        TreeSet<Integer> ref = new TreeSet<>();
+        String name = set.getClass().getSimpleName();
+
+        for (int i = 0; i < 2000; i++) {
+            int key = RANDOM.nextInt(range);
+            switch (RANDOM.nextInt(5)) {
+            case 0:
+            case 1:
+                check(set.add(key) == ref.add(key), name + " add");
+                break;
+            case 2:
+                check((set.remove(key) != null) == ref.remove(key),
+                        name + " remove");
+                break;
+            case 3:
+                if (!ref.isEmpty()) {
+                    Integer removed = set.remove();
+                    check(removed != null && ref.remove(removed),
+                            name + " remove()");
+                }
+                break;
+            default:
+                check(set.contains(key) == ref.contains(key),
+                        name + " contains");
+            }
+            check(set.getSize() == ref.size(), name + " size");
+        }
+        check(contents(set).equals(new ArrayList<>(ref)), name + " contents");
+    }
+
+    /**
+     * Runs one bulk operation between two random sets. The other set is
+     * either tiny or of a similar size, so both of SkipListSet's strategies
+     * are exercised.
+     */
+    private static void bulkOperations(int round) throws SetFullException {
+        int kind = round % 3;
+        int otherKind = (round / 3) % 3;
+        int n = RANDOM.nextInt(round % 5 == 0 ? 3000 : 300);
+        int m = RANDOM.nextBoolean() ? RANDOM.nextInt(4) : RANDOM.nextInt(400);
+        int range = 1 + RANDOM.nextInt(1000);
+
+        SetInterface<Integer> set = newSet(kind);
+        SetInterface<Integer> other = newSet(otherKind);
+        TreeSet<Integer> ref = new TreeSet<>();
+        TreeSet<Integer> otherRef = new TreeSet<>();
+        for (int i = 0; i < n; i++) {
+            int key = RANDOM.nextInt(range);
+            set.add(key);
+            ref.add(key);
+        }
+        for (int i = 0; i < m; i++) {
+            int key = RANDOM.nextInt(range);
+            other.add(key);
+            otherRef.add(key);
+        }
+
+        String name = set.getClass().getSimpleName() + " with "
+                + other.getClass().getSimpleName();
+        switch (RANDOM.nextInt(5)) {
+        case 0:
+            check(set.addAll(other) == ref.addAll(otherRef), name + " addAll");
+            break;
+        case 1:
+            check(set.removeAll(other) == ref.removeAll(otherRef),
+                    name + " removeAll");
+            break;
+        case 2:
+            check(set.retainAll(other) == ref.retainAll(otherRef),
+                    name + " retainAll");
+            break;
+        case 3:
+            SetInterface<Integer> union = set.union(other);
+            check(union.getClass() == set.getClass(), name + " union kind");
+            set = union;
+            ref.addAll(otherRef);
+            break;
+        default:
+            SetInterface<Integer> both = set.intersection(other);
+            check(both.getClass() == set.getClass(),
+                    name + " intersection kind");
+            set = both;
+            ref.retainAll(otherRef);
+        }
+        check(set.getSize() == ref.size(), name + " size");
+        check(contents(set).equals(new ArrayList<>(ref)), name + " contents");
+        if (set instanceof SkipListSet) {
+            List<Integer> walked = new ArrayList<>();
+            for (Integer key : (SkipListSet<Integer>) set) {
+                walked.add(key);
+            }
+            check(walked.equals(new ArrayList<>(ref)), name + " order");
+        }
+
+        // the set must still work normally afterwards
+        int key = RANDOM.nextInt(range);
+        check(set.add(key) == ref.add(key), name + " add after bulk");
+        key = RANDOM.nextInt(range);
+        check((set.remove(key) != null) == ref.remove(key),
+                name + " remove after bulk");
+        check(contents(set).equals(new ArrayList<>(ref)), name + " contents");
+    }
+
+    private static void orderedQueries() {
+        SkipListSet<Integer> set = new SkipListSet<>();
+        TreeSet<Integer> ref = new TreeSet<>();
+        for (int i = 0; i < 5000; i++) {
+            int key = RANDOM.nextInt(20000);
+            set.add(key);
+            ref.add(key);
+        }
+
+        check(set.first().equals(ref.first()), "first");
+        check(set.last().equals(ref.last()), "last");
+        for (int i = 0; i < 5000; i++) {
+            int key = RANDOM.nextInt(21000) - 500;
+            check(equal(set.floor(key), ref.floor(key)), "floor " + key);
+            check(equal(set.ceiling(key), ref.ceiling(key)), "ceiling " + key);
+        }
+        for (int i = 0; i < 200; i++) {
+            int from = RANDOM.nextInt(20000);
+            int to = from + RANDOM.nextInt(2000);
+            check(contents(set.subSet(from, to)).equals(
+                    new ArrayList<>(ref.subSet(from, to))), "subSet");
+        }
+
+        // removing every other entry through the iterator's order
+        Iterator<Integer> it = ref.iterator();
+        while (it.hasNext()) {
+            Integer key = it.next();
+            if (key % 2 == 0) {
+                check(set.remove(key).equals(key), "remove " + key);
+                it.remove();
+            }
+        }
+        check(contents(set).equals(new ArrayList<>(ref)), "after removals");
+    }
+
+    /**
+     * Gets the entries of a set in increasing order.
+     */
+    /**
+     * Set compares entries with equals only, so its bulk operations must
+     * work for entries that cannot be hashed, even between large sets.
+     */
+    private static void setNeverHashes() throws SetFullException {
+        Set<Unhashable> set = new Set<>();
+        Set<Unhashable> other = new Set<>();
+        for (int i = 0; i < 100; i++) {
+            set.add(new Unhashable(i));
+            other.add(new Unhashable(i + 50));
+        }
+
+        check(set.union(other).getSize() == 150, "Set union");
+        check(set.intersection(other).getSize() == 50, "Set intersection");
+        Set<Unhashable> copy = set.union(new Set<>());
+        check(copy.retainAll(other) && copy.getSize() == 50, "Set retainAll");
+        check(set.removeAll(other) && set.getSize() == 50, "Set removeAll");
+        check(set.addAll(other) && set.getSize() == 150, "Set addAll");
+        check(!set.contains(new Unhashable(150))
+                && set.contains(new Unhashable(149)), "Set contents");
+    }
+
+    /** An entry that is equal by value but refuses to be hashed */
+    private static final class Unhashable {
+        private final int value;
+
+        Unhashable(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Unhashable
+                    && ((Unhashable) other).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            throw new UnsupportedOperationException("hashed");
+        }
+    }
+
+    private static List<Integer> contents(SetInterface<Integer> set) {
+        List<Integer> list = new ArrayList<>();
+        for (Object o : set.toArray()) {
+            list.add((Integer) o);
+        }
+        list.sort(null);
+        return list;
+    }
+
+    private static boolean equal(Integer a, Integer b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) throw new AssertionError(what);
+    }
+}
@@ -0,0 +1,733 @@
+package cs445.a1;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+
+/**
+ * A skip list implementation of SortedSetInterface. Entries are kept in a
+ * sorted linked list, and about one node in four also appears in a second,
+ * sparser list, one in sixteen in a third, and so on. Searches start in the
+ * sparsest list and drop down a level whenever they would overshoot, so add,
+ * remove, contains, floor and ceiling take expected O(log n) time, and an
+ * ordered walk simply follows the bottom list.
+ *
+ * <p> Bulk operations pick a strategy from the sizes of the two sets. When
+ * the other set is small, its entries are added, removed or looked up one
+ * at a time. When the sizes are comparable, this set is walked once and
+ * changed in place by merging it with the other set, which is first sorted
+ * into a temporary array if need be; entries are compared, never hashed.
+ * union and intersection build their result by appending at the tail, so
+ * with a sorted set they run in linear time. subSet costs O(log n) plus the
+ * size of the range.
+ */
+public class SkipListSet<E extends Comparable<? super E>>
+        implements SortedSetInterface<E> {
+
+    private static final int MAX_LEVEL = 32;
+
+    private final Node<E> head = new Node<>(null, MAX_LEVEL);
+
+    /** Scratch array of predecessors, reused by every update */
+    private final Node<E>[] update = newNodeArray();
+
+    /** The number of levels in use, at least 1 */
+    private int level = 1;
+    private int size;
+
+    /** Counts structural modifications, for fail-fast iteration */
+    private int modCount;
+
+    /** State of the xorshift generator that picks node levels */
+    private int seed = (int) System.nanoTime() | 1;
+
+    public SkipListSet() {
+    }
+
+    public SkipListSet(E[] preFill) {
+        for (int i = 0; i < preFill.length; i++) {
+            add(preFill[i]);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a new entry to this set in its sorted position, avoiding
+     * duplicates. Duplicates are determined using the .compareTo() method.
+     * This set never throws SetFullException.
+     *
+     * @param newEntry  The object to be added as a new entry
+     * @return  true if the addition is successful; false if the item already is
+     * in this set
+     * @throws NullPointerException  If newEntry is null
+     */
+    @Override
+    public boolean add(E newEntry) throws NullPointerException {
+        if (newEntry == null) throw new NullPointerException();
+
+        Node<E> node = findPredecessors(newEntry);
+        if (node != null && node.entry.compareTo(newEntry) == 0) return false;
+
+        insert(newEntry);
+        return true;
+    }
+
+    @Override
+    public E remove(E entry) throws NullPointerException {
+        if (entry == null) throw new NullPointerException();
+
+        Node<E> node = findPredecessors(entry);
+        if (node == null || node.entry.compareTo(entry) != 0) return null;
+
+        unlink(node);
+        return node.entry;
+    }
+
+    /**
+     * Removes the smallest entry from this set, if possible.
+     *
+     * @return  The removed entry if the removal was successful; null otherwise
+     */
+    @Override
+    public E remove() {
+        Node<E> first = head.next[0];
+        if (first == null) return null;
+
+        for (int i = 0; i < first.next.length; i++) {
+            update[i] = head;
+        }
+        unlink(first);
+        return first.entry;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            head.next[i] = null;
+        }
+        level = 1;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public boolean contains(E entry) throws NullPointerException {
+        if (entry == null) throw new NullPointerException();
+
+        Node<E> node = ceilingNode(entry);
+        return node != null && node.entry.compareTo(entry) == 0;
+    }
+
+    @Override
+    public E merge(E entry, BiFunction<? super E, ? super E, ? extends E>
+            remapping) throws NullPointerException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException();
+        }
+
+        Node<E> node = findPredecessors(entry);
+        if (node == null || node.entry.compareTo(entry) != 0) {
+            insert(entry);
+            return entry;
+        }
+        return update(node, remapping.apply(node.entry, entry));
+    }
+
+    @Override
+    public E computeIfPresent(E entry, BiFunction<? super E, ? super E,
+            ? extends E> remapping) throws NullPointerException {
+        if (entry == null || remapping == null) {
+            throw new NullPointerException();
+        }
+
+        Node<E> node = findPredecessors(entry);
+        if (node == null || node.entry.compareTo(entry) != 0) return null;
+
+        return update(node, remapping.apply(node.entry, entry));
+    }
+
+    @Override
+    public E replace(E entry) throws NullPointerException {
+        if (entry == null) throw new NullPointerException();
+
+        Node<E> node = ceilingNode(entry);
+        if (node == null || node.entry.compareTo(entry) != 0) return null;
+
+        E old = node.entry;
+        node.entry = entry;
+        return old;
+    }
+
+    /**
+     * Retrieves all entries that are in this set, in ascending order.
+     *
+     * @return  A newly-allocated array of all the entries in this set
+     */
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        int i = 0;
+        for (Node<E> node = head.next[0]; node != null; node = node.next[0]) {
+            result[i++] = node.entry;
+        }
+        return result;
+    }
+
+    @Override
+    public E first() {
+        Node<E> node = head.next[0];
+        return node == null ? null : node.entry;
+    }
+
+    @Override
+    public E last() {
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null) {
+                x = x.next[i];
+            }
+        }
+        return x == head ? null : x.entry;
+    }
+
+    @Override
+    public E floor(E entry) throws NullPointerException {
+        if (entry == null) throw new NullPointerException();
+
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].entry.compareTo(entry) <= 0) {
+                x = x.next[i];
+            }
+        }
+        return x == head ? null : x.entry;
+    }
+
+    @Override
+    public E ceiling(E entry) throws NullPointerException {
+        if (entry == null) throw new NullPointerException();
+
+        Node<E> node = ceilingNode(entry);
+        return node == null ? null : node.entry;
+    }
+
+    @Override
+    public SkipListSet<E> subSet(E from, E to)
+            throws NullPointerException, IllegalArgumentException {
+        if (from.compareTo(to) > 0) {
+            throw new IllegalArgumentException("from is greater than to");
+        }
+
+        SkipListSet<E> result = new SkipListSet<>();
+        Node<E>[] tails = result.tails();
+        for (Node<E> node = ceilingNode(from);
+                node != null && node.entry.compareTo(to) < 0;
+                node = node.next[0]) {
+            result.append(tails, node.entry);
+        }
+        return result;
+    }
+
+    /**
+     * Iterates over the entries of this set in ascending order. The iterator
+     * is fail-fast and does not support remove.
+     *
+     * @return  An iterator over this set's entries
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private Node<E> next = head.next[0];
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public E next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next == null) throw new NoSuchElementException();
+
+                E entry = next.entry;
+                next = next.next[0];
+                return entry;
+            }
+        };
+    }
+
+    /**
+     * Adds every entry of another set to this set. If other is small next to
+     * this set, its entries are added one at a time, in O(m log n) time.
+     * Otherwise, if other is sorted, its entries are spliced in during one
+     * ordered walk of this set, in O(n + m) time; only the new nodes are
+     * allocated.
+     *
+     * @param other  The set whose entries are to be added
+     * @return  true if this set changed; false otherwise
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public boolean addAll(SetInterface<? extends E> other)
+            throws NullPointerException {
+        if (other instanceof SortedSetInterface && !isSmall(other)) {
+            @SuppressWarnings("unchecked")
+            Iterable<? extends E> sorted = (Iterable<? extends E>) other;
+            return mergeIn(sorted.iterator());
+        }
+
+        boolean changed = false;
+        Object[] entries = other.toArray();
+        for (int i = 0; i < entries.length; i++) {
+            @SuppressWarnings("unchecked")
+            E entry = (E) entries[i];
+            if (add(entry)) changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Removes from this set every entry that is also in another set. If
+     * other is small next to this set, its entries are removed one at a
+     * time. Otherwise this set is swept once, unlinking the entries found in
+     * other in place by merging the two sets; an unsorted other is sorted
+     * into a temporary array first.
+     *
+     * @param other  The set whose entries are to be removed
+     * @return  true if this set changed; false otherwise
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public boolean removeAll(SetInterface<E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        if (!isSmall(other)) return sweep(other, true);
+
+        boolean changed = false;
+        Object[] entries = other.toArray();
+        for (int i = 0; i < entries.length; i++) {
+            @SuppressWarnings("unchecked")
+            E entry = (E) entries[i];
+            if (remove(entry) != null) changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Removes from this set every entry that is not also in another set. If
+     * other is small next to this set, the few entries to keep are looked up
+     * one at a time and the set is rebuilt from them. Otherwise this set is
+     * swept once, unlinking the entries missing from other in place by
+     * merging the two sets; an unsorted other is sorted into a temporary
+     * array first.
+     *
+     * @param other  The set whose entries are to be kept
+     * @return  true if this set changed; false otherwise
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public boolean retainAll(SetInterface<E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        if (!isSmall(other)) return sweep(other, false);
+
+        Object[] entries = other.toArray();
+        int found = 0;
+        for (int i = 0; i < entries.length; i++) {
+            @SuppressWarnings("unchecked")
+            E entry = (E) entries[i];
+            Node<E> node = ceilingNode(entry);
+            if (node != null && node.entry.compareTo(entry) == 0) {
+                entries[found++] = node.entry;
+            }
+        }
+        if (!(other instanceof SortedSetInterface)) {
+            Arrays.sort(entries, 0, found);
+        }
+
+        SkipListSet<E> result = new SkipListSet<>();
+        Node<E>[] tails = result.tails();
+        for (int i = 0; i < found; i++) {
+            @SuppressWarnings("unchecked")
+            E entry = (E) entries[i];
+            result.append(tails, entry);
+        }
+        return adopt(result);
+    }
+
+    /**
+     * Creates a new sorted set holding every entry that is in this set,
+     * another set, or both. If other is sorted, the two sets are merged in
+     * one ordered pass.
+     *
+     * @param other  The set to combine with this one
+     * @return  A new sorted set containing the union of both sets
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public SkipListSet<E> union(SetInterface<? extends E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        SkipListSet<E> result = new SkipListSet<>();
+        Node<E>[] tails = result.tails();
+        if (!(other instanceof SortedSetInterface)) {
+            for (Node<E> n = head.next[0]; n != null; n = n.next[0]) {
+                result.append(tails, n.entry);
+            }
+            result.addAll(other);
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        Iterable<? extends E> sorted = (Iterable<? extends E>) other;
+        Iterator<? extends E> theirs = sorted.iterator();
+        E b = theirs.hasNext() ? theirs.next() : null;
+        for (Node<E> n = head.next[0]; n != null; n = n.next[0]) {
+            while (b != null && b.compareTo(n.entry) < 0) {
+                result.append(tails, b);
+                b = theirs.hasNext() ? theirs.next() : null;
+            }
+            if (b != null && b.compareTo(n.entry) == 0) {
+                b = theirs.hasNext() ? theirs.next() : null;
+            }
+            result.append(tails, n.entry);
+        }
+        while (b != null) {
+            result.append(tails, b);
+            b = theirs.hasNext() ? theirs.next() : null;
+        }
+        return result;
+    }
+
+    /**
+     * Creates a new sorted set holding every entry that is in both this set
+     * and another set. The two sets are merged in one ordered pass; an
+     * unsorted other is sorted into a temporary array first.
+     *
+     * @param other  The set to intersect with this one
+     * @return  A new sorted set containing the intersection of both sets
+     * @throws NullPointerException  If other is null
+     */
+    @Override
+    public SkipListSet<E> intersection(SetInterface<E> other)
+            throws NullPointerException {
+        if (other == null) throw new NullPointerException();
+
+        return filter(other, true);
+    }
+
+    /**
+     * Finds the predecessor of entry on every level, storing them in update.
+     *
+     * @return The first node not less than entry, or null if there is none
+     */
+    private Node<E> findPredecessors(E entry) {
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].entry.compareTo(entry) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        return x.next[0];
+    }
+
+    /**
+     * Finds the first node not less than entry, without recording
+     * predecessors.
+     */
+    private Node<E> ceilingNode(E entry) {
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].entry.compareTo(entry) < 0) {
+                x = x.next[i];
+            }
+        }
+        return x.next[0];
+    }
+
+    /**
+     * Links a new node after the predecessors stored in update.
+     *
+     * @return the new node
+     */
+    private Node<E> insert(E entry) {
+        int lvl = randomLevel();
+        if (lvl > level) {
+            for (int i = level; i < lvl; i++) {
+                update[i] = head;
+            }
+            level = lvl;
+        }
+
+        Node<E> node = new Node<>(entry, lvl);
+        for (int i = 0; i < lvl; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+        }
+        size++;
+        modCount++;
+        return node;
+    }
+
+    /**
+     * Unlinks a node whose predecessors are stored in update.
+     */
+    private void unlink(Node<E> node) {
+        for (int i = 0; i < node.next.length; i++) {
+            update[i].next[i] = node.next[i];
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        modCount++;
+    }
+
+    /**
+     * Stores the result of a remapping function in a node whose
+     * predecessors are stored in update, or unlinks the node if the result
+     * is null.
+     */
+    private E update(Node<E> node, E result) {
+        if (result == null) {
+            unlink(node);
+            return null;
+        }
+        if (result.compareTo(node.entry) != 0) {
+            throw new IllegalArgumentException("Remapped entry is not equal");
+        }
+
+        node.entry = result;
+        return result;
+    }
+
+    /**
+     * Picks a level for a new node: 1 with probability 3/4, 2 with
+     * probability 3/16, and so on.
+     */
+    private int randomLevel() {
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+
+        int lvl = 1;
+        while ((x & 3) == 0 && lvl < MAX_LEVEL) {
+            lvl++;
+            x >>>= 2;
+        }
+        return lvl;
+    }
+
+    /**
+     * Creates an array of the last node on every level, for appending to
+     * this (empty) set in ascending order.
+     */
+    private Node<E>[] tails() {
+        Node<E>[] tails = newNodeArray();
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            tails[i] = head;
+        }
+        return tails;
+    }
+
+    /**
+     * Appends an entry greater than every entry in this set in O(1) time.
+     */
+    private void append(Node<E>[] tails, E entry) {
+        int lvl = randomLevel();
+        if (lvl > level) level = lvl;
+
+        Node<E> node = new Node<>(entry, lvl);
+        for (int i = 0; i < lvl; i++) {
+            tails[i].next[i] = node;
+            tails[i] = node;
+        }
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Tests whether other is small enough, next to this set, that changing
+     * this set one entry at a time (m searches of O(log n) each) is cheaper
+     * than a walk over all n entries.
+     */
+    private boolean isSmall(SetInterface<?> other) {
+        int log = 32 - Integer.numberOfLeadingZeros(size);
+        return (long) other.getSize() * log < size;
+    }
+
+    /**
+     * Inserts the entries of an ascending iterator during one walk of the
+     * bottom list. update always holds the last node passed on every level,
+     * which is exactly the predecessor insert needs.
+     *
+     * @return true if this set changed
+     */
+    private boolean mergeIn(Iterator<? extends E> theirs) {
+        for (int i = 0; i < level; i++) {
+            update[i] = head;
+        }
+
+        boolean changed = false;
+        Node<E> x = head;
+        while (theirs.hasNext()) {
+            E b = theirs.next();
+            while (x.next[0] != null && x.next[0].entry.compareTo(b) < 0) {
+                x = x.next[0];
+                for (int i = 0; i < x.next.length; i++) {
+                    update[i] = x;
+                }
+            }
+            if (x.next[0] != null && x.next[0].entry.compareTo(b) == 0) {
+                continue;
+            }
+
+            x = insert(b);
+            for (int i = 0; i < x.next.length; i++) {
+                update[i] = x;
+            }
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Unlinks, in one walk of the bottom list, every entry whose membership
+     * in other equals drop. update holds the last node kept on every level,
+     * so a node is unlinked by pointing those predecessors past it.
+     *
+     * @return true if this set changed
+     */
+    private boolean sweep(SetInterface<E> other, boolean drop) {
+        Iterator<E> theirs = ascending(other);
+        E b = theirs.hasNext() ? theirs.next() : null;
+
+        for (int i = 0; i < level; i++) {
+            update[i] = head;
+        }
+
+        int oldSize = size;
+        for (Node<E> n = head.next[0]; n != null; n = n.next[0]) {
+            while (b != null && b.compareTo(n.entry) < 0) {
+                b = theirs.hasNext() ? theirs.next() : null;
+            }
+            boolean found = b != null && b.compareTo(n.entry) == 0;
+
+            if (found == drop) {
+                for (int i = 0; i < n.next.length; i++) {
+                    update[i].next[i] = n.next[i];
+                }
+                size--;
+            } else {
+                for (int i = 0; i < n.next.length; i++) {
+                    update[i] = n;
+                }
+            }
+        }
+        if (size == oldSize) return false;
+
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Creates a new sorted set of the entries of this set whose membership
+     * in other equals keep.
+     */
+    private SkipListSet<E> filter(SetInterface<E> other, boolean keep) {
+        SkipListSet<E> result = new SkipListSet<>();
+        Node<E>[] tails = result.tails();
+
+        Iterator<E> theirs = ascending(other);
+        E b = theirs.hasNext() ? theirs.next() : null;
+        for (Node<E> n = head.next[0]; n != null; n = n.next[0]) {
+            while (b != null && b.compareTo(n.entry) < 0) {
+                b = theirs.hasNext() ? theirs.next() : null;
+            }
+            boolean found = b != null && b.compareTo(n.entry) == 0;
+            if (found == keep) result.append(tails, n.entry);
+        }
+        return result;
+    }
+
+    /**
+     * Iterates over the entries of another set in ascending order. A set
+     * that is not sorted is copied into an array and sorted first, so its
+     * entries are only ever compared, never hashed.
+     */
+    private static <E extends Comparable<? super E>> Iterator<E> ascending(
+            SetInterface<E> other) {
+        if (other instanceof SortedSetInterface) {
+            @SuppressWarnings("unchecked")
+            Iterable<E> sorted = (Iterable<E>) other;
+            return sorted.iterator();
+        }
+
+        Object[] entries = other.toArray();
+        Arrays.sort(entries);
+        @SuppressWarnings("unchecked")
+        List<E> sorted = (List<E>) (List<?>) Arrays.asList(entries);
+        return sorted.iterator();
+    }
+
+    /**
+     * Takes over the nodes of another set, which must not be used
+     * afterwards.
+     *
+     * @return true if this set's size changed
+     */
+    private boolean adopt(SkipListSet<E> other) {
+        boolean changed = other.size != size;
+        System.arraycopy(other.head.next, 0, head.next, 0, MAX_LEVEL);
+        level = other.level;
+        size = other.size;
+        modCount++;
+        return changed;
+    }
+
+    private static <E> Node<E>[] newNodeArray() {
+        @SuppressWarnings("unchecked")
+        Node<E>[] nodes = (Node<E>[]) new Node<?>[MAX_LEVEL];
+        return nodes;
+    }
+
+    private static final class Node<E> {
+        E entry;
+        final Node<E>[] next;
+
+        Node(E entry, int level) {
+            this.entry = entry;
+            this.next = newNodeArray(level);
+        }
+
+        private static <E> Node<E>[] newNodeArray(int level) {
+            @SuppressWarnings("unchecked")
+            Node<E>[] nodes = (Node<E>[]) new Node<?>[level];
+            return nodes;
+        }
+    }
+}
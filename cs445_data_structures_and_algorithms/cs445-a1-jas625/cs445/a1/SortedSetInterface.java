@@ -0,0 +1,61 @@
+package cs445.a1;
+
+/**
+ * SortedSet is an interface that extends the ADT set with an ordering. Its
+ * entries are kept in ascending natural order (as defined by compareTo), and
+ * iterating over a sorted set visits them in that order. A sorted set treats
+ * two entries as duplicates when compareTo returns 0, so the natural order of
+ * E must be consistent with equals.
+ */
+public interface SortedSetInterface<E extends Comparable<? super E>>
+        extends SetInterface<E>, Iterable<E> {
+
+    /**
+     * Gets the smallest entry in this set.
+     *
+     * @return  The smallest entry, or null if this set is empty
+     */
+    public E first();
+
+    /**
+     * Gets the largest entry in this set.
+     *
+     * @return  The largest entry, or null if this set is empty
+     */
+    public E last();
+
+    /**
+     * Gets the largest entry in this set that is less than or equal to a
+     * given value.
+     *
+     * @param entry  The value to compare against
+     * @return  The greatest entry not greater than entry, or null if there is
+     * none
+     * @throws NullPointerException  If entry is null
+     */
+    public E floor(E entry) throws NullPointerException;
+
+    /**
+     * Gets the smallest entry in this set that is greater than or equal to a
+     * given value.
+     *
+     * @param entry  The value to compare against
+     * @return  The least entry not less than entry, or null if there is none
+     * @throws NullPointerException  If entry is null
+     */
+    public E ceiling(E entry) throws NullPointerException;
+
+    /**
+     * Creates a new sorted set holding the entries of this set in a range.
+     * This set is not modified.
+     *
+     * @param from  The low end of the range, inclusive
+     * @param to  The high end of the range, exclusive
+     * @return  A new sorted set of the entries x with from &lt;= x &lt; to
+     * @throws NullPointerException  If from or to is null
+     * @throws IllegalArgumentException  If from is greater than to
+     */
+    public SortedSetInterface<E> subSet(E from, E to)
+            throws NullPointerException, IllegalArgumentException;
+
+}
@@ -0,0 +1,458 @@
+package cs445.sorting;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A localhost TCP server that runs IPS6's checkout flow for many clients at
+ * once. Clients speak a line protocol. The server greets each connection
+ * with "Welcome to the store!", then answers each request line:
+ *
+ *   order PRODUCT   "total AMOUNT", with a price drawn as in IPS6 plus the
+ *                   10% tax, or "not found"
+ *   stats           "stats REQUESTS REJECTED MEAN_LATENCY_NANOS"
+ *   quit            "bye", then the connection is closed
+ *
+ * Connections are multiplexed over a few non-blocking selector loops (one
+ * per processor by default) instead of a thread each, so an idle connection
+ * costs only a small read buffer and the number of connections is limited
+ * by file descriptors, not threads. The first loop also accepts new
+ * connections and hands them out round-robin. All loops share one
+ * immutable catalog and a set of striped counters.
+ *
+ * A connection whose responses the client is not reading stops being read
+ * itself until they have been written, so a client that pipelines requests
+ * without reading the answers cannot make the server queue unbounded
+ * output.
+ */
+public class CheckoutServer implements Closeable {
+
+  /** The longest request line accepted, in bytes */
+  private static final int MAX_LINE = 256;
+
+  private static final byte[] WELCOME =
+      "Welcome to the store!\n".getBytes(StandardCharsets.US_ASCII);
+
+  private final PerfectHashCatalog catalog;
+  private final ServerSocketChannel server;
+  private final Loop[] loops;
+
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder latencyNanos = new LongAdder();
+  private final LongAdder connections = new LongAdder();
+
+  private volatile boolean running = true;
+  private int nextLoop;
+
+  /**
+   * Starts a server on a localhost port with one loop per processor.
+   *
+   * @param catalog the products that may be ordered
+   * @param port the port to listen on, or 0 for any free port
+   * @throws IOException if the port cannot be opened
+   */
+  public CheckoutServer(PerfectHashCatalog catalog, int port)
+      throws IOException {
+    this(catalog, port, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Starts a server on a localhost port.
+   *
+   * @param catalog the products that may be ordered
+   * @param port the port to listen on, or 0 for any free port
+   * @param loopCount the number of selector threads to run
+   * @throws IOException if the port cannot be opened
+   * @throws IllegalArgumentException if loopCount is less than 1
+   */
+  public CheckoutServer(PerfectHashCatalog catalog, int port, int loopCount)
+      throws IOException, IllegalArgumentException {
+    if (loopCount < 1) throw new IllegalArgumentException("No loops");
+
+    this.catalog = catalog;
+    server = ServerSocketChannel.open();
+    server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+        4096);
+    server.configureBlocking(false);
+
+    loops = new Loop[loopCount];
+    for (int i = 0; i < loopCount; i++) {
+      loops[i] = new Loop();
+    }
+    server.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+    for (int i = 0; i < loopCount; i++) {
+      Thread t = new Thread(loops[i], "checkout-loop-" + i);
+      t.setDaemon(true);
+      loops[i].thread = t;
+      t.start();
+    }
+  }
+
+  /**
+   * Gets the port this server listens on.
+   *
+   * @return the local port
+   */
+  public int getPort() {
+    return server.socket().getLocalPort();
+  }
+
+  /**
+   * Gets the number of requests answered so far.
+   *
+   * @return the number of requests
+   */
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  /**
+   * Gets the number of orders for products not in the catalog, and of
+   * malformed requests.
+   *
+   * @return the number of rejected requests
+   */
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  /**
+   * Gets the mean time from receiving a request line to queueing its
+   * response.
+   *
+   * @return the mean latency in nanoseconds, or 0 if there were no requests
+   */
+  public long getMeanLatencyNanos() {
+    long n = requests.sum();
+    return n == 0 ? 0 : latencyNanos.sum() / n;
+  }
+
+  /**
+   * Gets the number of connections currently open.
+   *
+   * @return the number of open connections
+   */
+  public long getConnections() {
+    return connections.sum();
+  }
+
+  /**
+   * Stops accepting connections, closes every open one and waits for the
+   * loops to finish.
+   */
+  @Override
+  public void close() throws IOException {
+    running = false;
+    server.close();
+    for (Loop loop : loops) {
+      loop.selector.wakeup();
+    }
+    for (Loop loop : loops) {
+      try {
+        loop.thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+    CheckoutServer server = new CheckoutServer(IPS6.getCatalog(), port);
+    System.out.println("Listening on port " + server.getPort());
+    try {
+      server.loops[0].thread.join();
+    } catch (InterruptedException e) {
+      server.close();
+    }
+  }
+
+  /**
+   * The state of one connection: its partial request line, and any
+   * response bytes the socket has not accepted yet.
+   */
+  private static final class Connection {
+    final ByteBuffer in = ByteBuffer.allocate(MAX_LINE);
+    ByteBuffer pending;
+  }
+
+  /**
+   * A selector thread serving a share of the connections.
+   */
+  private final class Loop implements Runnable {
+    final Selector selector;
+    final ConcurrentLinkedQueue<SocketChannel> incoming =
+        new ConcurrentLinkedQueue<>();
+    Thread thread;
+
+    /**
+     * Scratch buffers, reused for every request this loop handles. out
+     * grows if one read's responses do not fit, which is bounded by the
+     * number of lines that fit in MAX_LINE bytes.
+     */
+    private ByteBuffer out = ByteBuffer.allocate(1 << 12);
+    private final CharBuffer name = CharBuffer.allocate(MAX_LINE);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    Loop() throws IOException {
+      selector = Selector.open();
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (running) {
+          selector.select();
+          SocketChannel ch;
+          while ((ch = incoming.poll()) != null) {
+            register(ch);
+          }
+
+          Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+          while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            try {
+              if (!key.isValid()) continue;
+              if (key.isAcceptable()) {
+                accept();
+              } else {
+                if (key.isWritable()) flushPending(key);
+                if (key.isValid() && key.isReadable()) read(key);
+              }
+            } catch (IOException e) {
+              // a failed accept leaves the server open; a failed read or
+              // write drops that connection only
+              if (key.attachment() != null) disconnect(key);
+            }
+          }
+        }
+      } catch (IOException e) {
+        e.printStackTrace();
+      } finally {
+        for (SelectionKey key : selector.keys()) {
+          if (key.attachment() != null) disconnect(key);
+        }
+        try {
+          selector.close();
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+      }
+    }
+
+    private void accept() throws IOException {
+      SocketChannel ch;
+      while ((ch = server.accept()) != null) {
+        Loop loop = loops[nextLoop];
+        nextLoop = (nextLoop + 1) % loops.length;
+        if (loop == this) {
+          register(ch);
+        } else {
+          loop.incoming.add(ch);
+          loop.selector.wakeup();
+        }
+      }
+    }
+
+    private void register(SocketChannel ch) {
+      try {
+        ch.configureBlocking(false);
+        SelectionKey key = ch.register(selector, SelectionKey.OP_READ,
+            new Connection());
+        connections.increment();
+        out.clear();
+        out.put(WELCOME);
+        send(key);
+      } catch (IOException e) {
+        try {
+          ch.close();
+        } catch (IOException ignored) {
+          // nothing more to do
+        }
+      }
+    }
+
+    /**
+     * Reads what is available and answers every complete line.
+     */
+    private void read(SelectionKey key) throws IOException {
+      SocketChannel ch = (SocketChannel) key.channel();
+      Connection conn = (Connection) key.attachment();
+      ByteBuffer in = conn.in;
+
+      int n = ch.read(in);
+      if (n < 0) {
+        disconnect(key);
+        return;
+      }
+
+      out.clear();
+      int start = 0;
+      boolean quit = false;
+      for (int i = 0; i < in.position() && !quit; i++) {
+        if (in.get(i) == '\n') {
+          quit = handle(in, start, i);
+          start = i + 1;
+        }
+      }
+      if (start == 0 && !in.hasRemaining()) {
+        putAscii("error line too long\n");
+        rejected.increment();
+        quit = true;
+      }
+
+      // keep the unfinished line for the next read
+      in.flip().position(start);
+      in.compact();
+
+      send(key);
+      if (quit && key.isValid()) disconnect(key);
+    }
+
+    /**
+     * Answers one request line, appending the response to out.
+     *
+     * @return true if the client asked to quit
+     */
+    private boolean handle(ByteBuffer in, int start, int end) {
+      long began = System.nanoTime();
+      if (end > start && in.get(end - 1) == '\r') end--;
+
+      boolean quit = false;
+      if (matches(in, start, end, "order ")) {
+        int index = catalog.indexOf(decode(in, start + 6, end));
+        if (index < 0) {
+          putAscii("not found\n");
+          rejected.increment();
+        } else {
+          long price = ThreadLocalRandom.current().nextLong(10000);
+          long total = price + OrderBatch.computeTaxCents(price);
+          putAscii("total " + IPS6.formatCents(total) + "\n");
+        }
+      } else if (matches(in, start, end, "stats") && end - start == 5) {
+        putAscii("stats " + getRequests() + " " + getRejected() + " "
+            + getMeanLatencyNanos() + "\n");
+      } else if (matches(in, start, end, "quit") && end - start == 4) {
+        putAscii("bye\n");
+        quit = true;
+      } else {
+        putAscii("error unknown request\n");
+        rejected.increment();
+      }
+
+      requests.increment();
+      latencyNanos.add(System.nanoTime() - began);
+      return quit;
+    }
+
+    private boolean matches(ByteBuffer in, int start, int end, String word) {
+      if (end - start < word.length()) return false;
+      for (int i = 0; i < word.length(); i++) {
+        if (in.get(start + i) != word.charAt(i)) return false;
+      }
+      return true;
+    }
+
+    private CharBuffer decode(ByteBuffer in, int start, int end) {
+      name.clear();
+      decoder.reset();
+      decoder.decode(in.slice(start, end - start), name, true);
+      decoder.flush(name);
+      return name.flip();
+    }
+
+    private void putAscii(String s) {
+      if (out.remaining() < s.length()) {
+        ByteBuffer bigger = ByteBuffer.allocate(
+            Math.max(out.capacity() * 2, out.position() + s.length()));
+        out.flip();
+        out = bigger.put(out);
+      }
+      for (int i = 0; i < s.length(); i++) {
+        out.put((byte) s.charAt(i));
+      }
+    }
+
+    /**
+     * Writes the contents of out to a connection, keeping whatever the
+     * socket does not accept and waiting until it becomes writable. Until
+     * then the connection is not read, so its pending output stays bounded
+     * by what one read can produce.
+     */
+    private void send(SelectionKey key) throws IOException {
+      out.flip();
+      if (!out.hasRemaining()) return;
+
+      Connection conn = (Connection) key.attachment();
+      if (conn.pending == null) {
+        ((SocketChannel) key.channel()).write(out);
+        if (!out.hasRemaining()) return;
+      }
+
+      conn.pending = append(conn.pending, out);
+      key.interestOps(SelectionKey.OP_WRITE);
+    }
+
+    private void flushPending(SelectionKey key) throws IOException {
+      Connection conn = (Connection) key.attachment();
+      conn.pending.flip();
+      ((SocketChannel) key.channel()).write(conn.pending);
+      if (conn.pending.hasRemaining()) {
+        conn.pending.compact();
+        return;
+      }
+      conn.pending = null;
+      key.interestOps(SelectionKey.OP_READ);
+    }
+
+    /**
+     * Copies bytes onto the end of a connection's pending buffer, which is
+     * kept in write mode.
+     */
+    private ByteBuffer append(ByteBuffer pending, ByteBuffer bytes) {
+      if (pending == null) {
+        pending = ByteBuffer.allocate(Math.max(bytes.remaining(), MAX_LINE));
+      } else if (pending.remaining() < bytes.remaining()) {
+        ByteBuffer bigger = ByteBuffer.allocate(
+            Math.max(pending.capacity() * 2,
+                pending.position() + bytes.remaining()));
+        pending.flip();
+        bigger.put(pending);
+        pending = bigger;
+      }
+      return pending.put(bytes);
+    }
+
+    private void disconnect(SelectionKey key) {
+      if (!key.isValid()) return;
+
+      key.cancel();
+      connections.decrement();
+      try {
+        key.channel().close();
+      } catch (IOException e) {
+        // the connection is gone either way
+      }
+    }
+  }
+}
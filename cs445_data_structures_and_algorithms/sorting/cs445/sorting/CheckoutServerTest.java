@@ -0,0 +1,194 @@
+package cs445.sorting;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Talks to a CheckoutServer over real sockets: every kind of request, many
+ * clients at once, and a client that pipelines a million requests before
+ * reading any answer. Run it with java cs445.sorting.CheckoutServerTest; it
+ * throws AssertionError at the first check that fails.
+ */
+public class CheckoutServerTest {
+
+  private static final byte[] ORDER_FOUND =
+      "order bacon\n".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] ORDER_MISSING =
+      "order beans\n".getBytes(StandardCharsets.US_ASCII);
+
+  public static void main(String[] args) throws Exception {
+    try (CheckoutServer server = new CheckoutServer(IPS6.getCatalog(), 0, 2)) {
+      answersRequests(server);
+      rejectsLongLines(server);
+      servesManyClients(server);
+      pipelinesWithoutReading(server);
+    }
+    System.out.println("All CheckoutServer tests passed");
+  }
+
+  private static void answersRequests(CheckoutServer server)
+      throws IOException {
+    try (Client client = new Client(server)) {
+      client.send("order Milk\norder mILK\r\norder Bread\n");
+      checkTotal(client.receive());
+      checkTotal(client.receive());
+      check(client.receive().equals("not found"), "unknown product");
+
+      client.send("order\nstats now\n\n");
+      for (int i = 0; i < 3; i++) {
+        check(client.receive().equals("error unknown request"),
+            "malformed request " + i);
+      }
+
+      // only this client has used the server so far
+      client.send("stats\n");
+      String[] stats = client.receive().split(" ");
+      check(stats.length == 4 && stats[0].equals("stats"), "stats format");
+      check(Long.parseLong(stats[1]) == 6, "requests " + stats[1]);
+      check(Long.parseLong(stats[2]) == 4, "rejected " + stats[2]);
+      check(Long.parseLong(stats[3]) >= 0, "latency " + stats[3]);
+
+      client.send("quit\norder Milk\n");
+      check(client.receive().equals("bye"), "quit");
+      check(client.receive() == null, "still open after quit");
+    }
+  }
+
+  private static void rejectsLongLines(CheckoutServer server)
+      throws IOException {
+    try (Client client = new Client(server)) {
+      client.send("order " + "x".repeat(1000) + "\n");
+      check(client.receive().equals("error line too long"), "long line");
+      check(client.receive() == null, "still open after long line");
+    }
+  }
+
+  /**
+   * Clients spread over both loops, each with its own request stream; the
+   * answers must come back to the right client in order.
+   */
+  private static void servesManyClients(CheckoutServer server)
+      throws Exception {
+    int clients = 64;
+    ExecutorService pool = Executors.newFixedThreadPool(16);
+    Future<?>[] done = new Future<?>[clients];
+    for (int c = 0; c < clients; c++) {
+      int id = c;
+      done[c] = pool.submit(() -> {
+        try (Client client = new Client(server)) {
+          for (int i = 0; i < 200; i++) {
+            boolean found = (i + id) % 3 != 0;
+            client.send(found ? "order Eggs\n" : "order Eggs" + id + "\n");
+            String reply = client.receive();
+            if (found) {
+              checkTotal(reply);
+            } else {
+              check("not found".equals(reply), "client " + id + ": " + reply);
+            }
+          }
+          client.send("quit\n");
+          check("bye".equals(client.receive()), "client " + id + " quit");
+        }
+        return null;
+      });
+    }
+    for (Future<?> f : done) {
+      f.get();
+    }
+    pool.shutdown();
+    pool.awaitTermination(1, TimeUnit.MINUTES);
+  }
+
+  /**
+   * Writes far more requests than the socket buffers can hold before
+   * reading anything. The server must stop reading rather than drop or
+   * reorder answers, and every one must arrive once the client reads.
+   */
+  private static void pipelinesWithoutReading(CheckoutServer server)
+      throws Exception {
+    int n = 1000000;
+    try (Client client = new Client(server)) {
+      Thread writer = new Thread(() -> {
+        try {
+          OutputStream out = new BufferedOutputStream(
+              client.socket.getOutputStream());
+          for (int i = 0; i < n; i++) {
+            out.write(i % 2 == 0 ? ORDER_FOUND : ORDER_MISSING);
+          }
+          out.write("quit\n".getBytes(StandardCharsets.US_ASCII));
+          out.flush();
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      });
+      writer.start();
+      // let the writer fill the buffers before anything is read
+      Thread.sleep(500);
+
+      for (int i = 0; i < n; i++) {
+        String reply = client.receive();
+        if (i % 2 == 0) {
+          checkTotal(reply);
+        } else {
+          check("not found".equals(reply), "reply " + i + ": " + reply);
+        }
+      }
+      check("bye".equals(client.receive()), "quit after pipelining");
+      writer.join();
+    }
+  }
+
+  /**
+   * Checks a reply to an order for a known product: a price under $100
+   * plus 10% tax.
+   */
+  private static void checkTotal(String reply) {
+    check(reply != null && reply.matches("total \\d+\\.\\d\\d"),
+        "order reply " + reply);
+    double total = Double.parseDouble(reply.substring(6));
+    check(total >= 0 && total < 110, "total out of range " + reply);
+  }
+
+  /**
+   * A connection to the server that has already read the greeting.
+   */
+  private static class Client implements AutoCloseable {
+    final Socket socket;
+    final BufferedReader in;
+
+    Client(CheckoutServer server) throws IOException {
+      socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+      in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+          StandardCharsets.US_ASCII));
+      check("Welcome to the store!".equals(receive()), "greeting");
+    }
+
+    void send(String requests) throws IOException {
+      socket.getOutputStream().write(
+          requests.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    String receive() throws IOException {
+      return in.readLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+      socket.close();
+    }
+  }
+
+  private static void check(boolean condition, String what) {
+    if (!condition) throw new AssertionError(what);
+  }
+}
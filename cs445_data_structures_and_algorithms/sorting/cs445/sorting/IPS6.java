@@ -1,6 +1,8 @@
 package cs445.sorting;
 
+import java.io.IOException;
 import java.lang.Math;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 public class IPS6 {
@@ -14,11 +16,12 @@ public class IPS6 {
     return ret;
   }
 
-  public static boolean getOrder(String[] a) {
-    Scanner in = new Scanner(System.in);
+  public static PerfectHashCatalog getCatalog() {
+    return PerfectHashCatalog.build(getProducts());
+  }
 
-    System.out.println("Please enter a product name:");
-    String product = in.nextLine();
+  public static boolean getOrder(String[] a) {
+    String product = readProduct();
 
     for (int i = 0; i < a.length; i++) {
       if (a[i].equalsIgnoreCase(product)) {
@@ -28,6 +31,17 @@ public class IPS6 {
     return false;
   }
 
+  public static boolean getOrder(PerfectHashCatalog catalog) {
+    return catalog.contains(readProduct());
+  }
+
+  private static String readProduct() {
+    Scanner in = new Scanner(System.in);
+
+    System.out.println("Please enter a product name:");
+    return in.nextLine();
+  }
+
   public static double getPrice() {
     return Math.random() * 100;
   }
@@ -45,10 +59,31 @@ public class IPS6 {
   } 
 
 
-  public static void main(String[] args) {
+  public static void printBatch(OrderBatch batch) {
+    System.out.println("Orders processed: " + batch.getOrders()
+        + " (" + batch.getRejected() + " rejected)");
+    System.out.println("Batch total is: $" + formatCents(batch.getTotalCents()));
+  }
+
+  public static String formatCents(long cents) {
+    // take the parts apart before dropping the sign, so Long.MIN_VALUE works
+    long dollars = Math.abs(cents / 100);
+    long rest = Math.abs(cents % 100);
+    return (cents < 0 ? "-" : "") + dollars + "." + (rest < 10 ? "0" : "")
+        + rest;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 2) {
+      // batch mode: IPS6 <order file> <result file>
+      printBatch(OrderBatch.process(Paths.get(args[0]), Paths.get(args[1]),
+          getCatalog()));
+      return;
+    }
+
     welcomeUser();
-    String[] productArray = getProducts();
-    boolean exists = getOrder(productArray);
+    PerfectHashCatalog catalog = getCatalog();
+    boolean exists = getOrder(catalog);
     if (exists == false) {
       System.out.println("Product not found");
     } else {
@@ -0,0 +1,350 @@
+package cs445.sorting;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * Processes a file of orders in bulk, the batch counterpart of IPS6.main.
+ * Each line of the input holds one order, a product name and a price in
+ * dollars separated by a comma ("Milk,3.49"). For each order one line is
+ * written to the output: the product as spelled in the catalog, the price,
+ * the 10% tax and the total ("Milk,3.49,0.35,3.84"), or the product
+ * followed by ",not found" or ",invalid".
+ *
+ * Amounts are kept in whole cents as longs, so they are exact, and tax is
+ * rounded half up to the nearest cent. The input is memory-mapped a window
+ * at a time, and each window is cut at line breaks into one piece per
+ * processor. Pieces are parsed in parallel, each by a worker that reuses
+ * its buffers from window to window, and their output is written in order
+ * with one write per piece.
+ */
+public final class OrderBatch {
+
+  /** Bytes of input mapped at a time */
+  private static final int WINDOW_SIZE = 64 << 20;
+
+  private static final byte[] NOT_FOUND =
+      ",not found\n".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] INVALID =
+      ",invalid\n".getBytes(StandardCharsets.US_ASCII);
+
+  private final PerfectHashCatalog catalog;
+  private final Worker[] workers;
+
+  private long orders;
+  private long rejected;
+  private long subtotalCents;
+  private long taxCents;
+
+  private OrderBatch(PerfectHashCatalog catalog) {
+    this.catalog = catalog;
+    workers = new Worker[Runtime.getRuntime().availableProcessors()];
+    for (int i = 0; i < workers.length; i++) {
+      workers[i] = new Worker();
+    }
+  }
+
+  /**
+   * Processes every order in a file.
+   *
+   * @param in the order file
+   * @param out the file to write results to; it is replaced if it exists
+   * @param catalog the products that may be ordered
+   * @return the totals over all orders
+   * @throws IOException if reading or writing fails, or a line is longer
+   * than the mapping window
+   */
+  public static OrderBatch process(Path in, Path out,
+      PerfectHashCatalog catalog) throws IOException {
+    OrderBatch batch = new OrderBatch(catalog);
+    try (FileChannel input = FileChannel.open(in);
+        FileChannel output = FileChannel.open(out, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      long size = input.size();
+      long pos = 0;
+      while (pos < size) {
+        int length = (int) Math.min(WINDOW_SIZE, size - pos);
+        MappedByteBuffer window =
+            input.map(FileChannel.MapMode.READ_ONLY, pos, length);
+
+        // stop the window after its last line break, unless it is the end
+        // of the file
+        int end = length;
+        if (pos + length < size) {
+          while (end > 0 && window.get(end - 1) != '\n') {
+            end--;
+          }
+          if (end == 0) throw new IOException("Line too long at " + pos);
+        }
+
+        batch.processWindow(window, end, output);
+        pos += end;
+      }
+    }
+    return batch;
+  }
+
+  /**
+   * Gets the number of orders processed, including rejected ones.
+   *
+   * @return the number of orders
+   */
+  public long getOrders() {
+    return orders;
+  }
+
+  /**
+   * Gets the number of orders that were not found or not valid.
+   *
+   * @return the number of rejected orders
+   */
+  public long getRejected() {
+    return rejected;
+  }
+
+  /**
+   * Gets the sum of the prices of every accepted order.
+   *
+   * @return the subtotal in cents
+   */
+  public long getSubtotalCents() {
+    return subtotalCents;
+  }
+
+  /**
+   * Gets the sum of the tax on every accepted order.
+   *
+   * @return the tax in cents
+   */
+  public long getTaxCents() {
+    return taxCents;
+  }
+
+  /**
+   * Gets the sum of the totals of every accepted order.
+   *
+   * @return the total in cents
+   */
+  public long getTotalCents() {
+    return subtotalCents + taxCents;
+  }
+
+  /**
+   * Computes the 10% tax on a price, rounded half up to the nearest cent.
+   *
+   * @param priceCents a price in cents, not negative
+   * @return the tax in cents
+   */
+  public static long computeTaxCents(long priceCents) {
+    return (priceCents + 5) / 10;
+  }
+
+  /**
+   * Splits the first end bytes of a window into pieces at line breaks,
+   * processes them in parallel and writes their output in order.
+   */
+  private void processWindow(ByteBuffer window, int end, FileChannel output)
+      throws IOException {
+    int pieces = workers.length;
+    int[] bounds = new int[pieces + 1];
+    for (int i = 1; i < pieces; i++) {
+      int b = Math.max(bounds[i - 1], (int) ((long) end * i / pieces));
+      while (b < end && b > 0 && window.get(b - 1) != '\n') {
+        b++;
+      }
+      bounds[i] = b;
+    }
+    bounds[pieces] = end;
+
+    IntStream.range(0, pieces).parallel().forEach(i ->
+        workers[i].process(window, bounds[i], bounds[i + 1]));
+
+    for (Worker w : workers) {
+      ByteBuffer buf = ByteBuffer.wrap(w.out, 0, w.outLength);
+      while (buf.hasRemaining()) {
+        output.write(buf);
+      }
+      orders += w.orders;
+      rejected += w.rejected;
+      subtotalCents += w.subtotalCents;
+      taxCents += w.taxCents;
+    }
+  }
+
+  /**
+   * Parses and prices the orders in one piece of a window. A worker keeps
+   * its buffers between pieces, so steady-state processing does not
+   * allocate.
+   */
+  private final class Worker {
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private CharBuffer name = CharBuffer.allocate(64);
+    private byte[] out = new byte[1 << 16];
+    private int outLength;
+
+    private long orders;
+    private long rejected;
+    private long subtotalCents;
+    private long taxCents;
+
+    void process(ByteBuffer window, int start, int end) {
+      outLength = 0;
+      orders = 0;
+      rejected = 0;
+      subtotalCents = 0;
+      taxCents = 0;
+
+      int lineStart = start;
+      for (int i = start; i < end; i++) {
+        if (window.get(i) == '\n') {
+          processLine(window, lineStart, i);
+          lineStart = i + 1;
+        }
+      }
+      if (lineStart < end) processLine(window, lineStart, end);
+    }
+
+    private void processLine(ByteBuffer window, int start, int end) {
+      if (end > start && window.get(end - 1) == '\r') end--;
+      if (end == start) return;
+      orders++;
+
+      int comma = end - 1;
+      while (comma >= start && window.get(comma) != ',') {
+        comma--;
+      }
+      if (comma < start) {
+        reject(window, start, end, INVALID);
+        return;
+      }
+
+      long price = parseCents(window, comma + 1, end);
+      int index = price < 0 ? -1 : catalog.indexOf(decode(window, start,
+          comma));
+      if (price < 0 || index < 0) {
+        reject(window, start, comma, price < 0 ? INVALID : NOT_FOUND);
+        return;
+      }
+
+      long tax = computeTaxCents(price);
+      subtotalCents += price;
+      taxCents += tax;
+
+      String product = catalog.get(index);
+      ensureRoom(product.length() * 3 + 64);
+      for (int i = 0; i < product.length(); i++) {
+        char c = product.charAt(i);
+        if (c >= 0x80) {
+          // rare: fall back to a full encode for non-ASCII names
+          outLength -= i;
+          put(product.getBytes(StandardCharsets.UTF_8));
+          break;
+        }
+        out[outLength++] = (byte) c;
+      }
+      out[outLength++] = ',';
+      putCents(price);
+      out[outLength++] = ',';
+      putCents(tax);
+      out[outLength++] = ',';
+      putCents(price + tax);
+      out[outLength++] = '\n';
+    }
+
+    private void reject(ByteBuffer window, int start, int end, byte[] why) {
+      rejected++;
+      ensureRoom(end - start + why.length);
+      window.get(start, out, outLength, end - start);
+      outLength += end - start;
+      put(why);
+    }
+
+    /**
+     * Decodes a product name into the reusable name buffer.
+     */
+    private CharBuffer decode(ByteBuffer window, int start, int end) {
+      if (name.capacity() < end - start) {
+        name = CharBuffer.allocate(Math.max(end - start, name.capacity() * 2));
+      }
+      name.clear();
+      decoder.reset();
+      decoder.decode(window.slice(start, end - start), name, true);
+      decoder.flush(name);
+      return name.flip();
+    }
+
+    /**
+     * Parses an amount in dollars with at most two decimals.
+     *
+     * @return the amount in cents, or -1 if it is malformed
+     */
+    private long parseCents(ByteBuffer window, int start, int end) {
+      long dollars = 0;
+      int i = start;
+      for (; i < end && window.get(i) != '.'; i++) {
+        int d = window.get(i) - '0';
+        if (d < 0 || d > 9 || i - start >= 15) return -1;
+        dollars = dollars * 10 + d;
+      }
+      if (i == start) return -1;
+
+      long cents = 0;
+      int decimals = 0;
+      if (i < end) {
+        for (i++; i < end; i++) {
+          int d = window.get(i) - '0';
+          if (d < 0 || d > 9 || ++decimals > 2) return -1;
+          cents = cents * 10 + d;
+        }
+      }
+      if (decimals == 1) cents *= 10;
+      return dollars * 100 + cents;
+    }
+
+    private void putCents(long cents) {
+      long dollars = cents / 100;
+      int rest = (int) (cents % 100);
+      if (dollars == 0) {
+        out[outLength++] = '0';
+      } else {
+        int digits = 0;
+        for (long d = dollars; d > 0; d /= 10) {
+          digits++;
+        }
+        for (int i = outLength + digits - 1; i >= outLength; i--) {
+          out[i] = (byte) ('0' + dollars % 10);
+          dollars /= 10;
+        }
+        outLength += digits;
+      }
+      out[outLength++] = '.';
+      out[outLength++] = (byte) ('0' + rest / 10);
+      out[outLength++] = (byte) ('0' + rest % 10);
+    }
+
+    private void put(byte[] bytes) {
+      ensureRoom(bytes.length);
+      System.arraycopy(bytes, 0, out, outLength, bytes.length);
+      outLength += bytes.length;
+    }
+
+    private void ensureRoom(int n) {
+      if (outLength + n > out.length) {
+        byte[] bigger = new byte[Math.max(out.length * 2, outLength + n)];
+        System.arraycopy(out, 0, bigger, 0, outLength);
+        out = bigger;
+      }
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package cs445.sorting;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Runs OrderBatch over order files and compares its output and totals with
+ * the results worked out here one line at a time in BigDecimal: a file of
+ * awkward lines (CRLF line ends, blank lines, missing commas, malformed
+ * prices, unknown and non-ASCII products), and files of random orders large
+ * enough to be split between every processor. Run it with
+ * java cs445.sorting.OrderBatchTest; it throws AssertionError at the first
+ * check that fails.
+ */
+public class OrderBatchTest {
+
+  private static final Random RANDOM = new Random(21);
+
+  private static final String[] PRODUCTS = {
+    "Butter", "Milk", "Eggs", "Bacon", "Cheese", "Jalape\u00f1o",
+    "Cr\u00e8me fra\u00eeche", "\u725b\u5976",
+  };
+
+  /** The prices OrderBatch accepts: dollars, then up to two decimals */
+  private static final Pattern PRICE =
+      Pattern.compile("[0-9]{1,15}(\\.[0-9]{0,2})?");
+
+  public static void main(String[] args) throws IOException {
+    PerfectHashCatalog catalog = PerfectHashCatalog.build(PRODUCTS);
+    awkwardLines(catalog);
+    for (int lines : new int[] {0, 1, 7, 1000, 300000}) {
+      randomOrders(catalog, lines);
+    }
+    System.out.println("All OrderBatch tests passed");
+  }
+
+  private static void awkwardLines(PerfectHashCatalog catalog)
+      throws IOException {
+    String in = "milk,3.49\r\n"
+        + "\r\n"
+        + "\n"
+        + "JALAPE\u00d1O,0.05\n"
+        + "cr\u00c8ME FRA\u00ceCHE,10\n"
+        + "\u725b\u5976,1.5\n"
+        + "Milk 3.49\n"
+        + "Milk,\n"
+        + "Milk,abc\n"
+        + "Milk,1.234\n"
+        + "Milk,-1\n"
+        + "Milk,.5\n"
+        + "Milk,1.\n"
+        + "Beans,2.00\n"
+        + "Jalapeno,1\n"
+        + "Milk,Eggs,1\n"
+        + "Eggs,1234567890123456\n"
+        + "Eggs,123456789012345.99\r\n"
+        + "Bacon,0";
+    String expected = "Milk,3.49,0.35,3.84\n"
+        + "Jalape\u00f1o,0.05,0.01,0.06\n"
+        + "Cr\u00e8me fra\u00eeche,10.00,1.00,11.00\n"
+        + "\u725b\u5976,1.50,0.15,1.65\n"
+        + "Milk 3.49,invalid\n"
+        + "Milk,invalid\n"
+        + "Milk,invalid\n"
+        + "Milk,invalid\n"
+        + "Milk,invalid\n"
+        + "Milk,invalid\n"
+        + "Milk,1.00,0.10,1.10\n"
+        + "Beans,not found\n"
+        + "Jalapeno,not found\n"
+        + "Milk,Eggs,not found\n"
+        + "Eggs,invalid\n"
+        + "Eggs,123456789012345.99,12345678901234.60,"
+        + "135802467913580.59\n"
+        + "Bacon,0.00,0.00,0.00\n";
+    check(run(catalog, in).equals(expected), "awkward lines");
+  }
+
+  /**
+   * Random orders, most of them valid, in random case and with random line
+   * ends.
+   */
+  private static void randomOrders(PerfectHashCatalog catalog, int lines)
+      throws IOException {
+    StringBuilder in = new StringBuilder();
+    StringBuilder expected = new StringBuilder();
+    long orders = 0;
+    long rejected = 0;
+    long subtotal = 0;
+    long tax = 0;
+
+    for (int i = 0; i < lines; i++) {
+      String product = RANDOM.nextInt(10) == 0 ? "Beans"
+          : PRODUCTS[RANDOM.nextInt(PRODUCTS.length)];
+      String name = RANDOM.nextBoolean() ? product.toUpperCase(Locale.ROOT)
+          : product.toLowerCase(Locale.ROOT);
+      String price = randomPrice();
+      in.append(name).append(',').append(price)
+          .append(RANDOM.nextInt(4) == 0 ? "\r\n" : "\n");
+      orders++;
+
+      if (!PRICE.matcher(price).matches()) {
+        expected.append(name).append(",invalid\n");
+        rejected++;
+      } else if (product.equals("Beans")) {
+        expected.append(name).append(",not found\n");
+        rejected++;
+      } else {
+        BigDecimal dollars = new BigDecimal(price.endsWith(".")
+            ? price + "0" : price).setScale(2);
+        BigDecimal t = dollars.divide(BigDecimal.TEN)
+            .setScale(2, RoundingMode.HALF_UP);
+        expected.append(product).append(',').append(dollars).append(',')
+            .append(t).append(',').append(dollars.add(t)).append('\n');
+        subtotal += dollars.movePointRight(2).longValueExact();
+        tax += t.movePointRight(2).longValueExact();
+      }
+    }
+
+    Path inFile = Files.createTempFile("orders", ".csv");
+    Path outFile = Files.createTempFile("results", ".csv");
+    try {
+      Files.write(inFile, in.toString().getBytes(StandardCharsets.UTF_8));
+      OrderBatch batch = OrderBatch.process(inFile, outFile, catalog);
+      String out = new String(Files.readAllBytes(outFile),
+          StandardCharsets.UTF_8);
+      check(out.equals(expected.toString()), "output of " + lines);
+      check(batch.getOrders() == orders, "orders of " + lines);
+      check(batch.getRejected() == rejected, "rejected of " + lines);
+      check(batch.getSubtotalCents() == subtotal, "subtotal of " + lines);
+      check(batch.getTaxCents() == tax, "tax of " + lines);
+      check(batch.getTotalCents() == subtotal + tax, "total of " + lines);
+    } finally {
+      Files.delete(inFile);
+      Files.delete(outFile);
+    }
+  }
+
+  private static String randomPrice() {
+    switch (RANDOM.nextInt(20)) {
+    case 0:
+      return "";
+    case 1:
+      return "1.234";
+    case 2:
+      return "x" + RANDOM.nextInt(10);
+    case 3:
+      return RANDOM.nextInt(100) + ".";
+    default:
+      int cents = RANDOM.nextInt(100000);
+      return cents / 100 + "." + (cents % 100 < 10 ? "0" : "") + cents % 100;
+    }
+  }
+
+  /**
+   * Processes in as an order file and returns the output file.
+   */
+  private static String run(PerfectHashCatalog catalog, String in)
+      throws IOException {
+    Path inFile = Files.createTempFile("orders", ".csv");
+    Path outFile = Files.createTempFile("results", ".csv");
+    try {
+      Files.write(inFile, in.getBytes(StandardCharsets.UTF_8));
+      OrderBatch.process(inFile, outFile, catalog);
+      return new String(Files.readAllBytes(outFile), StandardCharsets.UTF_8);
+    } finally {
+      Files.delete(inFile);
+      Files.delete(outFile);
+    }
+  }
+
+  private static void check(boolean condition, String what) {
+    if (!condition) throw new AssertionError(what);
+  }
+}
@@ -0,0 +1,273 @@
+package cs445.sorting;
+
+import java.util.Arrays;
+
+/**
+ * An immutable, case-insensitive set of names built once from a fixed list,
+ * using a perfect hash (the CHD "hash and displace" scheme). Every name gets
+ * its own slot in a table about an eighth larger than the list, so a lookup
+ * hashes the query once, reads one displacement and one slot, and compares
+ * against a single name, however large the catalog is. The spare slots keep
+ * the search for displacements short while the catalog is built; a table
+ * exactly as large as the list would make placing the last buckets take
+ * far longer.
+ *
+ * Names are matched the way String.equalsIgnoreCase matches them.
+ */
+public final class PerfectHashCatalog {
+
+  /** Average number of names per bucket */
+  private static final int BUCKET_SIZE = 4;
+
+  /** The table has one spare slot per this many names */
+  private static final int SPARE_EVERY = 8;
+
+  /** Displacements to try per bucket before giving up */
+  private static final int MAX_TRIES = 1 << 24;
+
+  /** The names, in the order they were given to build */
+  private final String[] names;
+
+  /** Each slot holds the position of a name in names plus one, or 0 */
+  private final int[] table;
+  private final int[] displacements;
+
+  private PerfectHashCatalog(String[] names, int[] table,
+      int[] displacements) {
+    this.names = names;
+    this.table = table;
+    this.displacements = displacements;
+  }
+
+  /**
+   * Builds a catalog of the given names.
+   *
+   * @param keys the names to store; the array is not modified
+   * @return a catalog holding every name in keys
+   * @throws NullPointerException if keys or any name in it is null
+   * @throws IllegalArgumentException if two names are equal ignoring case
+   * @throws IllegalStateException if two different names have the same
+   * 64-bit hash, which is vanishingly unlikely
+   */
+  public static PerfectHashCatalog build(String[] keys)
+      throws NullPointerException, IllegalArgumentException {
+    int n = keys.length;
+    int r = Math.max(1, (n + BUCKET_SIZE - 1) / BUCKET_SIZE);
+    int m = n + n / SPARE_EVERY + 1;
+
+    // group the names by bucket, then place the largest buckets first while
+    // the table is still mostly empty. The names of bucket b are listed in
+    // members from starts[b] up to starts[b + 1].
+    long[] hashes = new long[n];
+    int[] starts = new int[r + 1];
+    for (int i = 0; i < n; i++) {
+      hashes[i] = hash(keys[i]);
+      starts[bucket(hashes[i], r) + 1]++;
+    }
+    int[] sizes = new int[r];
+    for (int b = 0; b < r; b++) {
+      sizes[b] = starts[b + 1];
+      starts[b + 1] += starts[b];
+    }
+    int[] members = new int[n];
+    int[] filled = Arrays.copyOf(starts, r);
+    for (int i = 0; i < n; i++) {
+      members[filled[bucket(hashes[i], r)]++] = i;
+    }
+    int[] order = bySizeDescending(sizes);
+
+    // the search for displacements only asks which slots are taken, and a
+    // bit per slot stays in cache where the table itself would not
+    String[] names = keys.clone();
+    int[] table = new int[m];
+    long[] taken = new long[(m + 63) >>> 6];
+    int[] displacements = new int[r];
+    int[] bucket = new int[BUCKET_SIZE];
+    int[] slots = new int[BUCKET_SIZE];
+    for (int b : order) {
+      int size = sizes[b];
+      if (size == 0) break;
+      if (bucket.length < size) {
+        bucket = new int[size];
+        slots = new int[size];
+      }
+      System.arraycopy(members, starts[b], bucket, 0, size);
+
+      int d = place(names, hashes, bucket, size, m, taken, slots);
+      for (int j = 0; j < size; j++) {
+        table[slots[j]] = bucket[j] + 1;
+        taken[slots[j] >>> 6] |= 1L << slots[j];
+      }
+      displacements[b] = d;
+    }
+    return new PerfectHashCatalog(names, table, displacements);
+  }
+
+  /**
+   * Lists the buckets from largest to smallest with a counting sort, since
+   * bucket sizes are small.
+   */
+  private static int[] bySizeDescending(int[] sizes) {
+    int max = 0;
+    for (int size : sizes) {
+      max = Math.max(max, size);
+    }
+    int[] starts = new int[max + 2];
+    for (int size : sizes) {
+      starts[max - size + 1]++;
+    }
+    for (int i = 1; i < starts.length; i++) {
+      starts[i] += starts[i - 1];
+    }
+    int[] order = new int[sizes.length];
+    for (int b = 0; b < sizes.length; b++) {
+      order[starts[max - sizes[b]]++] = b;
+    }
+    return order;
+  }
+
+  /**
+   * Finds the first displacement that sends the first size names listed in
+   * bucket to distinct free slots of a table of m slots, storing the slots in
+   * the given array. taken has a bit set for every slot already in use.
+   */
+  private static int place(String[] keys, long[] hashes, int[] bucket,
+      int size, int m, long[] taken, int[] slots) {
+    // names with equal hashes, which includes names equal ignoring case,
+    // would collide under every displacement; comparing hashes first means
+    // the names themselves are only read in that case
+    for (int j = 1; j < size; j++) {
+      for (int k = 0; k < j; k++) {
+        if (hashes[bucket[j]] != hashes[bucket[k]]) continue;
+        if (keys[bucket[j]].equalsIgnoreCase(keys[bucket[k]])) {
+          throw new IllegalArgumentException("Duplicate name: "
+              + keys[bucket[j]]);
+        }
+        throw new IllegalStateException("No perfect hash found");
+      }
+    }
+
+    for (int d = 1; d < MAX_TRIES; d++) {
+      boolean fits = true;
+      for (int j = 0; j < size && fits; j++) {
+        int slot = slot(hashes[bucket[j]], d, m);
+        fits = (taken[slot >>> 6] & 1L << slot) == 0;
+        for (int k = 0; k < j && fits; k++) {
+          if (slots[k] == slot) fits = false;
+        }
+        slots[j] = slot;
+      }
+      if (fits) return d;
+    }
+    throw new IllegalStateException("No perfect hash found");
+  }
+
+  /**
+   * Gets the number of names in this catalog.
+   *
+   * @return the number of names
+   */
+  public int getSize() {
+    return names.length;
+  }
+
+  /**
+   * Finds the stored name equal to the given one, ignoring case.
+   *
+   * @param name the name to look up
+   * @return the position of the name in the list given to build, from 0 to
+   * getSize() - 1, or -1 if it is not there
+   * @throws NullPointerException if name is null
+   */
+  public int indexOf(CharSequence name) throws NullPointerException {
+    long h = hash(name);
+    int d = displacements[bucket(h, displacements.length)];
+    int index = table[slot(h, d, table.length)] - 1;
+    return index >= 0 && equalsIgnoreCase(names[index], name) ? index : -1;
+  }
+
+  /**
+   * Tests whether this catalog holds a name, ignoring case.
+   *
+   * @param name the name to look up
+   * @return true if the name is in this catalog; false if not
+   * @throws NullPointerException if name is null
+   */
+  public boolean contains(CharSequence name) throws NullPointerException {
+    return indexOf(name) >= 0;
+  }
+
+  /**
+   * Gets the name stored at a position.
+   *
+   * @param index a position returned by indexOf
+   * @return the name, spelled as it was given to build
+   */
+  public String get(int index) {
+    return names[index];
+  }
+
+  /**
+   * Folds a character the way String.equalsIgnoreCase does.
+   */
+  private static char fold(char c) {
+    if (c < 0x80) return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+
+  private static boolean equalsIgnoreCase(String a, CharSequence b) {
+    if (a.length() != b.length()) return false;
+    for (int i = 0; i < a.length(); i++) {
+      char x = a.charAt(i);
+      char y = b.charAt(i);
+      if (x != y && fold(x) != fold(y)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Hashes the case-folded characters of s (64-bit FNV-1a, followed by the
+   * MurmurHash3 finalizer). Every other hash is derived from this one, so a
+   * name is only read once.
+   */
+  private static long hash(CharSequence s) {
+    long h = 0xCBF29CE484222325L;
+    for (int i = 0; i < s.length(); i++) {
+      h = (h ^ fold(s.charAt(i))) * 0x100000001B3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  /**
+   * Picks the bucket of a name from the high half of its hash.
+   */
+  private static int bucket(long h, int r) {
+    return reduce((int) (h >>> 32), r);
+  }
+
+  /**
+   * Picks the slot of a name under displacement d from the low half of its
+   * hash.
+   */
+  private static int slot(long h, int d, int n) {
+    int x = (int) h ^ (d * 0x9E3779B9);
+    x ^= x >>> 16;
+    x *= 0x85EBCA6B;
+    x ^= x >>> 13;
+    x *= 0xC2B2AE35;
+    x ^= x >>> 16;
+    return reduce(x, n);
+  }
+
+  /**
+   * Maps a hash uniformly onto [0, n) without division.
+   */
+  private static int reduce(int h, int n) {
+    return (int) (((h & 0xFFFFFFFFL) * n) >>> 32);
+  }
+}
@@ -0,0 +1,171 @@
+package cs445.sorting;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks PerfectHashCatalog against a map keyed by case-folded names: every
+ * name is found at its position in the list, in any case, and names that
+ * were never added are not found. Also checks non-ASCII names, the empty
+ * catalog and the names build rejects. Run it with
+ * java cs445.sorting.PerfectHashCatalogTest; it throws AssertionError at the
+ * first check that fails.
+ */
+public class PerfectHashCatalogTest {
+
+  private static final Random RANDOM = new Random(17);
+
+  /** Letters for random names, including some that change case outside ASCII */
+  private static final String LETTERS =
+      "abcdefghijklmnopqrstuvwxyz \u00e9\u00f1\u00fc\u03c3\u0436";
+
+  private static final int[] SIZES = {
+    0, 1, 2, 3, 4, 5, 7, 8, 9, 31, 100, 1000, 10000, 200000,
+  };
+
+  public static void main(String[] args) {
+    for (int size : SIZES) {
+      matchesReference(size);
+    }
+    findsNonAsciiNames();
+    emptyCatalog();
+    rejectsBadNames();
+    System.out.println("All PerfectHashCatalog tests passed");
+  }
+
+  private static void matchesReference(int size) {
+    String[] names = new String[size];
+    Map<String, Integer> ref = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      String name;
+      do {
+        name = randomName();
+      } while (ref.containsKey(fold(name)));
+      names[i] = name;
+      ref.put(fold(name), i);
+    }
+    String[] given = names.clone();
+
+    PerfectHashCatalog catalog = PerfectHashCatalog.build(names);
+    check(catalog.getSize() == size, "size " + size);
+    for (int i = 0; i < size; i++) {
+      check(names[i] == given[i], "build changed the names");
+      CharSequence query = RANDOM.nextBoolean() ? recase(names[i])
+          : new StringBuilder(recase(names[i]));
+      check(catalog.indexOf(query) == i, "indexOf " + query);
+      check(catalog.get(i).equals(names[i]), "get " + i);
+    }
+
+    for (int i = 0; i < Math.min(size, 10000) + 100; i++) {
+      String name = randomName();
+      Integer expected = ref.get(fold(name));
+      check(catalog.indexOf(name) == (expected == null ? -1 : expected),
+          "indexOf absent " + name);
+      check(catalog.contains(name) == (expected != null),
+          "contains " + name);
+    }
+
+    // the catalog keeps its own copy of the list
+    if (size > 0) {
+      String first = names[0];
+      names[0] = first + "x";
+      check(catalog.get(0).equals(first)
+          && catalog.indexOf(first) == 0, "catalog shares the list");
+    }
+  }
+
+  private static void findsNonAsciiNames() {
+    PerfectHashCatalog catalog = PerfectHashCatalog.build(new String[] {
+      "Jalape\u00f1o", "\u00c9clair", "Cr\u00e8me br\u00fbl\u00e9e",
+      "\u03a3ouvlaki", "Milk",
+    });
+    check(catalog.indexOf("JALAPE\u00d1O") == 0, "upper case \u00f1");
+    check(catalog.indexOf("\u00e9CLAIR") == 1, "lower case \u00c9");
+    check(catalog.indexOf("CR\u00c8ME BR\u00dbL\u00c9E") == 2,
+        "upper case accents");
+    check(catalog.indexOf("\u03c3OUVLAKI") == 3, "lower case sigma");
+    check(catalog.indexOf("\u03c2OUVLAKI") == 3, "final sigma");
+    check(catalog.indexOf("mILK") == 4, "ASCII among non-ASCII");
+
+    check(!catalog.contains("Jalapeno"), "n matched \u00f1");
+    check(!catalog.contains("Eclair"), "E matched \u00c9");
+    check(!catalog.contains("Jalape\u00f1os"), "longer name matched");
+    check(!catalog.contains(""), "empty name matched");
+  }
+
+  private static void emptyCatalog() {
+    PerfectHashCatalog catalog = PerfectHashCatalog.build(new String[0]);
+    check(catalog.getSize() == 0, "empty size");
+    check(catalog.indexOf("Milk") == -1 && catalog.indexOf("") == -1,
+        "empty catalog found a name");
+  }
+
+  private static void rejectsBadNames() {
+    try {
+      PerfectHashCatalog.build(new String[] {"Milk", "Eggs", "mILK"});
+      throw new AssertionError("duplicate ignoring case accepted");
+    } catch (IllegalArgumentException expected) {
+      // rejected
+    }
+    try {
+      PerfectHashCatalog.build(new String[] {"Jalape\u00f1o",
+        "JALAPE\u00d1O"});
+      throw new AssertionError("non-ASCII duplicate accepted");
+    } catch (IllegalArgumentException expected) {
+      // rejected
+    }
+    try {
+      PerfectHashCatalog.build(new String[] {"Milk", null});
+      throw new AssertionError("null name accepted");
+    } catch (NullPointerException expected) {
+      // rejected
+    }
+    try {
+      PerfectHashCatalog.build(new String[] {"Milk"}).indexOf(null);
+      throw new AssertionError("null query accepted");
+    } catch (NullPointerException expected) {
+      // rejected
+    }
+  }
+
+  private static String randomName() {
+    int length = 1 + RANDOM.nextInt(12);
+    StringBuilder name = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      name.append(LETTERS.charAt(RANDOM.nextInt(LETTERS.length())));
+    }
+    return recase(name.toString());
+  }
+
+  /**
+   * Flips the case of a random selection of the characters of a name.
+   */
+  private static String recase(String name) {
+    char[] chars = name.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      if (RANDOM.nextBoolean()) {
+        char c = chars[i];
+        chars[i] = Character.isUpperCase(c) ? Character.toLowerCase(c)
+            : Character.toUpperCase(c);
+      }
+    }
+    return new String(chars);
+  }
+
+  /**
+   * Folds every character the way String.equalsIgnoreCase compares them,
+   * so that two names are equal ignoring case exactly when they fold alike.
+   */
+  private static String fold(String name) {
+    char[] chars = name.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+    }
+    return new String(chars);
+  }
+
+  private static void check(boolean condition, String what) {
+    if (!condition) throw new AssertionError(what);
+  }
+}
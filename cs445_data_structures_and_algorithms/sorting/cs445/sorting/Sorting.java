@@ -1,9 +1,21 @@
 package cs445.sorting;
 
 import java.lang.Math;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Sorting {
 
+  /** Ranges quickSort finishes with insertion sort */
+  private static final int INSERTION_CUTOFF = 24;
+
+  /** Ranges for which quickSort picks a ninther rather than a median of 3 */
+  private static final int NINTHER_THRESHOLD = 128;
+
+  /** Ranges parallelMergeSort sorts or merges without forking */
+  public static final int PARALLEL_GRANULARITY = 1 << 13;
+
   /** 
    * Selection sort iterates n-1 times, first starting at 0, finding the
    * smallest value in the array, and then swapping it with the value at index
@@ -144,116 +156,1622 @@ public class Sorting {
     }
   }
 
+  /**
+   * Introsort: quick sort that picks its pivot as a median of three (or a
+   * ninther on large ranges), partitions three ways so duplicate keys are
+   * grouped with the pivot and never revisited, finishes small ranges with
+   * insertion sort, and falls back to heap sort if the recursion gets deeper
+   * than 2 log n. This gives O(n log n) worst case time, including on sorted,
+   * reverse-sorted and duplicate-heavy input.
+   *
+   * @param a The array to sort
+   */
   public static <T extends Comparable<? super T>> void quickSort(T[] a) {
     quickSort(a, 0, a.length);
   }
 
-  public static <T extends Comparable<? super T>> void quickSort(T[] a, int       start, int end) {
-    if (start == end) {
-      return;
-    } else {
-      T pivot = a[end - 1];
-      int lo = start;
-      int hi = end - 2;
-      while (hi > lo) {
-        while (lo < end - 1 && a[lo].compareTo(pivot) < 0) {
-          lo++;
-        } 
-        while (hi >= start && a[hi].compareTo(pivot) > 0) {
-          hi--;
-        }
-        if (hi > lo) {
-          swap(a, hi, lo);
+  public static <T extends Comparable<? super T>> void quickSort(T[] a,
+      int start, int end) {
+    int n = Math.max(end - start, 1);
+    introSort(a, start, end, 2 * (31 - Integer.numberOfLeadingZeros(n)));
+  }
+
+  /**
+   * Sorts a[start, end), switching to heap sort once depth runs out. Only
+   * the smaller side of each partition is sorted recursively; the loop
+   * carries on with the larger side, so the stack stays O(log n) deep.
+   */
+  private static <T extends Comparable<? super T>> void introSort(T[] a,
+      int start, int end, int depth) {
+    while (end - start > INSERTION_CUTOFF) {
+      if (depth-- == 0) {
+        heapSort(a, start, end);
+        return;
+      }
+
+      // three-way partition: [start, lt) is less than the pivot, [lt, gt)
+      // is equal to it and [gt, end) is greater, so runs of duplicates are
+      // finished in a single pass
+      T pivot = a[choosePivot(a, start, end)];
+      int lt = start;
+      int i = start;
+      int gt = end;
+      while (i < gt) {
+        if (a[i].compareTo(pivot) < 0) {
+          swap(a, lt++, i++);
+        } else if (pivot.compareTo(a[i]) < 0) {
+          swap(a, i, --gt);
+        } else {
+          i++;
         }
-        print(a, 10);
       }
-      if (a[lo].compareTo(pivot) > 0) {
-        swap(a, lo, end - 1);
+
+      if (lt - start < end - gt) {
+        introSort(a, start, lt, depth);
+        start = gt;
+      } else {
+        introSort(a, gt, end, depth);
+        end = lt;
+      }
+    }
+    insertionSortRange(a, start, end);
+  }
+
+  /**
+   * Picks a pivot index for a[start, end): the median of the first, middle
+   * and last elements, or for large ranges the ninther (the median of three
+   * such medians taken from evenly spaced samples).
+   */
+  private static <T extends Comparable<? super T>> int choosePivot(T[] a,
+      int start, int end) {
+    int n = end - start;
+    int mid = start + n / 2;
+    if (n < NINTHER_THRESHOLD) {
+      return median3(a, start, mid, end - 1);
+    }
+    int step = n / 8;
+    int lo = median3(a, start, start + step, start + 2 * step);
+    int m = median3(a, mid - step, mid, mid + step);
+    int hi = median3(a, end - 1 - 2 * step, end - 1 - step, end - 1);
+    return median3(a, lo, m, hi);
+  }
+
+  private static <T extends Comparable<? super T>> int median3(T[] a,
+      int i, int j, int k) {
+    if (a[i].compareTo(a[j]) < 0) {
+      if (a[j].compareTo(a[k]) < 0) {
+        return j;
       }
-      quickSort(a, start, lo);
-      quickSort(a, lo + 1, end);
+      return a[i].compareTo(a[k]) < 0 ? k : i;
     }
-  
+    if (a[k].compareTo(a[j]) < 0) {
+      return j;
+    }
+    return a[k].compareTo(a[i]) < 0 ? k : i;
   }
 
+  private static <T extends Comparable<? super T>> void
+      insertionSortRange(T[] a, int start, int end) {
+    for (int i = start + 1; i < end; i++) {
+      T cur = a[i];
+      int index = i - 1;
+      while (index >= start && cur.compareTo(a[index]) < 0) {
+        a[index + 1] = a[index];
+        index--;
+      }
+      a[index + 1] = cur;
+    }
+  }
 
   /**
-   * Swaps two values in an array a at indicies b and c
+   * Heap sort on a[start, end), the fallback that keeps introSort
+   * O(n log n) on inputs that defeat the pivot choice.
    */
-  public static <T> void swap(T[] a, int b, int c) {
-    T temp = a[b];
-    a[b] = a[c];
-    a[c] = temp;
+  private static <T extends Comparable<? super T>> void heapSort(T[] a,
+      int start, int end) {
+    int n = end - start;
+    for (int i = n / 2 - 1; i >= 0; i--) {
+      siftDown(a, start, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      swap(a, start, start + i);
+      siftDown(a, start, 0, i);
+    }
   }
 
   /**
-   * Creates an Integer array with the given constraints:
-   * 
-   * @param size The size of the array
-   * @param min The minimum value to place in the array (inclusive)
-   * @param max The maximum value to place in the array (exclusive)
-   * @return A new, filled array obeying the given constraints.
+   * Restores the max-heap order below index i of the heap of size n stored
+   * at a[base, base + n).
    */
-  public static Integer[] generateArray(int size, int min, int max) {
-    Integer[] ret = new Integer[size];
-    for (int i = 0; i < ret.length; i++) {
-       ret[i] = (int) (Math.random() * (max-min)) + min;
+  private static <T extends Comparable<? super T>> void siftDown(T[] a,
+      int base, int i, int n) {
+    T x = a[base + i];
+    int half = n >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      if (child + 1 < n && a[base + child].compareTo(a[base + child + 1]) < 0) {
+        child++;
+      }
+      if (!(x.compareTo(a[base + child]) < 0)) {
+        break;
+      }
+      a[base + i] = a[base + child];
+      i = child;
     }
-    return ret;
+    a[base + i] = x;
   }
 
   /**
-   * Prints an array. The perline argument indicates the number of 
-   * elements to print per line in the console. 
-   * 
-   * Format with perLine = 3:
-   * 
-   * [a[0], a[1], a[2]
-   * a[3], a[4], a[5]]
-   * 
-   * Where a[x] is the value of the array at index x
+   * Insertion sort for int arrays. See insertionSort(T[]).
+   *
+   * @param a The array to sort
    */
-  public static <T> void print(T[] a, int perLine) {
-    System.out.print("[");
-    for (int i = 0; i < a.length - 1; i++) {
-      System.out.print(a[i]);
+  public static void insertionSort(int[] a) {
+    insertionSort(a, 1, 0);
+  }
 
-      if ((i + 1) % perLine == 0) {
-        System.out.print(",\n");
+  /**
+   * Gapped insertion sort on one slice of an int array. See
+   * insertionSort(T[], int, int).
+   *
+   * @param a The array to sort
+   * @param gap The gap between the numbers to be sorted
+   * @param slice The slice to sort
+   */
+  public static void insertionSort(int[] a, int gap, int slice) {
+    for (int i = slice + gap; i < a.length; i = i + gap) {
+      int cur = a[i];
+      int index = i - gap;
+      while (index >= 0 && cur < a[index]) {
+        a[index + gap] = a[index];
+        index = index - gap;
+      }
+      a[index + gap] = cur;
+    }
+  }
+
+  /**
+   * Shell sort for int arrays, with the same gap sequence as shellSort(T[]).
+   *
+   * @param a The array to sort
+   */
+  public static void shellSort(int[] a) {
+    int gap = (int) (a.length / 2.2);
+    if (gap <= 1) {
+      gap = 1;
+    }
+    while (gap > 0) {
+      for (int i = 0; i < gap; i++) {
+        insertionSort(a, gap, i);
+      }
+      gap = (int) (gap / 2.2);
+      if (gap < 1) {
+        insertionSort(a, 1, 0);
+      }
+    }
+  }
+
+  /**
+   * Merge sort for int arrays. See mergeSort(T[]).
+   *
+   * @param a The array to sort
+   */
+  public static void mergeSort(int[] a) {
+    int[] aux = new int[a.length];
+    mergeSort(a, aux, 0, a.length);
+  }
+
+  public static void mergeSort(int[] a, int[] aux, int start, int end) {
+    if (end - start > 1) {
+      int mid = (start + end) / 2;
+      mergeSort(a, aux, start, mid);
+      mergeSort(a, aux, mid, end);
+      merge(a, aux, start, mid, end);
+    }
+  }
+
+  public static void merge(int[] a, int[] aux, int start, int mid, int end) {
+    int leftIndex = start;
+    int rightIndex = mid;
+    int auxIndex = start;
+
+    while (leftIndex < mid && rightIndex < end) {
+      if (a[rightIndex] < a[leftIndex]) {
+        aux[auxIndex++] = a[rightIndex++];
       } else {
-        System.out.print(", ");
+        aux[auxIndex++] = a[leftIndex++];
       }
     }
-    System.out.println(a[a.length-1] + "]");
+    while (leftIndex < mid) {
+      aux[auxIndex++] = a[leftIndex++];
+    }
+    while (rightIndex < end) {
+      aux[auxIndex++] = a[rightIndex++];
+    }
+
+    System.arraycopy(aux, start, a, start, end - start);
   }
 
-  public static void main(String[] args) {
-    int arraySize = 10000;
+  /**
+   * Introsort for int arrays. See quickSort(T[]).
+   *
+   * @param a The array to sort
+   */
+  public static void quickSort(int[] a) {
+    quickSort(a, 0, a.length);
+  }
 
-    if (args.length != 0) {
-      arraySize = Integer.parseInt(args[0]);
+  public static void quickSort(int[] a, int start, int end) {
+    int n = Math.max(end - start, 1);
+    introSort(a, start, end, 2 * (31 - Integer.numberOfLeadingZeros(n)));
+  }
+
+  /**
+   * Sorts a[start, end), switching to heap sort once depth runs out. Only
+   * the smaller side of each partition is sorted recursively; the loop
+   * carries on with the larger side, so the stack stays O(log n) deep.
+   */
+  private static void introSort(int[] a, int start, int end, int depth) {
+    while (end - start > INSERTION_CUTOFF) {
+      if (depth-- == 0) {
+        heapSort(a, start, end);
+        return;
+      }
+
+      // three-way partition: [start, lt) is less than the pivot, [lt, gt)
+      // is equal to it and [gt, end) is greater, so runs of duplicates are
+      // finished in a single pass
+      int pivot = a[choosePivot(a, start, end)];
+      int lt = start;
+      int i = start;
+      int gt = end;
+      while (i < gt) {
+        if (a[i] < pivot) {
+          swap(a, lt++, i++);
+        } else if (pivot < a[i]) {
+          swap(a, i, --gt);
+        } else {
+          i++;
+        }
+      }
+
+      if (lt - start < end - gt) {
+        introSort(a, start, lt, depth);
+        start = gt;
+      } else {
+        introSort(a, gt, end, depth);
+        end = lt;
+      }
     }
-    Integer[] a = generateArray(arraySize, 0, 200000);
-    Integer[] b = generateArray(arraySize, -200000, 200000);
-    Integer[] c = generateArray(arraySize, -200000, 200000);
-    Integer[] d = generateArray(arraySize, 0, 200);
-    Integer[] e = generateArray(arraySize, 0, 200);
+    insertionSortRange(a, start, end);
+  }
 
-    System.out.println("Generated arrays!");
+  /**
+   * Picks a pivot index for a[start, end): the median of the first, middle
+   * and last elements, or for large ranges the ninther (the median of three
+   * such medians taken from evenly spaced samples).
+   */
+  private static int choosePivot(int[] a, int start, int end) {
+    int n = end - start;
+    int mid = start + n / 2;
+    if (n < NINTHER_THRESHOLD) {
+      return median3(a, start, mid, end - 1);
+    }
+    int step = n / 8;
+    int lo = median3(a, start, start + step, start + 2 * step);
+    int m = median3(a, mid - step, mid, mid + step);
+    int hi = median3(a, end - 1 - 2 * step, end - 1 - step, end - 1);
+    return median3(a, lo, m, hi);
+  }
 
-    print(e, 10);
-    long start = System.nanoTime();
-    quickSort(e);
-    long end = System.nanoTime() - start;
-    print(e, 10);
+  private static int median3(int[] a, int i, int j, int k) {
+    if (a[i] < a[j]) {
+      if (a[j] < a[k]) {
+        return j;
+      }
+      return a[i] < a[k] ? k : i;
+    }
+    if (a[k] < a[j]) {
+      return j;
+    }
+    return a[k] < a[i] ? k : i;
+  }
 
-    System.out.println("Quick sort took " + end / 1e9 + "(s)");
+  private static void insertionSortRange(int[] a, int start, int end) {
+    for (int i = start + 1; i < end; i++) {
+      int cur = a[i];
+      int index = i - 1;
+      while (index >= start && cur < a[index]) {
+        a[index + 1] = a[index];
+        index--;
+      }
+      a[index + 1] = cur;
+    }
+  }
 
-    start = System.nanoTime();
-    mergeSort(d);
-    end = System.nanoTime() - start;
+  /**
+   * Heap sort on a[start, end), the fallback that keeps introSort
+   * O(n log n) on inputs that defeat the pivot choice.
+   */
+  private static void heapSort(int[] a, int start, int end) {
+    int n = end - start;
+    for (int i = n / 2 - 1; i >= 0; i--) {
+      siftDown(a, start, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      swap(a, start, start + i);
+      siftDown(a, start, 0, i);
+    }
+  }
 
-    System.out.println("Merge sort took " + end / 1e9 + "(s)");
+  /**
+   * Restores the max-heap order below index i of the heap of size n stored
+   * at a[base, base + n).
+   */
+  private static void siftDown(int[] a, int base, int i, int n) {
+    int x = a[base + i];
+    int half = n >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      if (child + 1 < n && a[base + child] < a[base + child + 1]) {
+        child++;
+      }
+      if (!(x < a[base + child])) {
+        break;
+      }
+      a[base + i] = a[base + child];
+      i = child;
+    }
+    a[base + i] = x;
+  }
+
+  /**
+   * Insertion sort for long arrays. See insertionSort(T[]).
+   *
+   * @param a The array to sort
+   */
+  public static void insertionSort(long[] a) {
+    insertionSort(a, 1, 0);
+  }
+
+  /**
+   * Gapped insertion sort on one slice of a long array. See
+   * insertionSort(T[], int, int).
+   *
+   * @param a The array to sort
+   * @param gap The gap between the numbers to be sorted
+   * @param slice The slice to sort
+   */
+  public static void insertionSort(long[] a, int gap, int slice) {
+    for (int i = slice + gap; i < a.length; i = i + gap) {
+      long cur = a[i];
+      int index = i - gap;
+      while (index >= 0 && cur < a[index]) {
+        a[index + gap] = a[index];
+        index = index - gap;
+      }
+      a[index + gap] = cur;
+    }
+  }
+
+  /**
+   * Shell sort for long arrays, with the same gap sequence as shellSort(T[]).
+   *
+   * @param a The array to sort
+   */
+  public static void shellSort(long[] a) {
+    int gap = (int) (a.length / 2.2);
+    if (gap <= 1) {
+      gap = 1;
+    }
+    while (gap > 0) {
+      for (int i = 0; i < gap; i++) {
+        insertionSort(a, gap, i);
+      }
+      gap = (int) (gap / 2.2);
+      if (gap < 1) {
+        insertionSort(a, 1, 0);
+      }
+    }
+  }
+
+  /**
+   * Merge sort for long arrays. See mergeSort(T[]).
+   *
+   * @param a The array to sort
+   */
+  public static void mergeSort(long[] a) {
+    long[] aux = new long[a.length];
+    mergeSort(a, aux, 0, a.length);
+  }
+
+  public static void mergeSort(long[] a, long[] aux, int start, int end) {
+    if (end - start > 1) {
+      int mid = (start + end) / 2;
+      mergeSort(a, aux, start, mid);
+      mergeSort(a, aux, mid, end);
+      merge(a, aux, start, mid, end);
+    }
+  }
+
+  public static void merge(long[] a, long[] aux, int start, int mid, int end) {
+    int leftIndex = start;
+    int rightIndex = mid;
+    int auxIndex = start;
+
+    while (leftIndex < mid && rightIndex < end) {
+      if (a[rightIndex] < a[leftIndex]) {
+        aux[auxIndex++] = a[rightIndex++];
+      } else {
+        aux[auxIndex++] = a[leftIndex++];
+      }
+    }
+    while (leftIndex < mid) {
+      aux[auxIndex++] = a[leftIndex++];
+    }
+    while (rightIndex < end) {
+      aux[auxIndex++] = a[rightIndex++];
+    }
+
+    System.arraycopy(aux, start, a, start, end - start);
+  }
+
+  /**
+   * Introsort for long arrays. See quickSort(T[]).
+   *
+   * @param a The array to sort
+   */
+  public static void quickSort(long[] a) {
+    quickSort(a, 0, a.length);
+  }
+
+  public static void quickSort(long[] a, int start, int end) {
+    int n = Math.max(end - start, 1);
+    introSort(a, start, end, 2 * (31 - Integer.numberOfLeadingZeros(n)));
+  }
+
+  /**
+   * Sorts a[start, end), switching to heap sort once depth runs out. Only
+   * the smaller side of each partition is sorted recursively; the loop
+   * carries on with the larger side, so the stack stays O(log n) deep.
+   */
+  private static void introSort(long[] a, int start, int end, int depth) {
+    while (end - start > INSERTION_CUTOFF) {
+      if (depth-- == 0) {
+        heapSort(a, start, end);
+        return;
+      }
+
+      // three-way partition: [start, lt) is less than the pivot, [lt, gt)
+      // is equal to it and [gt, end) is greater, so runs of duplicates are
+      // finished in a single pass
+      long pivot = a[choosePivot(a, start, end)];
+      int lt = start;
+      int i = start;
+      int gt = end;
+      while (i < gt) {
+        if (a[i] < pivot) {
+          swap(a, lt++, i++);
+        } else if (pivot < a[i]) {
+          swap(a, i, --gt);
+        } else {
+          i++;
+        }
+      }
+
+      if (lt - start < end - gt) {
+        introSort(a, start, lt, depth);
+        start = gt;
+      } else {
+        introSort(a, gt, end, depth);
+        end = lt;
+      }
+    }
+    insertionSortRange(a, start, end);
+  }
+
+  /**
+   * Picks a pivot index for a[start, end): the median of the first, middle
+   * and last elements, or for large ranges the ninther (the median of three
+   * such medians taken from evenly spaced samples).
+   */
+  private static int choosePivot(long[] a, int start, int end) {
+    int n = end - start;
+    int mid = start + n / 2;
+    if (n < NINTHER_THRESHOLD) {
+      return median3(a, start, mid, end - 1);
+    }
+    int step = n / 8;
+    int lo = median3(a, start, start + step, start + 2 * step);
+    int m = median3(a, mid - step, mid, mid + step);
+    int hi = median3(a, end - 1 - 2 * step, end - 1 - step, end - 1);
+    return median3(a, lo, m, hi);
+  }
+
+  private static int median3(long[] a, int i, int j, int k) {
+    if (a[i] < a[j]) {
+      if (a[j] < a[k]) {
+        return j;
+      }
+      return a[i] < a[k] ? k : i;
+    }
+    if (a[k] < a[j]) {
+      return j;
+    }
+    return a[k] < a[i] ? k : i;
+  }
+
+  private static void insertionSortRange(long[] a, int start, int end) {
+    for (int i = start + 1; i < end; i++) {
+      long cur = a[i];
+      int index = i - 1;
+      while (index >= start && cur < a[index]) {
+        a[index + 1] = a[index];
+        index--;
+      }
+      a[index + 1] = cur;
+    }
+  }
+
+  /**
+   * Heap sort on a[start, end), the fallback that keeps introSort
+   * O(n log n) on inputs that defeat the pivot choice.
+   */
+  private static void heapSort(long[] a, int start, int end) {
+    int n = end - start;
+    for (int i = n / 2 - 1; i >= 0; i--) {
+      siftDown(a, start, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      swap(a, start, start + i);
+      siftDown(a, start, 0, i);
+    }
+  }
+
+  /**
+   * Restores the max-heap order below index i of the heap of size n stored
+   * at a[base, base + n).
+   */
+  private static void siftDown(long[] a, int base, int i, int n) {
+    long x = a[base + i];
+    int half = n >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      if (child + 1 < n && a[base + child] < a[base + child + 1]) {
+        child++;
+      }
+      if (!(x < a[base + child])) {
+        break;
+      }
+      a[base + i] = a[base + child];
+      i = child;
+    }
+    a[base + i] = x;
+  }
+
+  /**
+   * Insertion sort for double arrays. See insertionSort(T[]).
+   *
+   * @param a The array to sort
+   */
+  public static void insertionSort(double[] a) {
+    insertionSort(a, 1, 0);
+  }
+
+  /**
+   * Gapped insertion sort on one slice of a double array. See
+   * insertionSort(T[], int, int).
+   *
+   * @param a The array to sort
+   * @param gap The gap between the numbers to be sorted
+   * @param slice The slice to sort
+   */
+  public static void insertionSort(double[] a, int gap, int slice) {
+    for (int i = slice + gap; i < a.length; i = i + gap) {
+      double cur = a[i];
+      int index = i - gap;
+      while (index >= 0 && Double.compare(cur, a[index]) < 0) {
+        a[index + gap] = a[index];
+        index = index - gap;
+      }
+      a[index + gap] = cur;
+    }
+  }
+
+  /**
+   * Shell sort for double arrays, with the same gap sequence as shellSort(T[]).
+   *
+   * @param a The array to sort
+   */
+  public static void shellSort(double[] a) {
+    int gap = (int) (a.length / 2.2);
+    if (gap <= 1) {
+      gap = 1;
+    }
+    while (gap > 0) {
+      for (int i = 0; i < gap; i++) {
+        insertionSort(a, gap, i);
+      }
+      gap = (int) (gap / 2.2);
+      if (gap < 1) {
+        insertionSort(a, 1, 0);
+      }
+    }
+  }
+
+  /**
+   * Merge sort for double arrays. See mergeSort(T[]).
+   *
+   * @param a The array to sort
+   */
+  public static void mergeSort(double[] a) {
+    double[] aux = new double[a.length];
+    mergeSort(a, aux, 0, a.length);
+  }
+
+  public static void mergeSort(double[] a, double[] aux, int start, int end) {
+    if (end - start > 1) {
+      int mid = (start + end) / 2;
+      mergeSort(a, aux, start, mid);
+      mergeSort(a, aux, mid, end);
+      merge(a, aux, start, mid, end);
+    }
+  }
+
+  public static void merge(double[] a, double[] aux, int start, int mid,
+      int end) {
+    int leftIndex = start;
+    int rightIndex = mid;
+    int auxIndex = start;
+
+    while (leftIndex < mid && rightIndex < end) {
+      if (Double.compare(a[rightIndex], a[leftIndex]) < 0) {
+        aux[auxIndex++] = a[rightIndex++];
+      } else {
+        aux[auxIndex++] = a[leftIndex++];
+      }
+    }
+    while (leftIndex < mid) {
+      aux[auxIndex++] = a[leftIndex++];
+    }
+    while (rightIndex < end) {
+      aux[auxIndex++] = a[rightIndex++];
+    }
+
+    System.arraycopy(aux, start, a, start, end - start);
+  }
+
+  /**
+   * Introsort for double arrays. See quickSort(T[]).
+   *
+   * @param a The array to sort
+   */
+  public static void quickSort(double[] a) {
+    quickSort(a, 0, a.length);
+  }
+
+  public static void quickSort(double[] a, int start, int end) {
+    int n = Math.max(end - start, 1);
+    introSort(a, start, end, 2 * (31 - Integer.numberOfLeadingZeros(n)));
+  }
+
+  /**
+   * Sorts a[start, end), switching to heap sort once depth runs out. Only
+   * the smaller side of each partition is sorted recursively; the loop
+   * carries on with the larger side, so the stack stays O(log n) deep.
+   */
+  private static void introSort(double[] a, int start, int end, int depth) {
+    while (end - start > INSERTION_CUTOFF) {
+      if (depth-- == 0) {
+        heapSort(a, start, end);
+        return;
+      }
+
+      // three-way partition: [start, lt) is less than the pivot, [lt, gt)
+      // is equal to it and [gt, end) is greater, so runs of duplicates are
+      // finished in a single pass
+      double pivot = a[choosePivot(a, start, end)];
+      int lt = start;
+      int i = start;
+      int gt = end;
+      while (i < gt) {
+        if (Double.compare(a[i], pivot) < 0) {
+          swap(a, lt++, i++);
+        } else if (Double.compare(pivot, a[i]) < 0) {
+          swap(a, i, --gt);
+        } else {
+          i++;
+        }
+      }
+
+      if (lt - start < end - gt) {
+        introSort(a, start, lt, depth);
+        start = gt;
+      } else {
+        introSort(a, gt, end, depth);
+        end = lt;
+      }
+    }
+    insertionSortRange(a, start, end);
+  }
+
+  /**
+   * Picks a pivot index for a[start, end): the median of the first, middle
+   * and last elements, or for large ranges the ninther (the median of three
+   * such medians taken from evenly spaced samples).
+   */
+  private static int choosePivot(double[] a, int start, int end) {
+    int n = end - start;
+    int mid = start + n / 2;
+    if (n < NINTHER_THRESHOLD) {
+      return median3(a, start, mid, end - 1);
+    }
+    int step = n / 8;
+    int lo = median3(a, start, start + step, start + 2 * step);
+    int m = median3(a, mid - step, mid, mid + step);
+    int hi = median3(a, end - 1 - 2 * step, end - 1 - step, end - 1);
+    return median3(a, lo, m, hi);
+  }
+
+  private static int median3(double[] a, int i, int j, int k) {
+    if (Double.compare(a[i], a[j]) < 0) {
+      if (Double.compare(a[j], a[k]) < 0) {
+        return j;
+      }
+      return Double.compare(a[i], a[k]) < 0 ? k : i;
+    }
+    if (Double.compare(a[k], a[j]) < 0) {
+      return j;
+    }
+    return Double.compare(a[k], a[i]) < 0 ? k : i;
+  }
+
+  private static void insertionSortRange(double[] a, int start, int end) {
+    for (int i = start + 1; i < end; i++) {
+      double cur = a[i];
+      int index = i - 1;
+      while (index >= start && Double.compare(cur, a[index]) < 0) {
+        a[index + 1] = a[index];
+        index--;
+      }
+      a[index + 1] = cur;
+    }
+  }
+
+  /**
+   * Heap sort on a[start, end), the fallback that keeps introSort
+   * O(n log n) on inputs that defeat the pivot choice.
+   */
+  private static void heapSort(double[] a, int start, int end) {
+    int n = end - start;
+    for (int i = n / 2 - 1; i >= 0; i--) {
+      siftDown(a, start, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      swap(a, start, start + i);
+      siftDown(a, start, 0, i);
+    }
+  }
+
+  /**
+   * Restores the max-heap order below index i of the heap of size n stored
+   * at a[base, base + n).
+   */
+  private static void siftDown(double[] a, int base, int i, int n) {
+    double x = a[base + i];
+    int half = n >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      if (child + 1 < n
+          && Double.compare(a[base + child], a[base + child + 1]) < 0) {
+        child++;
+      }
+      if (!(Double.compare(x, a[base + child]) < 0)) {
+        break;
+      }
+      a[base + i] = a[base + child];
+      i = child;
+    }
+    a[base + i] = x;
+  }
+
+  /**
+   * A stable merge sort that runs on all cores using fork/join. Ranges larger
+   * than the granularity are split in half and both halves are sorted as
+   * separate tasks; smaller ranges are sorted sequentially. A single aux
+   * array is allocated up front, and the two arrays take turns as source and
+   * destination from one level to the next, so merged runs are never copied
+   * back. Merges of large runs are parallel as well: the output range is cut
+   * in half, the matching cut in each input run is found by binary search
+   * (the co-rank), and the two halves are merged as separate tasks.
+   *
+   * @param a The array to sort
+   */
+  public static <T extends Comparable<? super T>> void parallelMergeSort(T[] a) {
+    parallelMergeSort(a, PARALLEL_GRANULARITY);
+  }
+
+  public static <T extends Comparable<? super T>> void parallelMergeSort(T[] a,
+      int granularity) {
+    if (granularity < 1) {
+      throw new IllegalArgumentException("Granularity less than 1");
+    }
+    @SuppressWarnings("unchecked")
+    T[] aux = (T[]) new Comparable<?>[a.length];
+    ForkJoinPool.commonPool().invoke(
+        new SortTask<>(a, aux, 0, a.length, false, granularity));
+  }
+
+  /**
+   * Stably sorts a[lo, hi), leaving the result in b if intoB and in a
+   * otherwise. Each level of the recursion merges from one array into the
+   * other, so no range is ever copied back.
+   */
+  private static <T extends Comparable<? super T>> void stableSort(T[] a,
+      T[] b, int lo, int hi, boolean intoB) {
+    if (hi - lo < 2) {
+      if (intoB && hi > lo) {
+        b[lo] = a[lo];
+      }
+      return;
+    }
+    int mid = (lo + hi) >>> 1;
+    stableSort(a, b, lo, mid, !intoB);
+    stableSort(a, b, mid, hi, !intoB);
+    if (intoB) {
+      mergeRuns(a, lo, mid, mid, hi, b, lo);
+    } else {
+      mergeRuns(b, lo, mid, mid, hi, a, lo);
+    }
+  }
+
+  /**
+   * Merges the sorted runs src[lo1, hi1) and src[lo2, hi2) into dst starting
+   * at out, taking from the first run on ties.
+   */
+  private static <T extends Comparable<? super T>> void mergeRuns(T[] src,
+      int lo1, int hi1, int lo2, int hi2, T[] dst, int out) {
+    while (lo1 < hi1 && lo2 < hi2) {
+      if (src[lo2].compareTo(src[lo1]) < 0) {
+        dst[out++] = src[lo2++];
+      } else {
+        dst[out++] = src[lo1++];
+      }
+    }
+    System.arraycopy(src, lo1, dst, out, hi1 - lo1);
+    System.arraycopy(src, lo2, dst, out + hi1 - lo1, hi2 - lo2);
+  }
+
+  /**
+   * Finds how many of the first k merged elements come from the first of
+   * two sorted runs of lengths n1 and n2, by binary search.
+   */
+  private static <T extends Comparable<? super T>> int coRank(T[] src,
+      int lo1, int n1, int lo2, int n2, int k) {
+    int lo = Math.max(0, k - n2);
+    int hi = Math.min(k, n1);
+    while (lo < hi) {
+      int i = (lo + hi) >>> 1;
+      // if element i of the first run goes before element k - i - 1 of the
+      // second, more than i elements of the first run are among the first k
+      if (src[lo1 + i].compareTo(src[lo2 + k - i - 1]) <= 0) {
+        lo = i + 1;
+      } else {
+        hi = i;
+      }
+    }
+    return lo;
+  }
+
+  private static final class SortTask<T extends Comparable<? super T>>
+      extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final T[] a;
+    private final T[] b;
+    private final int lo;
+    private final int hi;
+    private final boolean intoB;
+    private final int granularity;
+
+    SortTask(T[] a, T[] b, int lo, int hi, boolean intoB,
+        int granularity) {
+      this.a = a;
+      this.b = b;
+      this.lo = lo;
+      this.hi = hi;
+      this.intoB = intoB;
+      this.granularity = granularity;
+    }
+
+    @Override
+    protected void compute() {
+      if (hi - lo <= granularity) {
+        stableSort(a, b, lo, hi, intoB);
+        return;
+      }
+      int mid = (lo + hi) >>> 1;
+      invokeAll(new SortTask<>(a, b, lo, mid, !intoB, granularity),
+          new SortTask<>(a, b, mid, hi, !intoB, granularity));
+      new MergeTask<>(intoB ? a : b, lo, mid, mid, hi, intoB ? b : a, lo,
+          granularity).compute();
+    }
+  }
+
+  private static final class MergeTask<T extends Comparable<? super T>>
+      extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final T[] src;
+    private final int lo1;
+    private final int hi1;
+    private final int lo2;
+    private final int hi2;
+    private final T[] dst;
+    private final int out;
+    private final int granularity;
+
+    MergeTask(T[] src, int lo1, int hi1, int lo2, int hi2, T[] dst,
+        int out, int granularity) {
+      this.src = src;
+      this.lo1 = lo1;
+      this.hi1 = hi1;
+      this.lo2 = lo2;
+      this.hi2 = hi2;
+      this.dst = dst;
+      this.out = out;
+      this.granularity = granularity;
+    }
+
+    @Override
+    protected void compute() {
+      int n1 = hi1 - lo1;
+      int n2 = hi2 - lo2;
+      if (n1 + n2 <= granularity) {
+        mergeRuns(src, lo1, hi1, lo2, hi2, dst, out);
+        return;
+      }
+      // split the output in half; the split point in each run is found by
+      // binary search, so both halves can be merged independently
+      int k = (n1 + n2) >>> 1;
+      int i = coRank(src, lo1, n1, lo2, n2, k);
+      int j = k - i;
+      invokeAll(
+          new MergeTask<>(src, lo1, lo1 + i, lo2, lo2 + j, dst, out,
+              granularity),
+          new MergeTask<>(src, lo1 + i, hi1, lo2 + j, hi2, dst, out + k,
+              granularity));
+    }
+  }
+
+  /**
+   * Parallel merge sort for int arrays. See parallelMergeSort(T[]).
+   *
+   * @param a The array to sort
+   */
+  public static void parallelMergeSort(int[] a) {
+    parallelMergeSort(a, PARALLEL_GRANULARITY);
+  }
+
+  public static void parallelMergeSort(int[] a, int granularity) {
+    if (granularity < 1) {
+      throw new IllegalArgumentException("Granularity less than 1");
+    }
+    int[] aux = new int[a.length];
+    ForkJoinPool.commonPool().invoke(
+        new IntSortTask(a, aux, 0, a.length, false, granularity));
+  }
+
+  /**
+   * Stably sorts a[lo, hi), leaving the result in b if intoB and in a
+   * otherwise. Each level of the recursion merges from one array into the
+   * other, so no range is ever copied back.
+   */
+  private static void stableSort(int[] a, int[] b, int lo, int hi,
+      boolean intoB) {
+    if (hi - lo < 2) {
+      if (intoB && hi > lo) {
+        b[lo] = a[lo];
+      }
+      return;
+    }
+    int mid = (lo + hi) >>> 1;
+    stableSort(a, b, lo, mid, !intoB);
+    stableSort(a, b, mid, hi, !intoB);
+    if (intoB) {
+      mergeRuns(a, lo, mid, mid, hi, b, lo);
+    } else {
+      mergeRuns(b, lo, mid, mid, hi, a, lo);
+    }
+  }
+
+  /**
+   * Merges the sorted runs src[lo1, hi1) and src[lo2, hi2) into dst starting
+   * at out, taking from the first run on ties.
+   */
+  private static void mergeRuns(int[] src, int lo1, int hi1, int lo2,
+      int hi2, int[] dst, int out) {
+    while (lo1 < hi1 && lo2 < hi2) {
+      if (src[lo2] < src[lo1]) {
+        dst[out++] = src[lo2++];
+      } else {
+        dst[out++] = src[lo1++];
+      }
+    }
+    System.arraycopy(src, lo1, dst, out, hi1 - lo1);
+    System.arraycopy(src, lo2, dst, out + hi1 - lo1, hi2 - lo2);
+  }
+
+  /**
+   * Finds how many of the first k merged elements come from the first of
+   * two sorted runs of lengths n1 and n2, by binary search.
+   */
+  private static int coRank(int[] src, int lo1, int n1, int lo2, int n2,
+      int k) {
+    int lo = Math.max(0, k - n2);
+    int hi = Math.min(k, n1);
+    while (lo < hi) {
+      int i = (lo + hi) >>> 1;
+      // if element i of the first run goes before element k - i - 1 of the
+      // second, more than i elements of the first run are among the first k
+      if (src[lo1 + i] <= src[lo2 + k - i - 1]) {
+        lo = i + 1;
+      } else {
+        hi = i;
+      }
+    }
+    return lo;
+  }
+
+  private static final class IntSortTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int[] a;
+    private final int[] b;
+    private final int lo;
+    private final int hi;
+    private final boolean intoB;
+    private final int granularity;
+
+    IntSortTask(int[] a, int[] b, int lo, int hi, boolean intoB,
+        int granularity) {
+      this.a = a;
+      this.b = b;
+      this.lo = lo;
+      this.hi = hi;
+      this.intoB = intoB;
+      this.granularity = granularity;
+    }
+
+    @Override
+    protected void compute() {
+      if (hi - lo <= granularity) {
+        stableSort(a, b, lo, hi, intoB);
+        return;
+      }
+      int mid = (lo + hi) >>> 1;
+      invokeAll(new IntSortTask(a, b, lo, mid, !intoB, granularity),
+          new IntSortTask(a, b, mid, hi, !intoB, granularity));
+      new IntMergeTask(intoB ? a : b, lo, mid, mid, hi, intoB ? b : a, lo,
+          granularity).compute();
+    }
+  }
+
+  private static final class IntMergeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int[] src;
+    private final int lo1;
+    private final int hi1;
+    private final int lo2;
+    private final int hi2;
+    private final int[] dst;
+    private final int out;
+    private final int granularity;
+
+    IntMergeTask(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst,
+        int out, int granularity) {
+      this.src = src;
+      this.lo1 = lo1;
+      this.hi1 = hi1;
+      this.lo2 = lo2;
+      this.hi2 = hi2;
+      this.dst = dst;
+      this.out = out;
+      this.granularity = granularity;
+    }
+
+    @Override
+    protected void compute() {
+      int n1 = hi1 - lo1;
+      int n2 = hi2 - lo2;
+      if (n1 + n2 <= granularity) {
+        mergeRuns(src, lo1, hi1, lo2, hi2, dst, out);
+        return;
+      }
+      // split the output in half; the split point in each run is found by
+      // binary search, so both halves can be merged independently
+      int k = (n1 + n2) >>> 1;
+      int i = coRank(src, lo1, n1, lo2, n2, k);
+      int j = k - i;
+      invokeAll(
+          new IntMergeTask(src, lo1, lo1 + i, lo2, lo2 + j, dst, out,
+              granularity),
+          new IntMergeTask(src, lo1 + i, hi1, lo2 + j, hi2, dst, out + k,
+              granularity));
+    }
+  }
+
+  /**
+   * Parallel merge sort for long arrays. See parallelMergeSort(T[]).
+   *
+   * @param a The array to sort
+   */
+  public static void parallelMergeSort(long[] a) {
+    parallelMergeSort(a, PARALLEL_GRANULARITY);
+  }
+
+  public static void parallelMergeSort(long[] a, int granularity) {
+    if (granularity < 1) {
+      throw new IllegalArgumentException("Granularity less than 1");
+    }
+    long[] aux = new long[a.length];
+    ForkJoinPool.commonPool().invoke(
+        new LongSortTask(a, aux, 0, a.length, false, granularity));
+  }
+
+  /**
+   * Stably sorts a[lo, hi), leaving the result in b if intoB and in a
+   * otherwise. Each level of the recursion merges from one array into the
+   * other, so no range is ever copied back.
+   */
+  private static void stableSort(long[] a, long[] b, int lo, int hi,
+      boolean intoB) {
+    if (hi - lo < 2) {
+      if (intoB && hi > lo) {
+        b[lo] = a[lo];
+      }
+      return;
+    }
+    int mid = (lo + hi) >>> 1;
+    stableSort(a, b, lo, mid, !intoB);
+    stableSort(a, b, mid, hi, !intoB);
+    if (intoB) {
+      mergeRuns(a, lo, mid, mid, hi, b, lo);
+    } else {
+      mergeRuns(b, lo, mid, mid, hi, a, lo);
+    }
+  }
+
+  /**
+   * Merges the sorted runs src[lo1, hi1) and src[lo2, hi2) into dst starting
+   * at out, taking from the first run on ties.
+   */
+  private static void mergeRuns(long[] src, int lo1, int hi1, int lo2,
+      int hi2, long[] dst, int out) {
+    while (lo1 < hi1 && lo2 < hi2) {
+      if (src[lo2] < src[lo1]) {
+        dst[out++] = src[lo2++];
+      } else {
+        dst[out++] = src[lo1++];
+      }
+    }
+    System.arraycopy(src, lo1, dst, out, hi1 - lo1);
+    System.arraycopy(src, lo2, dst, out + hi1 - lo1, hi2 - lo2);
+  }
+
+  /**
+   * Finds how many of the first k merged elements come from the first of
+   * two sorted runs of lengths n1 and n2, by binary search.
+   */
+  private static int coRank(long[] src, int lo1, int n1, int lo2, int n2,
+      int k) {
+    int lo = Math.max(0, k - n2);
+    int hi = Math.min(k, n1);
+    while (lo < hi) {
+      int i = (lo + hi) >>> 1;
+      // if element i of the first run goes before element k - i - 1 of the
+      // second, more than i elements of the first run are among the first k
+      if (src[lo1 + i] <= src[lo2 + k - i - 1]) {
+        lo = i + 1;
+      } else {
+        hi = i;
+      }
+    }
+    return lo;
+  }
+
+  private static final class LongSortTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final long[] a;
+    private final long[] b;
+    private final int lo;
+    private final int hi;
+    private final boolean intoB;
+    private final int granularity;
+
+    LongSortTask(long[] a, long[] b, int lo, int hi, boolean intoB,
+        int granularity) {
+      this.a = a;
+      this.b = b;
+      this.lo = lo;
+      this.hi = hi;
+      this.intoB = intoB;
+      this.granularity = granularity;
+    }
+
+    @Override
+    protected void compute() {
+      if (hi - lo <= granularity) {
+        stableSort(a, b, lo, hi, intoB);
+        return;
+      }
+      int mid = (lo + hi) >>> 1;
+      invokeAll(new LongSortTask(a, b, lo, mid, !intoB, granularity),
+          new LongSortTask(a, b, mid, hi, !intoB, granularity));
+      new LongMergeTask(intoB ? a : b, lo, mid, mid, hi, intoB ? b : a, lo,
+          granularity).compute();
+    }
+  }
+
+  private static final class LongMergeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final long[] src;
+    private final int lo1;
+    private final int hi1;
+    private final int lo2;
+    private final int hi2;
+    private final long[] dst;
+    private final int out;
+    private final int granularity;
+
+    LongMergeTask(long[] src, int lo1, int hi1, int lo2, int hi2, long[] dst,
+        int out, int granularity) {
+      this.src = src;
+      this.lo1 = lo1;
+      this.hi1 = hi1;
+      this.lo2 = lo2;
+      this.hi2 = hi2;
+      this.dst = dst;
+      this.out = out;
+      this.granularity = granularity;
+    }
+
+    @Override
+    protected void compute() {
+      int n1 = hi1 - lo1;
+      int n2 = hi2 - lo2;
+      if (n1 + n2 <= granularity) {
+        mergeRuns(src, lo1, hi1, lo2, hi2, dst, out);
+        return;
+      }
+      // split the output in half; the split point in each run is found by
+      // binary search, so both halves can be merged independently
+      int k = (n1 + n2) >>> 1;
+      int i = coRank(src, lo1, n1, lo2, n2, k);
+      int j = k - i;
+      invokeAll(
+          new LongMergeTask(src, lo1, lo1 + i, lo2, lo2 + j, dst, out,
+              granularity),
+          new LongMergeTask(src, lo1 + i, hi1, lo2 + j, hi2, dst, out + k,
+              granularity));
+    }
+  }
+
+  /**
+   * Parallel merge sort for double arrays. See parallelMergeSort(T[]).
+   *
+   * @param a The array to sort
+   */
+  public static void parallelMergeSort(double[] a) {
+    parallelMergeSort(a, PARALLEL_GRANULARITY);
+  }
+
+  public static void parallelMergeSort(double[] a, int granularity) {
+    if (granularity < 1) {
+      throw new IllegalArgumentException("Granularity less than 1");
+    }
+    double[] aux = new double[a.length];
+    ForkJoinPool.commonPool().invoke(
+        new DoubleSortTask(a, aux, 0, a.length, false, granularity));
+  }
+
+  /**
+   * Stably sorts a[lo, hi), leaving the result in b if intoB and in a
+   * otherwise. Each level of the recursion merges from one array into the
+   * other, so no range is ever copied back.
+   */
+  private static void stableSort(double[] a, double[] b, int lo, int hi,
+      boolean intoB) {
+    if (hi - lo < 2) {
+      if (intoB && hi > lo) {
+        b[lo] = a[lo];
+      }
+      return;
+    }
+    int mid = (lo + hi) >>> 1;
+    stableSort(a, b, lo, mid, !intoB);
+    stableSort(a, b, mid, hi, !intoB);
+    if (intoB) {
+      mergeRuns(a, lo, mid, mid, hi, b, lo);
+    } else {
+      mergeRuns(b, lo, mid, mid, hi, a, lo);
+    }
+  }
+
+  /**
+   * Merges the sorted runs src[lo1, hi1) and src[lo2, hi2) into dst starting
+   * at out, taking from the first run on ties.
+   */
+  private static void mergeRuns(double[] src, int lo1, int hi1, int lo2,
+      int hi2, double[] dst, int out) {
+    while (lo1 < hi1 && lo2 < hi2) {
+      if (Double.compare(src[lo2], src[lo1]) < 0) {
+        dst[out++] = src[lo2++];
+      } else {
+        dst[out++] = src[lo1++];
+      }
+    }
+    System.arraycopy(src, lo1, dst, out, hi1 - lo1);
+    System.arraycopy(src, lo2, dst, out + hi1 - lo1, hi2 - lo2);
+  }
+
+  /**
+   * Finds how many of the first k merged elements come from the first of
+   * two sorted runs of lengths n1 and n2, by binary search.
+   */
+  private static int coRank(double[] src, int lo1, int n1, int lo2, int n2,
+      int k) {
+    int lo = Math.max(0, k - n2);
+    int hi = Math.min(k, n1);
+    while (lo < hi) {
+      int i = (lo + hi) >>> 1;
+      // if element i of the first run goes before element k - i - 1 of the
+      // second, more than i elements of the first run are among the first k
+      if (Double.compare(src[lo1 + i], src[lo2 + k - i - 1]) <= 0) {
+        lo = i + 1;
+      } else {
+        hi = i;
+      }
+    }
+    return lo;
+  }
+
+  private static final class DoubleSortTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final double[] a;
+    private final double[] b;
+    private final int lo;
+    private final int hi;
+    private final boolean intoB;
+    private final int granularity;
+
+    DoubleSortTask(double[] a, double[] b, int lo, int hi, boolean intoB,
+        int granularity) {
+      this.a = a;
+      this.b = b;
+      this.lo = lo;
+      this.hi = hi;
+      this.intoB = intoB;
+      this.granularity = granularity;
+    }
+
+    @Override
+    protected void compute() {
+      if (hi - lo <= granularity) {
+        stableSort(a, b, lo, hi, intoB);
+        return;
+      }
+      int mid = (lo + hi) >>> 1;
+      invokeAll(new DoubleSortTask(a, b, lo, mid, !intoB, granularity),
+          new DoubleSortTask(a, b, mid, hi, !intoB, granularity));
+      new DoubleMergeTask(intoB ? a : b, lo, mid, mid, hi, intoB ? b : a, lo,
+          granularity).compute();
+    }
+  }
+
+  private static final class DoubleMergeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final double[] src;
+    private final int lo1;
+    private final int hi1;
+    private final int lo2;
+    private final int hi2;
+    private final double[] dst;
+    private final int out;
+    private final int granularity;
+
+    DoubleMergeTask(double[] src, int lo1, int hi1, int lo2, int hi2,
+        double[] dst, int out, int granularity) {
+      this.src = src;
+      this.lo1 = lo1;
+      this.hi1 = hi1;
+      this.lo2 = lo2;
+      this.hi2 = hi2;
+      this.dst = dst;
+      this.out = out;
+      this.granularity = granularity;
+    }
+
+    @Override
+    protected void compute() {
+      int n1 = hi1 - lo1;
+      int n2 = hi2 - lo2;
+      if (n1 + n2 <= granularity) {
+        mergeRuns(src, lo1, hi1, lo2, hi2, dst, out);
+        return;
+      }
+      // split the output in half; the split point in each run is found by
+      // binary search, so both halves can be merged independently
+      int k = (n1 + n2) >>> 1;
+      int i = coRank(src, lo1, n1, lo2, n2, k);
+      int j = k - i;
+      invokeAll(
+          new DoubleMergeTask(src, lo1, lo1 + i, lo2, lo2 + j, dst, out,
+              granularity),
+          new DoubleMergeTask(src, lo1 + i, hi1, lo2 + j, hi2, dst, out + k,
+              granularity));
+    }
+  }
+
+  /**
+   * Swaps two values in an array a at indicies b and c
+   */
+  public static <T> void swap(T[] a, int b, int c) {
+    T temp = a[b];
+    a[b] = a[c];
+    a[c] = temp;
+  }
+
+  public static void swap(int[] a, int b, int c) {
+    int temp = a[b];
+    a[b] = a[c];
+    a[c] = temp;
+  }
+
+  public static void swap(long[] a, int b, int c) {
+    long temp = a[b];
+    a[b] = a[c];
+    a[c] = temp;
+  }
+
+  public static void swap(double[] a, int b, int c) {
+    double temp = a[b];
+    a[b] = a[c];
+    a[c] = temp;
+  }
+
+  /**
+   * Creates an Integer array with the given constraints:
+   * 
+   * @param size The size of the array
+   * @param min The minimum value to place in the array (inclusive)
+   * @param max The maximum value to place in the array (exclusive)
+   * @return A new, filled array obeying the given constraints.
+   */
+  public static Integer[] generateArray(int size, int min, int max) {
+    Integer[] ret = new Integer[size];
+    for (int i = 0; i < ret.length; i++) {
+       ret[i] = (int) (Math.random() * (max-min)) + min;
+    }
+    return ret;
+  }
+
+  /**
+   * Creates an int array with the given constraints.
+   *
+   * @param size The size of the array
+   * @param min The minimum value to place in the array (inclusive)
+   * @param max The maximum value to place in the array (exclusive)
+   * @return A new, filled array obeying the given constraints.
+   */
+  public static int[] generateIntArray(int size, int min, int max) {
+    int[] ret = new int[size];
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < ret.length; i++) {
+      ret[i] = random.nextInt(min, max);
+    }
+    return ret;
+  }
+
+  /**
+   * Creates a long array with the given constraints.
+   *
+   * @param size The size of the array
+   * @param min The minimum value to place in the array (inclusive)
+   * @param max The maximum value to place in the array (exclusive)
+   * @return A new, filled array obeying the given constraints.
+   */
+  public static long[] generateLongArray(int size, long min, long max) {
+    long[] ret = new long[size];
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < ret.length; i++) {
+      ret[i] = random.nextLong(min, max);
+    }
+    return ret;
+  }
+
+  /**
+   * Creates a double array with the given constraints.
+   *
+   * @param size The size of the array
+   * @param min The minimum value to place in the array (inclusive)
+   * @param max The maximum value to place in the array (exclusive)
+   * @return A new, filled array obeying the given constraints.
+   */
+  public static double[] generateDoubleArray(int size, double min,
+      double max) {
+    double[] ret = new double[size];
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < ret.length; i++) {
+      ret[i] = random.nextDouble(min, max);
+    }
+    return ret;
+  }
+
+  /**
+   * Prints an array. The perline argument indicates the number of 
+   * elements to print per line in the console. 
+   * 
+   * Format with perLine = 3:
+   * 
+   * [a[0], a[1], a[2]
+   * a[3], a[4], a[5]]
+   * 
+   * Where a[x] is the value of the array at index x
+   */
+  public static <T> void print(T[] a, int perLine) {
+    System.out.print("[");
+    for (int i = 0; i < a.length - 1; i++) {
+      System.out.print(a[i]);
+
+      if ((i + 1) % perLine == 0) {
+        System.out.print(",\n");
+      } else {
+        System.out.print(", ");
+      }
+    }
+    System.out.println(a[a.length-1] + "]");
+  }
+
+  public static void main(String[] args) {
+    int arraySize = 10000;
+
+    if (args.length != 0) {
+      arraySize = Integer.parseInt(args[0]);
+    }
+    Integer[] a = generateArray(arraySize, 0, 200000);
+    Integer[] b = generateArray(arraySize, -200000, 200000);
+    Integer[] c = generateArray(arraySize, -200000, 200000);
+    Integer[] d = generateArray(arraySize, 0, 200);
+    Integer[] e = generateArray(arraySize, 0, 200);
+    Integer[] f = generateArray(arraySize, -200000, 200000);
+
+    System.out.println("Generated arrays!");
+
+    print(e, 10);
+    long start = System.nanoTime();
+    quickSort(e);
+    long end = System.nanoTime() - start;
+    print(e, 10);
+
+    System.out.println("Quick sort took " + end / 1e9 + "(s)");
+
+    start = System.nanoTime();
+    mergeSort(d);
+    end = System.nanoTime() - start;
+
+    System.out.println("Merge sort took " + end / 1e9 + "(s)");
+
+    start = System.nanoTime();
+    parallelMergeSort(f);
+    end = System.nanoTime() - start;
+
+    System.out.println("Parallel merge sort took " + end / 1e9 + "(s)");
     start = System.nanoTime();
     shellSort(c);
     end = System.nanoTime() - start;
@@ -0,0 +1,398 @@
+package cs445.sorting;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checks the sorts in Sorting against java.util.Arrays.sort: the stability
+ * of parallelMergeSort, quickSort on the inputs that defeat a naive quick
+ * sort, and the primitive insertion, shell and merge sorts. Run it with
+ * java cs445.sorting.SortingTest; it throws AssertionError at the first
+ * check that fails.
+ */
+public class SortingTest {
+
+  private static final Random RANDOM = new Random(24);
+
+  /** Sizes around the granularities, the insertion cutoff and powers of 2 */
+  private static final int[] SIZES = {
+    0, 1, 2, 3, 7, 16, 17, 31, 32, 33, 100, 1000, 1023, 1024, 1025, 10000,
+    65536, 100003,
+  };
+
+  /** The number of patterns pattern knows */
+  private static final int PATTERNS = 10;
+
+  /** The largest input handed to the quadratic insertion sort */
+  private static final int INSERTION_LIMIT = 2048;
+
+  public static void main(String[] args) {
+    parallelMergeSortIsStable();
+    parallelMergeSortPrimitives();
+    quickSortPatterns();
+    quickSortRanges();
+    quickSortManyDuplicates();
+    simpleSortsPrimitives();
+    generatorsStayInRange();
+    System.out.println("All sorting tests passed");
+  }
+
+  /**
+   * Sorts records by a key with few distinct values. Arrays.sort on
+   * objects is stable, so a stable sort must put the ids in exactly the
+   * same order.
+   */
+  private static void parallelMergeSortIsStable() {
+    for (int size : SIZES) {
+      for (int granularity : new int[] {1, 2, 7, 64, 1 << 13, 1 << 20}) {
+        int keys = 1 + RANDOM.nextInt(50);
+        Item[] a = new Item[size];
+        for (int i = 0; i < size; i++) {
+          a[i] = new Item(RANDOM.nextInt(keys), i);
+        }
+        Item[] expected = a.clone();
+        Arrays.sort(expected);
+
+        Sorting.parallelMergeSort(a, granularity);
+        for (int i = 0; i < size; i++) {
+          check(a[i] == expected[i], "unstable at " + i + " of " + size
+              + " with granularity " + granularity);
+        }
+      }
+    }
+
+    try {
+      Sorting.parallelMergeSort(new Item[1], 0);
+      throw new AssertionError("granularity 0 accepted");
+    } catch (IllegalArgumentException expected) {
+      // rejected
+    }
+  }
+
+  private static void parallelMergeSortPrimitives() {
+    for (int size : SIZES) {
+      for (int granularity : new int[] {1, 5, 1 << 13}) {
+        int[] ints = randomInts(size);
+        int[] intsExpected = ints.clone();
+        Arrays.sort(intsExpected);
+        Sorting.parallelMergeSort(ints, granularity);
+        check(Arrays.equals(ints, intsExpected), "int[] of " + size);
+
+        long[] longs = randomLongs(size);
+        long[] longsExpected = longs.clone();
+        Arrays.sort(longsExpected);
+        Sorting.parallelMergeSort(longs, granularity);
+        check(Arrays.equals(longs, longsExpected), "long[] of " + size);
+
+        double[] doubles = randomDoubles(size);
+        double[] doublesExpected = doubles.clone();
+        Arrays.sort(doublesExpected);
+        Sorting.parallelMergeSort(doubles, granularity);
+        check(Arrays.equals(doubles, doublesExpected), "double[] of " + size);
+      }
+    }
+  }
+
+  /**
+   * Runs quickSort on every pattern and size, for all four element types.
+   * Inputs that make a plain quick sort quadratic would not finish here.
+   */
+  private static void quickSortPatterns() {
+    for (int size : SIZES) {
+      for (int pattern = 0; pattern < PATTERNS; pattern++) {
+        int[] ints = pattern(pattern, size);
+        String what = "pattern " + pattern + " of " + size;
+
+        Integer[] boxed = Arrays.stream(ints).boxed().toArray(Integer[]::new);
+        Integer[] boxedExpected = boxed.clone();
+        Arrays.sort(boxedExpected);
+        Sorting.quickSort(boxed);
+        check(Arrays.equals(boxed, boxedExpected), "Integer[] " + what);
+
+        long[] longs = Arrays.stream(ints).asLongStream().toArray();
+        long[] longsExpected = longs.clone();
+        Arrays.sort(longsExpected);
+        Sorting.quickSort(longs);
+        check(Arrays.equals(longs, longsExpected), "long[] " + what);
+
+        // negate half the zeros, so -0.0 and 0.0 must be told apart
+        double[] doubles = Arrays.stream(ints).asDoubleStream().toArray();
+        for (int i = 0; i < size; i += 2) {
+          if (doubles[i] == 0) doubles[i] = -0.0;
+        }
+        double[] doublesExpected = doubles.clone();
+        Arrays.sort(doublesExpected);
+        Sorting.quickSort(doubles);
+        check(Arrays.equals(doubles, doublesExpected), "double[] " + what);
+
+        int[] intsExpected = ints.clone();
+        Arrays.sort(intsExpected);
+        Sorting.quickSort(ints);
+        check(Arrays.equals(ints, intsExpected), "int[] " + what);
+      }
+
+      double[] doubles = randomDoubles(size);
+      double[] doublesExpected = doubles.clone();
+      Arrays.sort(doublesExpected);
+      Sorting.quickSort(doubles);
+      check(Arrays.equals(doubles, doublesExpected), "double[] of " + size);
+    }
+  }
+
+  /**
+   * Sorts a sub-range, which must come out as Arrays.sort would sort it
+   * while everything outside is left alone.
+   */
+  private static void quickSortRanges() {
+    for (int round = 0; round < 2000; round++) {
+      int size = RANDOM.nextInt(3000);
+      int[] a = pattern(RANDOM.nextInt(PATTERNS), size);
+      int start = RANDOM.nextInt(size + 1);
+      int end = start + RANDOM.nextInt(size - start + 1);
+
+      int[] expected = a.clone();
+      Arrays.sort(expected, start, end);
+      Integer[] boxed = Arrays.stream(a).boxed().toArray(Integer[]::new);
+      Integer[] boxedExpected =
+          Arrays.stream(expected).boxed().toArray(Integer[]::new);
+      long[] longs = Arrays.stream(a).asLongStream().toArray();
+      double[] doubles = Arrays.stream(a).asDoubleStream().toArray();
+
+      Sorting.quickSort(a, start, end);
+      check(Arrays.equals(a, expected), "int[] range " + start + ".." + end);
+      Sorting.quickSort(boxed, start, end);
+      check(Arrays.equals(boxed, boxedExpected), "Integer[] range");
+      Sorting.quickSort(longs, start, end);
+      check(Arrays.equals(longs, Arrays.stream(expected).asLongStream()
+          .toArray()), "long[] range");
+      Sorting.quickSort(doubles, start, end);
+      check(Arrays.equals(doubles, Arrays.stream(expected).asDoubleStream()
+          .toArray()), "double[] range");
+    }
+  }
+
+  /**
+   * A million elements with a handful of distinct keys. The three-way
+   * partition finishes each key in one pass; without it this is quadratic.
+   */
+  private static void quickSortManyDuplicates() {
+    int size = 1 << 20;
+    for (int keys : new int[] {1, 2, 3, 17}) {
+      int[] a = new int[size];
+      for (int i = 0; i < size; i++) {
+        a[i] = RANDOM.nextInt(keys);
+      }
+      Integer[] boxed = Arrays.stream(a).boxed().toArray(Integer[]::new);
+      int[] expected = a.clone();
+      Arrays.sort(expected);
+
+      Sorting.quickSort(a);
+      check(Arrays.equals(a, expected), "int[] with " + keys + " keys");
+      Sorting.quickSort(boxed);
+      for (int i = 0; i < size; i++) {
+        check(boxed[i] == expected[i], "Integer[] with " + keys + " keys");
+      }
+    }
+  }
+
+  /**
+   * Runs the primitive insertionSort, shellSort and mergeSort on every
+   * pattern and size, leaving out insertion sort on the largest inputs.
+   * Doubles include NaN and both zeros, which must be ordered as
+   * Double.compare orders them.
+   */
+  private static void simpleSortsPrimitives() {
+    for (int size : SIZES) {
+      for (int pattern = 0; pattern <= PATTERNS; pattern++) {
+        int[] ints = pattern < PATTERNS ? pattern(pattern, size)
+            : randomInts(size);
+        long[] longs = pattern < PATTERNS
+            ? Arrays.stream(ints).asLongStream().toArray()
+            : randomLongs(size);
+        double[] doubles = pattern < PATTERNS
+            ? Arrays.stream(ints).asDoubleStream().toArray()
+            : randomDoubles(size);
+        String what = "pattern " + pattern + " of " + size;
+
+        int[] intsExpected = ints.clone();
+        Arrays.sort(intsExpected);
+        long[] longsExpected = longs.clone();
+        Arrays.sort(longsExpected);
+        double[] doublesExpected = doubles.clone();
+        Arrays.sort(doublesExpected);
+
+        for (int sort = 0; sort < 3; sort++) {
+          if (sort == 0 && size > INSERTION_LIMIT) continue;
+          String name = new String[] {"insertionSort", "shellSort",
+            "mergeSort"}[sort] + " ";
+
+          int[] a = ints.clone();
+          long[] b = longs.clone();
+          double[] c = doubles.clone();
+          switch (sort) {
+          case 0:
+            Sorting.insertionSort(a);
+            Sorting.insertionSort(b);
+            Sorting.insertionSort(c);
+            break;
+          case 1:
+            Sorting.shellSort(a);
+            Sorting.shellSort(b);
+            Sorting.shellSort(c);
+            break;
+          default:
+            Sorting.mergeSort(a);
+            Sorting.mergeSort(b);
+            Sorting.mergeSort(c);
+          }
+          check(Arrays.equals(a, intsExpected), name + "int[] " + what);
+          check(Arrays.equals(b, longsExpected), name + "long[] " + what);
+          check(Arrays.equals(c, doublesExpected),
+              name + "double[] " + what);
+        }
+      }
+    }
+  }
+
+  /**
+   * The primitive generators fill arrays of the requested size with values
+   * in [min, max), including ranges that only fit in a long or that hold a
+   * single value.
+   */
+  private static void generatorsStayInRange() {
+    int[] ints = Sorting.generateIntArray(100000, -5, 5);
+    check(ints.length == 100000, "int[] size");
+    for (int x : ints) {
+      check(x >= -5 && x < 5, "int " + x + " out of range");
+    }
+    check(Arrays.stream(ints).distinct().count() == 10, "int[] spread");
+    for (int x : Sorting.generateIntArray(100, 7, 8)) {
+      check(x == 7, "int " + x + " in [7, 8)");
+    }
+
+    long min = Long.MIN_VALUE / 2;
+    long max = Long.MAX_VALUE / 2 + 1000;
+    for (long x : Sorting.generateLongArray(100000, min, max)) {
+      check(x >= min && x < max, "long " + x + " out of range");
+    }
+
+    double[] doubles = Sorting.generateDoubleArray(100000, -1.5, 2.5);
+    for (double x : doubles) {
+      check(x >= -1.5 && x < 2.5, "double " + x + " out of range");
+    }
+    check(Sorting.generateDoubleArray(0, 0, 1).length == 0, "empty array");
+  }
+
+  /**
+   * Builds one of the inputs that defeat naive quick sorts: sorted,
+   * reversed, organ pipe, all equal, few distinct keys, sawtooth, sorted
+   * with a few swaps, and the median-of-3 killer, plus random input with
+   * and without duplicates.
+   */
+  private static int[] pattern(int pattern, int size) {
+    int[] a = new int[size];
+    switch (pattern) {
+    case 0:
+      for (int i = 0; i < size; i++) a[i] = RANDOM.nextInt();
+      break;
+    case 1:
+      for (int i = 0; i < size; i++) a[i] = i;
+      break;
+    case 2:
+      for (int i = 0; i < size; i++) a[i] = size - i;
+      break;
+    case 3:
+      for (int i = 0; i < size; i++) a[i] = Math.min(i, size - i);
+      break;
+    case 4:
+      Arrays.fill(a, 7);
+      break;
+    case 5:
+      for (int i = 0; i < size; i++) a[i] = RANDOM.nextInt(4);
+      break;
+    case 6:
+      for (int i = 0; i < size; i++) a[i] = i % 16;
+      break;
+    case 7:
+      for (int i = 0; i < size; i++) a[i] = i;
+      for (int i = 0; i < size / 100 + 1 && size > 0; i++) {
+        Sorting.swap(a, RANDOM.nextInt(size), RANDOM.nextInt(size));
+      }
+      break;
+    case 8:
+      // Musser's median-of-3 killer, for the even part of the array
+      int k = size / 2;
+      for (int i = 1; i <= k; i++) {
+        if (i % 2 == 1) {
+          a[i - 1] = i;
+          a[i] = k + i;
+        }
+        a[k + i - 1] = 2 * i;
+      }
+      if (size % 2 == 1) a[size - 1] = size;
+      break;
+    default:
+      for (int i = 0; i < size; i++) a[i] = RANDOM.nextInt(size / 2 + 1);
+    }
+    return a;
+  }
+
+  private static int[] randomInts(int size) {
+    int range = 1 + RANDOM.nextInt(size + 1);
+    int[] a = new int[size];
+    for (int i = 0; i < size; i++) {
+      a[i] = RANDOM.nextBoolean() ? RANDOM.nextInt(range) - range / 2
+          : RANDOM.nextInt();
+    }
+    return a;
+  }
+
+  private static long[] randomLongs(int size) {
+    long[] a = new long[size];
+    for (int i = 0; i < size; i++) {
+      a[i] = RANDOM.nextBoolean() ? RANDOM.nextInt(100) - 50
+          : RANDOM.nextLong();
+    }
+    return a;
+  }
+
+  /**
+   * Doubles including NaN, both zeros and the infinities, which must end up
+   * in the order Double.compare gives them.
+   */
+  private static double[] randomDoubles(int size) {
+    double[] special = {
+      Double.NaN, 0.0, -0.0, Double.POSITIVE_INFINITY,
+      Double.NEGATIVE_INFINITY, Double.MIN_VALUE, -Double.MAX_VALUE,
+    };
+    double[] a = new double[size];
+    for (int i = 0; i < size; i++) {
+      a[i] = RANDOM.nextInt(10) == 0 ? special[RANDOM.nextInt(special.length)]
+          : RANDOM.nextGaussian() * 1000;
+    }
+    return a;
+  }
+
+  /**
+   * A record ordered by its key alone, so equal keys can be told apart by
+   * id.
+   */
+  private static final class Item implements Comparable<Item> {
+    final int key;
+    final int id;
+
+    Item(int key, int id) {
+      this.key = key;
+      this.id = id;
+    }
+
+    @Override
+    public int compareTo(Item other) {
+      return Integer.compare(key, other.key);
+    }
+  }
+
+  private static void check(boolean condition, String what) {
+    if (!condition) throw new AssertionError(what);
+  }
+}